@@ -0,0 +1,68 @@
+package com.rikuthin.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.rikuthin.utility.Bearing2D;
+
+/**
+ * Cost of building bearings from aim points, as done once per shot.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BearingBenchmark {
+
+    /**
+     * The number of bearings built per invocation.
+     */
+    @Param({"10", "1000", "100000"})
+    public int entityCount;
+
+    private static final int START_X = 300;
+    private static final int START_Y = 605;
+
+    private int[] targetX;
+    private int[] targetY;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(entityCount);
+        targetX = new int[entityCount];
+        targetY = new int[entityCount];
+        for (int i = 0; i < entityCount; i++) {
+            targetX[i] = random.nextInt(600);
+            targetY[i] = random.nextInt(590);
+        }
+    }
+
+    @Benchmark
+    public void fromPoints(final Blackhole blackhole) {
+        for (int i = 0; i < entityCount; i++) {
+            blackhole.consume(new Bearing2D(START_X, START_Y, targetX[i], targetY[i]));
+        }
+    }
+
+    @Benchmark
+    public void fromDegrees(final Blackhole blackhole) {
+        for (int i = 0; i < entityCount; i++) {
+            blackhole.consume(new Bearing2D(targetX[i] - targetY[i]));
+        }
+    }
+}
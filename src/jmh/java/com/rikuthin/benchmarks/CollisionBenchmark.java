@@ -0,0 +1,118 @@
+package com.rikuthin.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.rikuthin.game_objects.Bubble;
+import com.rikuthin.game_objects.Wall;
+import com.rikuthin.simulation.EntityStore;
+import com.rikuthin.simulation.WallSweep;
+import com.rikuthin.simulation.World;
+import com.rikuthin.simulation.WorldListener;
+import com.rikuthin.utility.Bearing2D;
+import com.rikuthin.utility.RandomColour;
+
+/**
+ * Per-tick cost of moving every wall and of testing a fixed number of
+ * bubbles' paths over a step against them, as the world does (with the wall
+ * grid once there are more than a few walls) and with a linear scan.
+ * <p>
+ * The world grows with the wall count so wall density stays the same as in
+ * a normal game; with the grid the cost per bubble should stay flat.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class CollisionBenchmark {
+
+    /**
+     * The number of moving walls.
+     */
+    @Param({"10", "100", "1000", "10000"})
+    public int wallCount;
+
+    private static final int BUBBLES = 100;
+    private static final double STEP = 15; // How far each bubble has come up since the last tick
+
+    private World world;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        final Random random = new Random(wallCount);
+        final double scale = Math.sqrt(wallCount / 10.0);
+        world = new World(World.DEFAULT_WIDTH * scale, World.DEFAULT_HEIGHT * scale, random, WorldListener.NONE);
+
+        for (int i = 0; i < wallCount; i++) {
+            final int width = random.nextInt(51) + 30;
+            final int height = random.nextInt(21) + 30;
+            final int x = random.nextInt((int) world.getWidth() - width);
+            final int y = random.nextInt((int) world.getHeight() - height);
+            world.spawnWall(x, y, width, height, RandomColour.next(random),
+                    random.nextInt(9) + 1.0, new Bearing2D(random.nextBoolean() ? 0 : 180));
+        }
+
+        // Stationary bubbles, so only the collision tests touch them
+        for (int i = 0; i < BUBBLES; i++) {
+            world.spawnBubble(random.nextInt((int) world.getWidth()), random.nextInt((int) world.getHeight()),
+                    RandomColour.next(random), 0, 0);
+        }
+    }
+
+    @Benchmark
+    public void wallMove() {
+        synchronized (world) {
+            for (int w = 0; w < wallCount; w++) {
+                Wall.move(world, w, 1.0);
+            }
+        }
+    }
+
+    @Benchmark
+    public void gridCollision(final Blackhole blackhole) {
+        synchronized (world) {
+            final EntityStore<Bubble> bubbles = world.getBubbleStore();
+            final WallSweep sweep = world.wallSweep();
+            for (int b = 0; b < BUBBLES; b++) {
+                final double x = bubbles.x()[b];
+                final double y = bubbles.y()[b];
+                blackhole.consume(world.sweepHitsAnyWall(sweep.set(x, y + STEP, x, y, Bubble.SIZE)));
+            }
+        }
+    }
+
+    @Benchmark
+    public void scanCollision(final Blackhole blackhole) {
+        synchronized (world) {
+            final EntityStore<Bubble> bubbles = world.getBubbleStore();
+            final WallSweep sweep = world.wallSweep();
+            for (int b = 0; b < BUBBLES; b++) {
+                final double x = bubbles.x()[b];
+                final double y = bubbles.y()[b];
+                sweep.set(x, y + STEP, x, y, Bubble.SIZE);
+                boolean hit = false;
+                for (int w = 0; w < wallCount && !hit; w++) {
+                    hit = sweep.test(w);
+                }
+                blackhole.consume(hit);
+            }
+        }
+    }
+}
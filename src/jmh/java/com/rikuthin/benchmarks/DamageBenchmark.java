@@ -0,0 +1,191 @@
+package com.rikuthin.benchmarks;
+
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rikuthin.rendering.DamageTracker;
+import com.rikuthin.screen_panels.gameplay_subpanels.BubblePanel;
+import com.rikuthin.simulation.World;
+import com.rikuthin.simulation.WorldListener;
+import com.rikuthin.utility.Bearing2D;
+import com.rikuthin.utility.RandomColour;
+
+/**
+ * Cost of one frame of the bubble panel in a typical game, a random wall
+ * layout with a row of stopped bubbles along the top and one bubble in
+ * flight, repainted either whole or only where damaged since the last
+ * frame.
+ * <p>
+ * The world advances outside the timed part of each call. After every
+ * iteration the incrementally painted image is checked against a full
+ * repaint, and the run fails if any stale pixels are left behind. Runs
+ * headless.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class DamageBenchmark {
+
+    /**
+     * How much of the panel is repainted each frame.
+     */
+    public enum Repaint {
+        /**
+         * The whole panel.
+         */
+        FULL,
+        /**
+         * Only the regions damaged since the last frame.
+         */
+        DAMAGED
+    }
+
+    /**
+     * How much of the panel is repainted each frame.
+     */
+    @Param({"FULL", "DAMAGED"})
+    public Repaint repaint;
+
+    private static final int TICKS_PER_FRAME = 2; // About 60 fps at the usual tick rate
+    private static final int STOPPED_BUBBLES = 20;
+
+    private final DamageTracker damage = new DamageTracker();
+    private final int[] regions = new int[DamageTracker.MAX_REGIONS * 4];
+    private Random random;
+    private World world;
+    private OffscreenPanel panel;
+    private BufferedImage image;
+    private Graphics2D graphics;
+
+    /**
+     * Exposes the panel's paint method without going through Swing's
+     * repaint machinery.
+     */
+    private static final class OffscreenPanel extends BubblePanel {
+
+        void render(final Graphics g) {
+            paintComponent(g);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        final WorldListener listener = new WorldListener() {
+            @Override
+            public void onEntityMoved(final double oldX, final double oldY, final double newX, final double newY,
+                    final double width, final double height) {
+                final double minX = Math.min(oldX, newX);
+                final double minY = Math.min(oldY, newY);
+                damage.add(minX, minY, Math.max(oldX, newX) + width - minX, Math.max(oldY, newY) + height - minY);
+            }
+        };
+
+        random = new Random(42);
+        world = new World(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT, random, listener);
+        world.initialiseWalls();
+        for (int i = 0; i < STOPPED_BUBBLES; i++) {
+            world.spawnBubble(i * 30, 0, RandomColour.next(random), 0, 0);
+        }
+
+        panel = new OffscreenPanel();
+        panel.setSize(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT);
+        panel.setWorld(world);
+
+        image = newImage();
+        graphics = image.createGraphics();
+        panel.render(graphics);
+        damage.drain(regions);
+    }
+
+    @TearDown
+    public void tearDown() {
+        graphics.dispose();
+    }
+
+    /**
+     * Fires a new bubble whenever the last one has stopped, then moves
+     * everything on by a frame's worth of ticks.
+     */
+    @Setup(Level.Invocation)
+    public void advance() {
+        final int count = world.getBubbleCount();
+        if (count == 0 || !world.getBubble(count - 1).isMoving()) {
+            final int startX = World.DEFAULT_WIDTH / 2;
+            final int startY = World.DEFAULT_HEIGHT + 15;
+            final Bearing2D aim = new Bearing2D(startX, startY, random.nextInt(World.DEFAULT_WIDTH), 0);
+            world.spawnBubble(startX, startY, RandomColour.next(random), aim.getDeltaX(15), aim.getDeltaY(15));
+        }
+        for (int tick = 0; tick < TICKS_PER_FRAME; tick++) {
+            world.update(0.01);
+        }
+        world.publishSnapshot(); // As the scheduler does once per frame
+    }
+
+    @TearDown(Level.Iteration)
+    public void checkForStalePixels() {
+        final BufferedImage expected = newImage();
+        final Graphics2D g = expected.createGraphics();
+        panel.render(g);
+        g.dispose();
+
+        final int stale = countDifferentPixels(expected, image);
+        if (stale > 0) {
+            throw new IllegalStateException("Error: " + stale + " stale pixels left after repainting.");
+        }
+    }
+
+    @Benchmark
+    public BufferedImage frame() {
+        if (repaint == Repaint.FULL) {
+            damage.drain(regions); // Unused, but kept from piling up
+            panel.render(graphics);
+            return image;
+        }
+
+        final int count = damage.drain(regions);
+        for (int i = 0; i < count * 4; i += 4) {
+            final Graphics2D g = image.createGraphics();
+            g.clipRect(regions[i], regions[i + 1], regions[i + 2], regions[i + 3]);
+            panel.render(g);
+            g.dispose();
+        }
+        return image;
+    }
+
+    private static BufferedImage newImage() {
+        return new BufferedImage(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT, BufferedImage.TYPE_INT_RGB);
+    }
+
+    private static int countDifferentPixels(final BufferedImage a, final BufferedImage b) {
+        final int[] pixelsA = a.getRGB(0, 0, a.getWidth(), a.getHeight(), null, 0, a.getWidth());
+        final int[] pixelsB = b.getRGB(0, 0, b.getWidth(), b.getHeight(), null, 0, b.getWidth());
+        int different = 0;
+        for (int i = 0; i < pixelsA.length; i++) {
+            if (pixelsA[i] != pixelsB[i]) {
+                different++;
+            }
+        }
+        return different;
+    }
+}
@@ -0,0 +1,136 @@
+package com.rikuthin.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rikuthin.simulation.FlightMode;
+import com.rikuthin.simulation.VectorEnvironment;
+import com.rikuthin.simulation.World;
+
+/**
+ * Environment steps per minute a {@link VectorEnvironment} reaches, on the
+ * calling thread or on a fork/join pool, in each flight mode.
+ * <p>
+ * Before timing, a run on the pool aims the same shots from the same seeds
+ * as one on the calling thread, and the run fails unless their rewards, done
+ * flags and final observations checksum the same, so batched stepping
+ * doesn't depend on the thread count.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class EnvironmentBenchmark {
+
+    /**
+     * How each shot is flown.
+     */
+    @Param({"STEPPED", "EVENT_DRIVEN"})
+    public FlightMode flightMode;
+
+    /**
+     * The number of threads in the stepping pool, or 0 to step on the
+     * calling thread.
+     */
+    @Param({"0", "1", "2", "4", "8"})
+    public int threads;
+
+    private static final int ENVIRONMENTS = 256;
+    private static final int CHECKED_STEPS = 200;
+    private static final long SEED = 42;
+
+    private final int[] targets = new int[2 * ENVIRONMENTS];
+    private ForkJoinPool pool;
+    private VectorEnvironment environments;
+    private Random aim;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = threads > 0 ? new ForkJoinPool(threads) : null;
+        if (pool != null && checksum(flightMode, pool) != checksum(flightMode, null)) {
+            throw new IllegalStateException("Error: Stepping on " + threads
+                    + " threads differs from stepping on the calling thread.");
+        }
+
+        environments = new VectorEnvironment(ENVIRONMENTS, flightMode, pool);
+        environments.reset(SEED);
+        aim = new Random(SEED);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Aims a shot in every environment and steps them all.
+     *
+     * @return The rewards of the step.
+     */
+    @Benchmark
+    @OperationsPerInvocation(ENVIRONMENTS)
+    public int[] step() {
+        aimAll(aim, targets);
+        environments.step(targets);
+        return environments.getRewards();
+    }
+
+    private static void aimAll(final Random aim, final int[] targets) {
+        for (int i = 0; i < ENVIRONMENTS; i++) {
+            targets[2 * i] = aim.nextInt(World.DEFAULT_WIDTH);
+            targets[2 * i + 1] = aim.nextInt(World.DEFAULT_HEIGHT / 2);
+        }
+    }
+
+    /**
+     * Resets a fresh set of environments, runs a few steps and checksums
+     * the outcome.
+     *
+     * @param flightMode How each shot is flown.
+     * @param stepPool The pool to step on, or {@code null} for the calling
+     * thread.
+     * @return The checksum of every step's results and the final
+     * observations.
+     */
+    private static long checksum(final FlightMode flightMode, final ForkJoinPool stepPool) {
+        final VectorEnvironment checked = new VectorEnvironment(ENVIRONMENTS, flightMode, stepPool);
+        final Random checkAim = new Random(SEED);
+        final int[] checkTargets = new int[2 * ENVIRONMENTS];
+        checked.reset(SEED);
+
+        long sum = 17;
+        for (int step = 0; step < CHECKED_STEPS; step++) {
+            aimAll(checkAim, checkTargets);
+            checked.step(checkTargets);
+            for (int i = 0; i < ENVIRONMENTS; i++) {
+                sum = sum * 31 + checked.getRewards()[i];
+                sum = sum * 31 + (checked.getDones()[i] ? 1 : 0);
+            }
+        }
+        for (float value : checked.getObservations()) {
+            sum = sum * 31 + Float.floatToRawIntBits(value);
+        }
+        return sum;
+    }
+}
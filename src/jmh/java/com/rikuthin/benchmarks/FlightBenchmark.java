@@ -0,0 +1,296 @@
+package com.rikuthin.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rikuthin.App;
+import com.rikuthin.game_objects.Bubble;
+import com.rikuthin.game_objects.Wall;
+import com.rikuthin.simulation.EntityStore;
+import com.rikuthin.simulation.FlightMode;
+import com.rikuthin.simulation.HeadlessGame;
+import com.rikuthin.simulation.World;
+import com.rikuthin.simulation.WorldListener;
+import com.rikuthin.utility.Bearing2D;
+import com.rikuthin.utility.RandomColour;
+
+/**
+ * Cost of a whole headless game in each flight mode, at the game's shot
+ * speed and at much faster ones.
+ * <p>
+ * Before timing, shots are checked against a brute-force reference that
+ * flies the same shot in 256 sub-steps per step, with each wall moving in a
+ * straight line between the positions a stepped copy of the world reads at
+ * whole steps, and stops at the first sub-step where the bubble touches a
+ * wall or reaches the top. An event-driven flight agrees with it when both
+ * end the same way within a sub-step of each other. Stepped flights are
+ * checked the same way one tick at a time: a tick tunnels when the bubble
+ * carries on although, sampled in sub-steps, its path over the tick touched
+ * a wall's. The run fails if any tick tunnels or more than a few shots
+ * disagree. Shots are aimed as in {@code BatchSimulation}, after a random
+ * number of ticks so that walls are caught anywhere in their cycles.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class FlightBenchmark {
+
+    /**
+     * The shot speed in pixels per tick; the game's is 15.
+     */
+    @Param({"15", "60", "240"})
+    public double shotSpeed;
+
+    /**
+     * How each shot is flown.
+     */
+    @Param({"STEPPED", "EVENT_DRIVEN"})
+    public FlightMode flightMode;
+
+    private static final int CHECK_SHOTS = 2_000;
+    private static final int SUB_STEPS = 256;
+    private static final int MAX_STEPS = 10_000;
+    private static final double STEP_SECONDS = 0.01;
+    private static final int LAUNCH_X = World.DEFAULT_WIDTH / 2;
+    private static final int LAUNCH_Y = World.DEFAULT_HEIGHT + (int) (Bubble.SIZE / 2);
+
+    private Random aim;
+    private long nextSeed;
+
+    /**
+     * Remembers how a single flight ended.
+     */
+    private static final class Outcome implements WorldListener {
+        private boolean scored;
+        private boolean stopped;
+
+        @Override
+        public void onPointsScored(final int points) {
+            scored = true;
+        }
+
+        @Override
+        public void onBubbleStopped() {
+            stopped = true;
+        }
+
+        int result() {
+            if (!stopped) {
+                return Bubble.MOVED;
+            }
+            return scored ? Bubble.REACHED_TOP : Bubble.HIT_WALL;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        check(shotSpeed);
+        aim = new Random(42);
+        nextSeed = 42;
+    }
+
+    /**
+     * Plays a game to the end, with a new wall layout every time.
+     *
+     * @return The game's score.
+     */
+    @Benchmark
+    public int game() {
+        final HeadlessGame game = new HeadlessGame(nextSeed++, flightMode, shotSpeed);
+        while (!game.isOver()) {
+            game.shoot(aim.nextInt(World.DEFAULT_WIDTH), aim.nextInt(World.DEFAULT_HEIGHT / 2));
+        }
+        return game.getScore();
+    }
+
+    /**
+     * Flies shots in each mode and against the reference, and compares how
+     * they end.
+     *
+     * @param speed The shot speed in pixels per tick.
+     * @throws IllegalStateException If a stepped tick passed through a wall,
+     * or event-driven flights disagreed with the reference too often.
+     */
+    private static void check(final double speed) {
+        final Random random = new Random((long) speed);
+        int disagreements = 0;
+        int tunnelled = 0;
+        for (int shot = 0; shot < CHECK_SHOTS; shot++) {
+            final long seed = random.nextLong();
+            final int warmup = random.nextInt(500);
+            final Bearing2D bearing = new Bearing2D(LAUNCH_X, LAUNCH_Y, random.nextInt(World.DEFAULT_WIDTH),
+                    random.nextInt(World.DEFAULT_HEIGHT / 2));
+            final double dx = bearing.getDeltaX(speed);
+            final double dy = bearing.getDeltaY(speed);
+
+            tunnelled += tunnelledTicks(newWorld(seed, warmup, WorldListener.NONE), dx, dy);
+
+            final Outcome event = new Outcome();
+            final World eventWorld = newWorld(seed, warmup, event);
+            final int index = eventWorld.spawnBubble(LAUNCH_X, LAUNCH_Y, RandomColour.ULTRAVIOLET, dx, dy);
+            final long eventSteps = eventWorld.flyBubble(index, STEP_SECONDS, MAX_STEPS);
+
+            final double[] referenceTime = new double[1];
+            final int reference = reference(newWorld(seed, warmup, WorldListener.NONE), dx, dy, referenceTime);
+            final long referenceSteps = Math.max(1, (long) Math.ceil(referenceTime[0]));
+
+            if (event.result() != reference || Math.abs(eventSteps - referenceSteps) > 1) {
+                disagreements++;
+            }
+        }
+
+        // A shot that only grazes a corner can fall between sub-steps
+        if (disagreements > CHECK_SHOTS / 500 || tunnelled > 0) {
+            throw new IllegalStateException("Error: At speed " + speed + ", event-driven flights disagreed with"
+                    + " the reference on " + disagreements + " of " + CHECK_SHOTS + " shots and " + tunnelled
+                    + " stepped ticks passed through a wall.");
+        }
+    }
+
+    /**
+     * Flies a shot step by step, sampling each tick's path in sub-steps.
+     *
+     * @param world The world to fire the shot in.
+     * @param dx The shot's change in x per tick.
+     * @param dy The shot's change in y per tick.
+     * @return The number of ticks after which the bubble carried on although
+     * its path touched a wall.
+     */
+    private static int tunnelledTicks(final World world, final double dx, final double dy) {
+        final double radius = Bubble.SIZE / 2.0;
+        int tunnelled = 0;
+        synchronized (world) {
+            final int index = world.spawnBubble(LAUNCH_X, LAUNCH_Y, RandomColour.ULTRAVIOLET, dx, dy);
+            final EntityStore<Bubble> bubbles = world.getBubbleStore();
+            final int count = world.getWallCount();
+            final double[] before = new double[count];
+            final double[] after = new double[count];
+
+            for (int step = 0; step < MAX_STEPS && bubbles.isMoving(index); step++) {
+                final double fromX = bubbles.x()[index];
+                final double fromY = bubbles.y()[index];
+                System.arraycopy(world.getWallStore().x(), 0, before, 0, count);
+                world.update(STEP_SECONDS);
+                if (bubbles.size() == 0 || !bubbles.isMoving(index)) {
+                    break;
+                }
+                final EntityStore<Wall> walls = world.getWallStore();
+                System.arraycopy(walls.x(), 0, after, 0, count);
+
+                sampling:
+                for (int sub = 0; sub <= SUB_STEPS; sub++) {
+                    final double f = (double) sub / SUB_STEPS;
+                    final double x = fromX + (bubbles.x()[index] - fromX) * f + radius;
+                    final double y = fromY + (bubbles.y()[index] - fromY) * f + radius;
+                    for (int i = 0; i < count; i++) {
+                        final double wallX = before[i] + (after[i] - before[i]) * f;
+                        final double distX = x - Math.clamp(x, wallX, wallX + walls.width()[i]);
+                        final double distY = y - Math.clamp(y, walls.y()[i], walls.y()[i] + walls.height()[i]);
+                        if (distX * distX + distY * distY < radius * radius - 1e-9) {
+                            tunnelled++;
+                            break sampling;
+                        }
+                    }
+                }
+            }
+        }
+        return tunnelled;
+    }
+
+    /**
+     * Flies a shot in small sub-steps.
+     *
+     * @param world A world just like the one the shot is fired in.
+     * @param dx The shot's change in x per tick.
+     * @param dy The shot's change in y per tick.
+     * @param time Receives the time in steps at which the flight ended.
+     * @return How the flight ended.
+     */
+    private static int reference(final World world, final double dx, final double dy, final double[] time) {
+        final double radius = Bubble.SIZE / 2.0;
+        final double furthestX = world.getWidth() - Bubble.SIZE;
+        final double furthestY = world.getHeight() - Bubble.SIZE;
+        final double h = 1.0 / SUB_STEPS;
+        double x = LAUNCH_X;
+        double y = LAUNCH_Y;
+        final double ticks = STEP_SECONDS * 1000.0 / App.TICK_SPEED_MS;
+        double vx = dx * ticks;
+        double vy = dy * ticks;
+
+        // A shot starts below the bottom edge, and is moved onto it if heading down
+        if (vy > 0 && y > furthestY) {
+            y = furthestY;
+            vy = -vy;
+        }
+
+        synchronized (world) {
+            final EntityStore<Wall> walls = world.getWallStore();
+            final int count = walls.size();
+            final double[] before = new double[count];
+            final double[] after = new double[count];
+            System.arraycopy(walls.x(), 0, after, 0, count);
+
+            for (int step = 0; step < MAX_STEPS; step++) {
+                System.arraycopy(after, 0, before, 0, count);
+                world.update(STEP_SECONDS);
+                System.arraycopy(world.getWallStore().x(), 0, after, 0, count);
+
+                for (int sub = 1; sub <= SUB_STEPS; sub++) {
+                    x += vx * h;
+                    y += vy * h;
+                    if (x < 0 || x > furthestX) {
+                        x = x < 0 ? -x : 2 * furthestX - x;
+                        vx = -vx;
+                    }
+                    if (vy > 0 && y > furthestY) {
+                        y = 2 * furthestY - y;
+                        vy = -vy;
+                    }
+
+                    time[0] = step + sub * h;
+                    final double f = sub * h;
+                    for (int i = 0; i < count; i++) {
+                        final double wallX = before[i] + (after[i] - before[i]) * f;
+                        final double nearestX = Math.clamp(x + radius, wallX, wallX + walls.width()[i]);
+                        final double nearestY = Math.clamp(y + radius, walls.y()[i],
+                                walls.y()[i] + walls.height()[i]);
+                        final double distX = x + radius - nearestX;
+                        final double distY = y + radius - nearestY;
+                        if (distX * distX + distY * distY <= radius * radius) {
+                            return Bubble.HIT_WALL;
+                        }
+                    }
+                    if (y <= 0) {
+                        return Bubble.REACHED_TOP;
+                    }
+                }
+            }
+        }
+        return Bubble.MOVED;
+    }
+
+    private static World newWorld(final long seed, final int warmup, final WorldListener listener) {
+        final World world = new World(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT, new Random(seed), listener);
+        world.initialiseWalls();
+        for (int i = 0; i < warmup; i++) {
+            world.update(STEP_SECONDS);
+        }
+        return world;
+    }
+}
@@ -0,0 +1,160 @@
+package com.rikuthin.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rikuthin.game_objects.Bubble;
+import com.rikuthin.simulation.EntityStore;
+import com.rikuthin.simulation.World;
+import com.rikuthin.simulation.WorldListener;
+import com.rikuthin.utility.Bearing2D;
+import com.rikuthin.utility.RandomColour;
+
+/**
+ * Compares the cost of moving bubbles with the old bearing-and-speed model,
+ * which called {@code cos} and {@code sin} every tick, against the velocity
+ * model used by {@link Bubble#move(World, int, double)}.
+ * <p>
+ * Each call moves every bubble for a round of ticks. Bubbles start in the
+ * lower part of a tall, wall-free world and every call first restores their
+ * starting state, untimed, so both paths do the same bounces and no bubble
+ * ever reaches the top.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class MoveBenchmark {
+
+    /**
+     * The number of moving bubbles.
+     */
+    @Param({"100", "10000", "100000"})
+    public int bubbleCount;
+
+    private static final int TICKS_PER_ROUND = 50;
+    private static final double SPEED = 5;
+
+    private World world;
+    private EntityStore<Bubble> store;
+    private double[] bearings;
+    private double[] startX;
+    private double[] startY;
+    private double[] startDx;
+    private double[] startDy;
+    private double[] startBearings;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(bubbleCount);
+        world = new World(2_000, 2_000, random, WorldListener.NONE);
+
+        bearings = new double[bubbleCount];
+        for (int i = 0; i < bubbleCount; i++) {
+            final Bearing2D bearing = new Bearing2D(random.nextDouble() * 360);
+            bearings[i] = bearing.getDegrees();
+            world.spawnBubble(random.nextInt(1_900), 1_000 + random.nextInt(900), RandomColour.next(random),
+                    bearing.getDeltaX(SPEED), bearing.getDeltaY(SPEED));
+        }
+
+        store = world.getBubbleStore();
+        startX = store.x().clone();
+        startY = store.y().clone();
+        startDx = store.dx().clone();
+        startDy = store.dy().clone();
+        startBearings = bearings.clone();
+    }
+
+    @Setup(Level.Invocation)
+    public void restore() {
+        System.arraycopy(startX, 0, store.x(), 0, bubbleCount);
+        System.arraycopy(startY, 0, store.y(), 0, bubbleCount);
+        System.arraycopy(startDx, 0, store.dx(), 0, bubbleCount);
+        System.arraycopy(startDy, 0, store.dy(), 0, bubbleCount);
+        System.arraycopy(startBearings, 0, bearings, 0, bubbleCount);
+    }
+
+    @Benchmark
+    public double trigMove() {
+        synchronized (world) {
+            for (int tick = 0; tick < TICKS_PER_ROUND; tick++) {
+                for (int i = 0; i < bubbleCount; i++) {
+                    moveWithBearing(world, i, bearings, 1.0);
+                }
+            }
+            return store.x()[0];
+        }
+    }
+
+    @Benchmark
+    public double vectorMove() {
+        synchronized (world) {
+            for (int tick = 0; tick < TICKS_PER_ROUND; tick++) {
+                for (int i = 0; i < bubbleCount; i++) {
+                    Bubble.move(world, i, 1.0);
+                }
+            }
+            return store.x()[0];
+        }
+    }
+
+    /**
+     * The move path as it was before velocities were stored: the bearing is
+     * turned into a direction with trigonometry on every tick, and bounces
+     * rewrite the bearing. Otherwise the same as {@link Bubble#move}.
+     */
+    private static void moveWithBearing(final World world, final int index, final double[] bearings,
+            final double ticks) {
+        final EntityStore<Bubble> store = world.getBubbleStore();
+        final double[] xs = store.x();
+        final double[] ys = store.y();
+        final double width = store.width()[index];
+        final double height = store.height()[index];
+
+        final double radians = Math.toRadians(bearings[index]);
+        final double distance = SPEED * ticks;
+        final double oldX = xs[index];
+        final double oldY = ys[index];
+        double nextX = oldX + distance * Math.cos(radians);
+        double nextY = oldY - distance * Math.sin(radians);
+
+        if (world.sweepHitsAnyWall(world.wallSweep().set(oldX, oldY, nextX, nextY, width))) {
+            return;
+        }
+
+        if (nextY < 0) {
+            ys[index] = 0;
+            return;
+        } else {
+            if (nextY - height > world.getHeight()) {
+                bearings[index] = Bearing2D.normalizeDegrees(360 - bearings[index]);
+                nextY = world.getHeight() - height;
+            }
+            ys[index] = nextY;
+        }
+
+        if (nextX < 0 || nextX + width > world.getWidth()) {
+            bearings[index] = Bearing2D.normalizeDegrees(180 - bearings[index]);
+            nextX = Math.clamp(nextX, 0, world.getWidth() - width);
+        }
+        xs[index] = nextX;
+
+        world.getListener().onEntityMoved(oldX, oldY, nextX, nextY, width, height);
+    }
+}
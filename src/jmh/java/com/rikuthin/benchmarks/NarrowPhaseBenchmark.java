@@ -0,0 +1,198 @@
+package com.rikuthin.benchmarks;
+
+import java.awt.geom.Ellipse2D;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.rikuthin.game_objects.Bubble;
+import com.rikuthin.simulation.CollisionKernel;
+import com.rikuthin.simulation.EntityStore;
+import com.rikuthin.simulation.WallSweep;
+import com.rikuthin.simulation.World;
+import com.rikuthin.simulation.WorldListener;
+import com.rikuthin.utility.Bearing2D;
+import com.rikuthin.utility.RandomColour;
+
+/**
+ * Cost of one bubble's narrow-phase query, timed per query.
+ * <p>
+ * The kernel benchmarks test a bubble against a row of boxes with the AWT
+ * geometry classes, the scalar kernel and the preferred (vector, when
+ * available) kernel. The world benchmarks test a bubble's path over a step
+ * against a world's walls at the game's wall density, looking its
+ * neighbours up in the wall grid and scanning every wall. Whether the
+ * kernels agree with AWT is checked by {@code CollisionKernelTest}.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class NarrowPhaseBenchmark {
+
+    private static final int QUERIES = 1_000;
+    private static final double STEP = 15; // How far each bubble has come up since the last tick
+
+    /**
+     * A row of boxes and bubbles far from every box, so each query tests
+     * the whole row.
+     */
+    @State(Scope.Thread)
+    public static class Row {
+
+        /**
+         * The number of boxes in the row.
+         */
+        @Param({"8", "16", "64", "256", "1024"})
+        public int boxCount;
+
+        private final CollisionKernel scalar = CollisionKernel.scalar();
+        private final CollisionKernel preferred = CollisionKernel.preferred();
+        private double[] xs;
+        private double[] ys;
+        private double[] widths;
+        private double[] heights;
+        private final double[] queryXs = new double[QUERIES];
+        private final double[] queryYs = new double[QUERIES];
+
+        @Setup
+        public void setUp() {
+            final Random random = new Random(boxCount);
+            xs = new double[boxCount];
+            ys = new double[boxCount];
+            widths = new double[boxCount];
+            heights = new double[boxCount];
+            for (int i = 0; i < boxCount; i++) {
+                xs[i] = random.nextDouble() * 600;
+                ys[i] = random.nextDouble() * 590;
+                widths[i] = random.nextInt(51) + 30;
+                heights[i] = random.nextInt(21) + 30;
+            }
+            for (int q = 0; q < QUERIES; q++) {
+                queryXs[q] = 1_000 + random.nextDouble() * 600;
+                queryYs[q] = random.nextDouble() * 590;
+            }
+        }
+    }
+
+    /**
+     * A world at the game's wall density, with one stationary bubble per
+     * query.
+     */
+    @State(Scope.Thread)
+    public static class Field {
+
+        /**
+         * The number of walls in the world.
+         */
+        @Param({"10", "16", "24", "32", "128"})
+        public int wallCount;
+
+        private World world;
+
+        @Setup
+        public void setUp() {
+            final Random random = new Random(wallCount);
+            final double scale = Math.sqrt(wallCount / 10.0);
+            world = new World(World.DEFAULT_WIDTH * scale, World.DEFAULT_HEIGHT * scale, random,
+                    WorldListener.NONE);
+            for (int i = 0; i < wallCount; i++) {
+                final int width = random.nextInt(51) + 30;
+                final int height = random.nextInt(21) + 30;
+                world.spawnWall(random.nextInt((int) world.getWidth() - width),
+                        random.nextInt((int) world.getHeight() - height), width, height, RandomColour.next(random),
+                        random.nextInt(9) + 1.0, new Bearing2D(0));
+            }
+            for (int i = 0; i < QUERIES; i++) {
+                world.spawnBubble(random.nextInt((int) world.getWidth()), random.nextInt((int) world.getHeight()),
+                        RandomColour.next(random), 0, 0);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void awtRow(final Row row, final Blackhole blackhole) {
+        for (int q = 0; q < QUERIES; q++) {
+            final Ellipse2D ellipse = new Ellipse2D.Double(row.queryXs[q], row.queryYs[q], Bubble.SIZE,
+                    Bubble.SIZE);
+            boolean hit = false;
+            for (int i = 0; i < row.boxCount && !hit; i++) {
+                hit = ellipse.intersects(row.xs[i], row.ys[i], row.widths[i], row.heights[i]);
+            }
+            blackhole.consume(hit);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void scalarRow(final Row row, final Blackhole blackhole) {
+        query(row, row.scalar, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void preferredRow(final Row row, final Blackhole blackhole) {
+        query(row, row.preferred, blackhole);
+    }
+
+    private static void query(final Row row, final CollisionKernel kernel, final Blackhole blackhole) {
+        for (int q = 0; q < QUERIES; q++) {
+            blackhole.consume(kernel.firstEllipseHit(row.queryXs[q], row.queryYs[q], Bubble.SIZE, Bubble.SIZE,
+                    row.xs, row.ys, row.widths, row.heights, 0, row.boxCount));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void gridWorld(final Field field, final Blackhole blackhole) {
+        final World world = field.world;
+        synchronized (world) {
+            final EntityStore<?> bubbles = world.getBubbleStore();
+            final WallSweep sweep = world.wallSweep();
+            for (int b = 0; b < QUERIES; b++) {
+                final double x = bubbles.x()[b];
+                final double y = bubbles.y()[b];
+                sweep.set(x, y + STEP, x, y, Bubble.SIZE);
+                blackhole.consume(world.getWallGrid().anyMatch(sweep.minX(), sweep.minY(), sweep.width(),
+                        sweep.height(), sweep));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void scanWorld(final Field field, final Blackhole blackhole) {
+        final World world = field.world;
+        synchronized (world) {
+            final int wallCount = world.getWallStore().size();
+            final EntityStore<?> bubbles = world.getBubbleStore();
+            final WallSweep sweep = world.wallSweep();
+            for (int b = 0; b < QUERIES; b++) {
+                final double x = bubbles.x()[b];
+                final double y = bubbles.y()[b];
+                sweep.set(x, y + STEP, x, y, Bubble.SIZE);
+                boolean hit = false;
+                for (int w = 0; w < wallCount && !hit; w++) {
+                    hit = sweep.test(w);
+                }
+                blackhole.consume(hit);
+            }
+        }
+    }
+}
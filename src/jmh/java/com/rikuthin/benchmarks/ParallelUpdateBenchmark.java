@@ -0,0 +1,178 @@
+package com.rikuthin.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rikuthin.simulation.EntityStore;
+import com.rikuthin.simulation.World;
+import com.rikuthin.simulation.WorldListener;
+import com.rikuthin.utility.Bearing2D;
+import com.rikuthin.utility.RandomColour;
+
+/**
+ * Cost of one world tick spread over a fork/join pool, on a large field of
+ * moving walls and bubbles.
+ * <p>
+ * The field is rebuilt for every iteration, so bubbles stopping over time
+ * don't shrink the work. Before timing, a run on the pool is checksummed,
+ * stores and the exact sequence of listener events alike, and the run fails
+ * unless it is bit-for-bit identical to one on the calling thread.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class ParallelUpdateBenchmark {
+
+    /**
+     * The number of threads in the update pool, or 0 to update on the
+     * calling thread.
+     */
+    @Param({"0", "1", "2", "4", "8"})
+    public int threads;
+
+    private static final int FIELD_SIZE = 4_000;
+    private static final int WALLS = 400;
+    private static final int BUBBLES = 200_000;
+    private static final int CHECKED_TICKS = 50;
+
+    private ForkJoinPool pool;
+    private World world;
+
+    /**
+     * Folds every event, in order, into a checksum.
+     */
+    private static final class ChecksumListener implements WorldListener {
+
+        private long checksum = 17;
+
+        @Override
+        public void onEntityMoved(final double oldX, final double oldY, final double newX, final double newY,
+                final double width, final double height) {
+            mix(Double.doubleToRawLongBits(oldX));
+            mix(Double.doubleToRawLongBits(oldY));
+            mix(Double.doubleToRawLongBits(newX));
+            mix(Double.doubleToRawLongBits(newY));
+        }
+
+        @Override
+        public void onPointsScored(final int points) {
+            mix(points);
+        }
+
+        @Override
+        public void onBubbleStopped() {
+            mix(-1);
+        }
+
+        private void mix(final long value) {
+            checksum = checksum * 31 + value;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = threads > 0 ? new ForkJoinPool(threads) : null;
+        if (pool != null) {
+            final long[] expected = checksums(null);
+            final long[] actual = checksums(pool);
+            if (expected[0] != actual[0] || expected[1] != actual[1]) {
+                throw new IllegalStateException("Error: The update on " + threads
+                        + " threads differs from the one on the calling thread.");
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void buildField() {
+        world = newField(WorldListener.NONE, pool);
+    }
+
+    @Benchmark
+    public void update() {
+        world.update(0.01);
+    }
+
+    /**
+     * Builds the same field of walls and bubbles every time.
+     *
+     * @param listener Hears the world's events.
+     * @param updatePool The pool to update on, or {@code null} for the
+     * calling thread.
+     * @return The new world.
+     */
+    private static World newField(final WorldListener listener, final ForkJoinPool updatePool) {
+        final Random random = new Random(42);
+        final World field = new World(FIELD_SIZE, FIELD_SIZE, random, listener);
+        for (int i = 0; i < WALLS; i++) {
+            field.spawnWall(random.nextInt(FIELD_SIZE - 80), random.nextInt(FIELD_SIZE - 50),
+                    30 + random.nextInt(51), 30 + random.nextInt(21), RandomColour.next(random),
+                    random.nextInt(9) + 1.0, new Bearing2D(random.nextBoolean() ? 0 : 180));
+        }
+        for (int i = 0; i < BUBBLES; i++) {
+            final Bearing2D bearing = new Bearing2D(random.nextDouble() * 360);
+            final double speed = 3 + random.nextDouble() * 5;
+            field.spawnBubble(random.nextDouble() * (FIELD_SIZE - 30), random.nextDouble() * (FIELD_SIZE - 30),
+                    RandomColour.next(random), bearing.getDeltaX(speed), bearing.getDeltaY(speed));
+        }
+        field.setUpdatePool(updatePool);
+        return field;
+    }
+
+    /**
+     * Runs a fresh field for a few ticks and checksums the outcome.
+     *
+     * @param updatePool The pool to update on, or {@code null} for the
+     * calling thread.
+     * @return The store checksum and the event checksum.
+     */
+    private static long[] checksums(final ForkJoinPool updatePool) {
+        final ChecksumListener listener = new ChecksumListener();
+        final World field = newField(listener, updatePool);
+        for (int i = 0; i < CHECKED_TICKS; i++) {
+            field.update(0.01);
+        }
+        synchronized (field) {
+            return new long[] {checksum(field.getWallStore()) * 31 + checksum(field.getBubbleStore()),
+                listener.checksum};
+        }
+    }
+
+    private static long checksum(final EntityStore<?> store) {
+        long checksum = store.size();
+        for (int i = 0; i < store.size(); i++) {
+            checksum = checksum * 31 + Double.doubleToRawLongBits(store.x()[i]);
+            checksum = checksum * 31 + Double.doubleToRawLongBits(store.y()[i]);
+            checksum = checksum * 31 + Double.doubleToRawLongBits(store.dx()[i]);
+            checksum = checksum * 31 + Double.doubleToRawLongBits(store.dy()[i]);
+            checksum = checksum * 31 + store.flags()[i];
+            checksum = checksum * 31 + store.palette()[i];
+        }
+        return checksum;
+    }
+}
@@ -0,0 +1,135 @@
+package com.rikuthin.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.rikuthin.game_objects.Bubble;
+import com.rikuthin.game_objects.Wall;
+import com.rikuthin.simulation.EntityStore;
+import com.rikuthin.simulation.WallSweep;
+import com.rikuthin.simulation.World;
+import com.rikuthin.simulation.WorldListener;
+import com.rikuthin.utility.Bearing2D;
+import com.rikuthin.utility.RandomColour;
+
+/**
+ * Per-tick cost of the physics kernels, each timed as one pass over every
+ * entity of a world.
+ * <p>
+ * The world grows with the entity count so density stays the same as in a
+ * normal game (about ten walls in the default world).
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class PhysicsBenchmark {
+
+    /**
+     * The number of entities of the kind being benchmarked.
+     */
+    @Param({"10", "1000", "100000"})
+    public int entityCount;
+
+    /**
+     * The number of bubbles whose last step is tested against the walls by
+     * {@link #checkWallCollision}.
+     */
+    private static final int COLLISION_BUBBLES = 100;
+
+    private static final double SPEED = 5;
+
+    private World movingBubbles;
+    private World movingWalls;
+    private World collisionWorld;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        final Random random = new Random(entityCount);
+        final double scale = Math.sqrt(entityCount / 10.0);
+        final double width = World.DEFAULT_WIDTH * scale;
+        final double height = World.DEFAULT_HEIGHT * scale;
+
+        // Bubbles fly sideways in a wall-free world, so they bounce forever
+        // and never stop at the top or hit a wall mid-measurement
+        movingBubbles = new World(width, height, random, WorldListener.NONE);
+        for (int i = 0; i < entityCount; i++) {
+            movingBubbles.spawnBubble(random.nextDouble() * (width - Bubble.SIZE),
+                    random.nextDouble() * (height - Bubble.SIZE), RandomColour.next(random),
+                    random.nextBoolean() ? SPEED : -SPEED, 0);
+        }
+
+        movingWalls = new World(width, height, random, WorldListener.NONE);
+        spawnWalls(movingWalls, random, entityCount);
+
+        collisionWorld = new World(width, height, random, WorldListener.NONE);
+        spawnWalls(collisionWorld, random, entityCount);
+        for (int i = 0; i < COLLISION_BUBBLES; i++) {
+            collisionWorld.spawnBubble(random.nextDouble() * (width - Bubble.SIZE),
+                    random.nextDouble() * (height - Bubble.SIZE), RandomColour.next(random), 0, 0);
+        }
+    }
+
+    private static void spawnWalls(final World world, final Random random, final int count) {
+        for (int i = 0; i < count; i++) {
+            final int wallWidth = random.nextInt(51) + 30;
+            final int wallHeight = random.nextInt(21) + 30;
+            final double x = random.nextDouble() * (world.getWidth() - wallWidth);
+            final double y = random.nextDouble() * (world.getHeight() - wallHeight);
+            world.spawnWall(x, y, wallWidth, wallHeight, RandomColour.next(random),
+                    random.nextInt(9) + 1.0, new Bearing2D(random.nextBoolean() ? 0 : 180));
+        }
+    }
+
+    @Benchmark
+    public void bubbleMove() {
+        synchronized (movingBubbles) {
+            for (int i = 0; i < entityCount; i++) {
+                Bubble.move(movingBubbles, i, 1.0);
+            }
+        }
+    }
+
+    @Benchmark
+    public void wallMove() {
+        synchronized (movingWalls) {
+            for (int i = 0; i < entityCount; i++) {
+                Wall.move(movingWalls, i, 1.0);
+            }
+        }
+    }
+
+    /**
+     * Tests each bubble's path over a step straight up against the moving
+     * walls, as a bubble in flight is tested every tick.
+     */
+    @Benchmark
+    public void checkWallCollision(final Blackhole blackhole) {
+        synchronized (collisionWorld) {
+            final EntityStore<Bubble> bubbles = collisionWorld.getBubbleStore();
+            final WallSweep sweep = collisionWorld.wallSweep();
+            for (int i = 0; i < COLLISION_BUBBLES; i++) {
+                final double x = bubbles.x()[i];
+                final double y = bubbles.y()[i];
+                blackhole.consume(collisionWorld.sweepHitsAnyWall(sweep.set(x, y + SPEED, x, y, Bubble.SIZE)));
+            }
+        }
+    }
+}
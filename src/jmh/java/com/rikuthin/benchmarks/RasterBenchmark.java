@@ -0,0 +1,137 @@
+package com.rikuthin.benchmarks;
+
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rikuthin.game_objects.Bubble;
+import com.rikuthin.rendering.RenderBackend;
+import com.rikuthin.screen_panels.gameplay_subpanels.BubblePanel;
+import com.rikuthin.simulation.World;
+import com.rikuthin.simulation.WorldListener;
+import com.rikuthin.utility.RandomColour;
+
+/**
+ * Cost of a full frame with each render backend at increasing numbers of
+ * bubbles, some hanging off the edges so clipping is exercised too.
+ * <p>
+ * Before timing, both backends draw the world into their own images, and
+ * the run fails unless the software backend matches the sprites pixel for
+ * pixel. Runs headless.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RasterBenchmark {
+
+    /**
+     * The number of bubbles on screen, alongside the usual walls.
+     */
+    @Param({"100", "1000", "10000", "50000"})
+    public int entityCount;
+
+    /**
+     * The backend that turns entities into pixels.
+     */
+    @Param({"SPRITES", "SOFTWARE"})
+    public RenderBackend backend;
+
+    private OffscreenPanel panel;
+    private BufferedImage image;
+    private Graphics2D graphics;
+
+    /**
+     * Exposes the panel's paint method without going through Swing's
+     * repaint machinery.
+     */
+    private static final class OffscreenPanel extends BubblePanel {
+
+        void render(final Graphics g) {
+            paintComponent(g);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(entityCount);
+        final World world = new World(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT, random, WorldListener.NONE);
+        world.initialiseWalls();
+        for (int i = 0; i < entityCount; i++) {
+            world.spawnBubble(random.nextDouble() * World.DEFAULT_WIDTH - Bubble.SIZE / 2,
+                    random.nextDouble() * World.DEFAULT_HEIGHT - Bubble.SIZE / 2, RandomColour.next(random), 0, 0);
+        }
+
+        final int different = countDifferentPixels(renderOnce(world, RenderBackend.SPRITES),
+                renderOnce(world, RenderBackend.SOFTWARE));
+        if (different > 0) {
+            throw new IllegalStateException("Error: The software backend differs from the sprites in "
+                    + different + " pixels.");
+        }
+
+        panel = newPanel(world, backend);
+        image = newImage();
+        graphics = image.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        graphics.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage paintComponent() {
+        panel.render(graphics);
+        return image;
+    }
+
+    private static BufferedImage renderOnce(final World world, final RenderBackend backend) {
+        final BufferedImage target = newImage();
+        final Graphics2D g2 = target.createGraphics();
+        newPanel(world, backend).render(g2);
+        g2.dispose();
+        return target;
+    }
+
+    private static OffscreenPanel newPanel(final World world, final RenderBackend backend) {
+        final OffscreenPanel newPanel = new OffscreenPanel();
+        newPanel.setSize(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT);
+        newPanel.setWorld(world);
+        newPanel.setRenderBackend(backend);
+        return newPanel;
+    }
+
+    private static BufferedImage newImage() {
+        return new BufferedImage(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT, BufferedImage.TYPE_INT_RGB);
+    }
+
+    private static int countDifferentPixels(final BufferedImage a, final BufferedImage b) {
+        final int[] pixelsA = a.getRGB(0, 0, a.getWidth(), a.getHeight(), null, 0, a.getWidth());
+        final int[] pixelsB = b.getRGB(0, 0, b.getWidth(), b.getHeight(), null, 0, b.getWidth());
+        int different = 0;
+        for (int i = 0; i < pixelsA.length; i++) {
+            if (pixelsA[i] != pixelsB[i]) {
+                different++;
+            }
+        }
+        return different;
+    }
+}
@@ -0,0 +1,98 @@
+package com.rikuthin.benchmarks;
+
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rikuthin.game_objects.Bubble;
+import com.rikuthin.rendering.RenderBackend;
+import com.rikuthin.screen_panels.gameplay_subpanels.BubblePanel;
+import com.rikuthin.simulation.World;
+import com.rikuthin.simulation.WorldListener;
+import com.rikuthin.utility.RandomColour;
+
+/**
+ * Cost of one {@link BubblePanel#paintComponent} call, drawn into an
+ * offscreen image the size of the default world, with each render backend.
+ * Runs headless.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+
+    /**
+     * The number of bubbles on screen, alongside the usual walls.
+     */
+    @Param({"10", "1000", "10000"})
+    public int entityCount;
+
+    /**
+     * The backend that turns entities into pixels.
+     */
+    @Param({"SPRITES", "SOFTWARE"})
+    public RenderBackend backend;
+
+    private OffscreenPanel panel;
+    private BufferedImage image;
+    private Graphics2D graphics;
+
+    /**
+     * Exposes the panel's paint method without going through Swing's
+     * repaint machinery.
+     */
+    private static final class OffscreenPanel extends BubblePanel {
+
+        void render(final Graphics g) {
+            paintComponent(g);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(entityCount);
+        final World world = new World(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT, random, WorldListener.NONE);
+        world.initialiseWalls();
+        for (int i = 0; i < entityCount; i++) {
+            world.spawnBubble(random.nextDouble() * (World.DEFAULT_WIDTH - Bubble.SIZE),
+                    random.nextDouble() * (World.DEFAULT_HEIGHT - Bubble.SIZE), RandomColour.next(random), 0, 0);
+        }
+
+        panel = new OffscreenPanel();
+        panel.setSize(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT);
+        panel.setWorld(world);
+        panel.setRenderBackend(backend);
+
+        image = new BufferedImage(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        graphics = image.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        graphics.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage paintComponent() {
+        panel.render(graphics);
+        return image;
+    }
+}
@@ -0,0 +1,178 @@
+package com.rikuthin.benchmarks;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rikuthin.App;
+import com.rikuthin.rendering.EventQueueMonitor;
+import com.rikuthin.rendering.FramePacer;
+import com.rikuthin.simulation.EntityScheduler;
+import com.rikuthin.simulation.PauseGate;
+import com.rikuthin.simulation.SchedulerMode;
+import com.rikuthin.simulation.World;
+import com.rikuthin.simulation.WorldListener;
+import com.rikuthin.utility.Bearing2D;
+import com.rikuthin.utility.RandomColour;
+
+/**
+ * Load on the Event Dispatch Thread (EDT) while a world of moving walls runs,
+ * first with a repaint posted for every move and then with a
+ * {@link FramePacer}.
+ * <p>
+ * Each call waits for an empty task to make the round trip through the EDT,
+ * so the sampled times show how long input would queue behind the repaints.
+ * The throughput run also counts {@code edtEvents} (including the round
+ * trips themselves) and the pacer's {@code frames}, per millisecond. Runs
+ * headless, so nothing is actually drawn; the point is the event traffic.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RepaintBenchmark {
+
+    /**
+     * How moves are turned into repaints.
+     */
+    public enum Repaint {
+        /**
+         * A repaint posted to the EDT for every move.
+         */
+        INVOKE_LATER,
+        /**
+         * Moves marked as damage and painted by a {@link FramePacer}.
+         */
+        PACER
+    }
+
+    /**
+     * The number of moving walls.
+     */
+    @Param({"10", "100", "1000"})
+    public int wallCount;
+
+    /**
+     * How moves are turned into repaints.
+     */
+    @Param({"INVOKE_LATER", "PACER"})
+    public Repaint repaint;
+
+    private EventQueueMonitor monitor;
+    private EntityScheduler scheduler;
+    private FramePacer pacer;
+    private volatile long frames; // Only counted on the EDT
+
+    /**
+     * EDT events and frames counted over each iteration, reported per unit
+     * of time.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Traffic {
+
+        public long edtEvents;
+        public long frames;
+        private long startEvents; // JMH zeroes the counters after setup
+        private long startFrames;
+
+        @Setup(Level.Iteration)
+        public void start(final RepaintBenchmark benchmark) {
+            startEvents = benchmark.monitor.getDispatchedEvents();
+            startFrames = benchmark.frames;
+        }
+
+        @TearDown(Level.Iteration)
+        public void stop(final RepaintBenchmark benchmark) {
+            edtEvents = benchmark.monitor.getDispatchedEvents() - startEvents;
+            frames = benchmark.frames - startFrames;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException, InvocationTargetException {
+        monitor = EventQueueMonitor.install();
+
+        final JPanel panel = new JPanel();
+        final World[] worldHolder = new World[1]; // The pacer is needed before the world exists
+        pacer = repaint == Repaint.PACER
+                ? new FramePacer(new JPanel(), FramePacer.DEFAULT_TARGET_FPS, () -> {
+                    worldHolder[0].syncWalls();
+                    frames++;
+                })
+                : null;
+        final WorldListener listener = pacer != null
+                ? new WorldListener() {
+                    @Override
+                    public void onEntityMoved(final double oldX, final double oldY, final double newX,
+                            final double newY, final double width, final double height) {
+                        pacer.markDirty(Math.min(oldX, newX), oldY, Math.abs(newX - oldX) + width, height);
+                    }
+                }
+                : new WorldListener() {
+                    @Override
+                    public void onEntityMoved(final double oldX, final double oldY, final double newX,
+                            final double newY, final double width, final double height) {
+                        SwingUtilities.invokeLater(panel::repaint);
+                    }
+                };
+
+        final Random random = new Random(wallCount);
+        final World world = new World(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT, random, listener);
+        worldHolder[0] = world;
+        for (int i = 0; i < wallCount; i++) {
+            world.spawnWall(random.nextInt(World.DEFAULT_WIDTH - 80), random.nextInt(World.DEFAULT_HEIGHT - 50),
+                    30 + random.nextInt(51), 30 + random.nextInt(21), RandomColour.next(random),
+                    random.nextInt(9) + 1.0, new Bearing2D(random.nextBoolean() ? 0 : 180));
+        }
+
+        scheduler = SchedulerMode.FIXED_STEP.create(App.TICK_SPEED_MS, new PauseGate());
+        scheduler.attach(world);
+        if (pacer == null) {
+            // Walls are only worked out when asked for, so ask every tick to report each move
+            scheduler.add(dt -> world.syncWalls());
+        }
+        scheduler.start();
+        if (pacer != null) {
+            SwingUtilities.invokeAndWait(pacer::start);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException, InvocationTargetException {
+        scheduler.stop();
+        if (pacer != null) {
+            SwingUtilities.invokeAndWait(pacer::stop);
+        }
+        // Let any backlog drain before the next run
+        SwingUtilities.invokeAndWait(() -> {
+        });
+    }
+
+    @Benchmark
+    public void edtRoundTrip(final Traffic traffic) throws InterruptedException, InvocationTargetException {
+        SwingUtilities.invokeAndWait(() -> {
+        });
+    }
+}
@@ -0,0 +1,167 @@
+package com.rikuthin.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.runner.IterationType;
+
+import com.rikuthin.App;
+import com.rikuthin.simulation.EntityScheduler;
+import com.rikuthin.simulation.PauseGate;
+import com.rikuthin.simulation.SchedulerMode;
+import com.rikuthin.simulation.Updatable;
+
+/**
+ * Compares the scheduler modes by how steadily they tick at increasing
+ * entity counts.
+ * <p>
+ * Each call waits for one entity's next update, so the sampled times show
+ * how far a step strays from {@link App#TICK_SPEED_MS}. The throughput run
+ * also counts {@code updates}, the entity updates per millisecond across the
+ * whole scheduler, and reports what the running scheduler costs to keep:
+ * {@code liveThreads}, the JVM's live platform threads (virtual threads only
+ * count through their carriers), and {@code usedHeapBytes}, the heap still
+ * in use after a full collection. Platform threads usually hit the OS limit
+ * long before 50,000 entities; JMH reports that run as failed and moves on.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class SchedulerBenchmark {
+
+    /**
+     * The number of entities the scheduler updates.
+     */
+    @Param({"10", "1000", "50000"})
+    public int entityCount;
+
+    /**
+     * The scheduler being benchmarked.
+     */
+    @Param({"FIXED_STEP", "PLATFORM", "VIRTUAL", "POOLED"})
+    public SchedulerMode mode;
+
+    private EntityScheduler scheduler;
+    private Probe[] probes;
+
+    /**
+     * Entity updates counted over each iteration, reported per unit of time.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Updates {
+
+        public long updates;
+        private long startUpdates; // JMH zeroes the counter after setup
+
+        @Setup(Level.Iteration)
+        public void start(final SchedulerBenchmark benchmark) {
+            startUpdates = benchmark.countUpdates();
+        }
+
+        @TearDown(Level.Iteration)
+        public void stop(final SchedulerBenchmark benchmark) {
+            updates = benchmark.countUpdates() - startUpdates;
+        }
+    }
+
+    /**
+     * What the started scheduler holds on to, read once at the end of the
+     * last measurement iteration. JMH adds event counters up over the
+     * iterations, so the other iterations leave them at zero.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+
+        public long liveThreads;
+        public long usedHeapBytes;
+        private int measuredIterations;
+
+        @TearDown(Level.Iteration)
+        public void read(final IterationParams iteration) {
+            if (iteration.getType() != IterationType.MEASUREMENT
+                    || ++measuredIterations < iteration.getCount()) {
+                return;
+            }
+            liveThreads = ManagementFactory.getThreadMXBean().getThreadCount();
+            System.gc(); // Count what the scheduler keeps, not garbage waiting to be collected
+            usedHeapBytes = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        scheduler = mode.create(App.TICK_SPEED_MS, new PauseGate());
+        probes = new Probe[entityCount];
+        for (int i = 0; i < entityCount; i++) {
+            probes[i] = new Probe();
+            scheduler.add(probes[i]);
+        }
+        probes[0].waiter = Thread.currentThread();
+        scheduler.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scheduler.stop();
+    }
+
+    private long countUpdates() {
+        long updates = 0;
+        for (Probe probe : probes) {
+            updates += probe.ticks;
+        }
+        return updates;
+    }
+
+    /**
+     * Waits for the first entity's next update.
+     */
+    @Benchmark
+    public void nextTick(final Updates counter, final Footprint footprint) {
+        final long seen = probes[0].ticks;
+        while (probes[0].ticks == seen) {
+            LockSupport.park(this);
+        }
+    }
+
+    /**
+     * A stand-in entity that counts its updates and wakes the benchmark
+     * thread when it has one waiting.
+     */
+    private static final class Probe implements Updatable {
+
+        private volatile long ticks;
+        private volatile Thread waiter;
+
+        @Override
+        public void update(final double dt) {
+            ticks++; // An entity's updates never overlap
+            final Thread thread = waiter;
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+}
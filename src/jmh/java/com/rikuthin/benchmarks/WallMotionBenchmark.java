@@ -0,0 +1,147 @@
+package com.rikuthin.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rikuthin.App;
+import com.rikuthin.game_objects.Wall;
+import com.rikuthin.simulation.EntityStore;
+import com.rikuthin.simulation.World;
+import com.rikuthin.simulation.WorldListener;
+import com.rikuthin.utility.Bearing2D;
+import com.rikuthin.utility.RandomColour;
+
+/**
+ * Cost of a tick's wall motion, stepping every wall with
+ * {@link Wall#move(World, int, double)} against working walls out from their
+ * paths: with no bubble in flight, where walls cost nothing until read, and
+ * with them read every tick.
+ * <p>
+ * Before timing, an analytic and a stepped copy of the same world run side
+ * by side, reading the analytic one after every tick and after gaps of
+ * several ticks, and the run fails unless every wall's position and velocity
+ * match bit for bit.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class WallMotionBenchmark {
+
+    /**
+     * The number of moving walls.
+     */
+    @Param({"10", "100", "1000", "10000"})
+    public int wallCount;
+
+    private static final int[] READ_GAPS = {1, 7, 60}; // Ticks between reads of the analytic world
+    private static final int CHECK_WALLS = 500;
+    private static final int CHECK_TICKS = 5_000;
+    private static final double STEP_SECONDS = 0.01;
+
+    private World stepped;
+    private World idle;
+    private World read;
+
+    @Setup
+    public void setUp() {
+        for (int gap : READ_GAPS) {
+            check(gap);
+        }
+
+        stepped = newWorld(wallCount, new Random(wallCount));
+        idle = newWorld(wallCount, new Random(wallCount));
+        read = newWorld(wallCount, new Random(wallCount));
+    }
+
+    @Benchmark
+    public void steppedTick() {
+        synchronized (stepped) {
+            for (int i = 0; i < wallCount; i++) {
+                Wall.move(stepped, i, 1.0);
+            }
+        }
+    }
+
+    @Benchmark
+    public void idleTick() {
+        idle.update(STEP_SECONDS);
+    }
+
+    /**
+     * As when a bubble is in flight and tests walls every tick.
+     */
+    @Benchmark
+    public void readTick() {
+        read.update(STEP_SECONDS);
+        read.syncWalls();
+    }
+
+    /**
+     * Runs an analytic and a stepped world side by side and compares their
+     * walls.
+     *
+     * @param gap How many ticks pass between reads of the analytic world.
+     * @throws IllegalStateException If any read differs.
+     */
+    private static void check(final int gap) {
+        final World analytic = newWorld(CHECK_WALLS, new Random(gap));
+        final World expectedWorld = newWorld(CHECK_WALLS, new Random(gap));
+
+        synchronized (analytic) {
+            synchronized (expectedWorld) {
+                for (int tick = 1; tick <= CHECK_TICKS; tick++) {
+                    analytic.update(STEP_SECONDS);
+                    for (int i = 0; i < CHECK_WALLS; i++) {
+                        Wall.move(expectedWorld, i, STEP_SECONDS * 1000.0 / App.TICK_SPEED_MS);
+                    }
+                    if (tick % gap != 0) {
+                        continue;
+                    }
+
+                    final EntityStore<Wall> expected = expectedWorld.getWallStore();
+                    final EntityStore<Wall> actual = analytic.getWallStore();
+                    for (int i = 0; i < CHECK_WALLS; i++) {
+                        if (Double.compare(actual.x()[i], expected.x()[i]) != 0
+                                || Double.compare(actual.dx()[i], expected.dx()[i]) != 0) {
+                            throw new IllegalStateException("Error: Wall " + i + " diverged from the stepped model"
+                                    + " at tick " + tick + " when read every " + gap + " ticks.");
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds a world of walls like the game's, with whole-pixel positions,
+     * sizes and speeds.
+     */
+    private static World newWorld(final int wallCount, final Random random) {
+        final int fieldWidth = World.DEFAULT_WIDTH;
+        final World world = new World(fieldWidth, World.DEFAULT_HEIGHT * Math.max(1, wallCount / 100), random,
+                WorldListener.NONE);
+        for (int i = 0; i < wallCount; i++) {
+            final int width = random.nextInt(51) + 30;
+            final int x = random.nextInt(fieldWidth - width);
+            world.spawnWall(x, random.nextInt((int) world.getHeight() - 50), width, 30, RandomColour.next(random),
+                    random.nextInt(9) + 1.0, new Bearing2D(random.nextBoolean() ? 0 : 180));
+        }
+        return world;
+    }
+}
@@ -5,7 +5,7 @@ import javax.swing.SwingUtilities;
 public class App {
 
     /**
-     * How often the various threads should update themselves (milliseconds).
+     * The length of a single fixed simulation step (milliseconds).
      */
     public static final int TICK_SPEED_MS = 10;
 
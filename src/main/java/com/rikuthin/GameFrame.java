@@ -30,8 +30,8 @@ public final class GameFrame extends JFrame {
 
     /**
      * Constructor to initialize the game frame, set the size, title, and add
-     * the main menu and gameplay panels. Also initializes the GameManager
-     * instance and sets the blaster and bubble panels.
+     * the main menu and gameplay panels. Also creates the frame's own
+     * GameManager and sets the blaster and bubble panels.
      */
     public GameFrame() {
         setTitle("Thread the Needle");
@@ -42,11 +42,11 @@ public final class GameFrame extends JFrame {
         cardLayout = new CardLayout();
         setLayout(cardLayout);
 
+        // Each frame runs its own session, which its panels are given
+        gameManager = new GameManager();
         mainMenuScreenPanel = new MainMenuScreenPanel(this);
-        gameplayScreenPanel = new GameplayScreenPanel(this);
+        gameplayScreenPanel = new GameplayScreenPanel(this, gameManager);
 
-        // Initialize GameManager
-        gameManager = GameManager.getInstance();
         gameManager.setBlasterPanel(gameplayScreenPanel.getBlasterPanel());
         gameManager.setBubblePanel(gameplayScreenPanel.getBubblePanel());
         gameManager.setStatusPanel(gameplayScreenPanel.getStatusPanel());
@@ -90,6 +90,15 @@ public final class GameFrame extends JFrame {
         return gameplayScreenPanel;
     }
 
+    /**
+     * Returns the session played in this frame.
+     *
+     * @return The game manager.
+     */
+    public GameManager getGameManager() {
+        return gameManager;
+    }
+
     /**
      * Checks if the gameplay panel is currently active (visible).
      *
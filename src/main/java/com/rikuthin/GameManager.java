@@ -1,53 +1,141 @@
 package com.rikuthin;
 
-import java.awt.Color;
 import java.awt.Point;
 import java.awt.event.ActionEvent;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
+import javax.swing.SwingUtilities;
 import javax.swing.Timer;
 
 import com.rikuthin.dialogue_panels.PauseMenuDialogue;
 import com.rikuthin.game_objects.Blaster;
-import com.rikuthin.game_objects.Bubble;
+import com.rikuthin.rendering.ActiveRenderer;
+import com.rikuthin.rendering.EventQueueMonitor;
+import com.rikuthin.rendering.FramePacer;
+import com.rikuthin.rendering.FrameRenderer;
+import com.rikuthin.rendering.RenderBackend;
+import com.rikuthin.rendering.RenderMode;
 import com.rikuthin.screen_panels.gameplay_subpanels.BlasterPanel;
 import com.rikuthin.screen_panels.gameplay_subpanels.BubblePanel;
 import com.rikuthin.screen_panels.gameplay_subpanels.StatusPanel;
-import com.rikuthin.utility.RandomColour;
+import com.rikuthin.simulation.AimSolver;
+import com.rikuthin.simulation.EntityScheduler;
+import com.rikuthin.simulation.FlightMode;
+import com.rikuthin.simulation.GameSession;
+import com.rikuthin.simulation.PauseGate;
+import com.rikuthin.simulation.SchedulerMode;
+import com.rikuthin.simulation.World;
+import com.rikuthin.simulation.WorldListener;
+
+/**
+ * One game session on screen: its rules and world, scheduler, timer, renderer
+ * and the panels it is shown on. The rules themselves are a
+ * {@link GameSession}'s, the same as for a headless game.
+ * <p>
+ * Nothing is shared between sessions or looked up statically, so a JVM can
+ * hold as many as it has frames for. Each {@link GameFrame} creates its own
+ * and hands it to the panels that need it.
+ * </p>
+ */
+public class GameManager implements WorldListener {
 
-public class GameManager {
+    /**
+     * The settings key used to choose how entities are scheduled.
+     */
+    public static final String SCHEDULER_SETTING = "scheduler";
+
+    /**
+     * The settings key used to choose how the game area is drawn.
+     */
+    public static final String RENDER_MODE_SETTING = "render_mode";
+
+    /**
+     * The settings key used to choose how entities are turned into pixels.
+     */
+    public static final String RENDER_BACKEND_SETTING = "render_backend";
+
+    /**
+     * The settings key for the maximum frames per second drawn.
+     */
+    public static final String TARGET_FPS_SETTING = "target_fps";
+
+    /**
+     * The settings key that, when {@code true}, logs frame and EDT statistics
+     * every second.
+     */
+    public static final String FRAME_STATS_SETTING = "frame_stats";
+
+    /**
+     * The settings key that, when {@code true}, draws the shot most likely to
+     * reach the top over the game area while the blaster can fire.
+     */
+    public static final String AIM_HINT_SETTING = "aim_hint";
+
+    /**
+     * The threads given to solving aim hints, leaving the rest of the
+     * processors to the simulation and the common pool.
+     */
+    private static final int AIM_HINT_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
 
-    private static GameManager instance;
+    /**
+     * How long a hint is kept while the walls move before it is solved
+     * again. Its shots were tried leaving at any point over the solver's
+     * delay window, so it holds for about half of that.
+     */
+    private static final long AIM_HINT_LIFETIME_NANOS = TimeUnit.MILLISECONDS.toNanos(
+            AimSolver.MAX_DELAY_STEPS * App.TICK_SPEED_MS / 2);
 
     private BlasterPanel blasterPanel;
     private BubblePanel bubblePanel;
     private StatusPanel statusPanel;
     private Timer gameTimer;
-    private int remainingBubbles;
+    private final SchedulerMode schedulerMode;
+    private final RenderMode renderMode;
+    private final RenderBackend renderBackend;
+    private final int targetFps;
+    private final boolean logFrameStats;
+    private final boolean showAimHint;
+    private EntityScheduler entityScheduler;
+    private volatile FrameRenderer frameRenderer;
+    private EventQueueMonitor eventQueueMonitor;
+    private Thread aimHintThread;
+    private ForkJoinPool aimHintPool;
+    private long lastDispatchedEvents;
+    private volatile GameSession session; // Also read by the aim hint thread
     private int elapsedSeconds;
-    private int score;
-    private boolean canShootBlaster;
     private boolean gameActive;
-    private boolean isPaused;
 
-    private GameManager() {
-        remainingBubbles = 0;
-        elapsedSeconds = 0;
-        score = 0;
-        gameActive = false;
-        canShootBlaster = false;
-        isPaused = false;
-    }
+    /**
+     * Parks the session's simulation threads while the game is paused. Kept
+     * from one game to the next, since only one runs at a time.
+     */
+    private final PauseGate pauseGate = new PauseGate();
 
     /**
-     * Returns the singleton instance of the GameManager.
-     *
-     * @return The single instance of GameManager.
+     * Constructs a new GameManager with no game started, configured from the
+     * settings file. Panels must be set before the first game starts.
      */
-    public static GameManager getInstance() {
-        if (instance == null) {
-            instance = new GameManager();
-        }
-        return instance;
+    public GameManager() {
+        schedulerMode = SchedulerMode.parse(
+                Settings.getInstance().getSetting(SCHEDULER_SETTING),
+                SchedulerMode.FIXED_STEP
+        );
+        renderMode = RenderMode.parse(
+                Settings.getInstance().getSetting(RENDER_MODE_SETTING),
+                RenderMode.PASSIVE
+        );
+        renderBackend = RenderBackend.parse(
+                Settings.getInstance().getSetting(RENDER_BACKEND_SETTING),
+                RenderBackend.SPRITES
+        );
+        final int configuredFps = Settings.getInstance().getIntSetting(TARGET_FPS_SETTING, FramePacer.DEFAULT_TARGET_FPS);
+        targetFps = configuredFps > 0 ? configuredFps : FramePacer.DEFAULT_TARGET_FPS;
+        logFrameStats = Boolean.parseBoolean(Settings.getInstance().getSetting(FRAME_STATS_SETTING));
+        showAimHint = Boolean.parseBoolean(Settings.getInstance().getSetting(AIM_HINT_SETTING));
+        elapsedSeconds = 0;
+        gameActive = false;
     }
 
     /**
@@ -56,7 +144,8 @@ public class GameManager {
      * @return The remaining number of bubbles
      */
     public int getRemainingBubbles() {
-        return remainingBubbles;
+        final GameSession current = session;
+        return current == null ? 0 : current.getRemainingBubbles();
     }
 
     public BlasterPanel getBlasterPanel() {
@@ -71,6 +160,49 @@ public class GameManager {
         return statusPanel;
     }
 
+    /**
+     * Returns the world of the current game, or {@code null} if no game has
+     * been started.
+     *
+     * @return The current world.
+     */
+    public World getWorld() {
+        final GameSession current = session;
+        return current == null ? null : current.getWorld();
+    }
+
+    /**
+     * Returns the scheduler driving the current game, or {@code null} if no
+     * game has been started.
+     *
+     * @return The entity scheduler.
+     */
+    public EntityScheduler getEntityScheduler() {
+        return entityScheduler;
+    }
+
+    public SchedulerMode getSchedulerMode() {
+        return schedulerMode;
+    }
+
+    public RenderMode getRenderMode() {
+        return renderMode;
+    }
+
+    public RenderBackend getRenderBackend() {
+        return renderBackend;
+    }
+
+    /**
+     * Returns the renderer drawing the current game, or {@code null} if no
+     * game has been started.
+     *
+     * @return The frame renderer.
+     */
+    public FrameRenderer getFrameRenderer() {
+        return frameRenderer;
+    }
+
     public void setBlasterPanel(BlasterPanel blasterPanel) {
         this.blasterPanel = blasterPanel;
     }
@@ -91,14 +223,47 @@ public class GameManager {
             throw new IllegalStateException("Error: Game cannot start. BlasterPanel and BubblePanel must be set first.");
         }
 
-        remainingBubbles = 100;
+        // End the previous session so none of its entities keep running
+        if (entityScheduler != null) {
+            entityScheduler.stop();
+        }
+        if (gameTimer != null) {
+            gameTimer.stop();
+        }
+        if (frameRenderer != null) {
+            frameRenderer.stop();
+        }
+        stopAimHints();
+
+        // The world is sized to the panel that displays it
+        final int worldWidth = bubblePanel.getWidth() > 0 ? bubblePanel.getWidth() : World.DEFAULT_WIDTH;
+        final int worldHeight = bubblePanel.getHeight() > 0 ? bubblePanel.getHeight() : World.DEFAULT_HEIGHT;
+        session = new GameSession(worldWidth, worldHeight, new Random(), blasterPanel.getBlaster().getShotSpeed(),
+                this);
+        final World world = session.getWorld();
         elapsedSeconds = 0;
-        score = 0;
-        blasterPanel.updateRemainingBubblesCounter(remainingBubbles);
-        bubblePanel.initialiseWalls();
+        blasterPanel.updateRemainingBubblesCounter(session.getRemainingBubbles());
         gameActive = true;
-        canShootBlaster = true;
-        isPaused = false;
+        pauseGate.resume(); // The previous session's threads have already stopped
+
+        bubblePanel.setWorld(world);
+        bubblePanel.setRenderBackend(renderBackend);
+        bubblePanel.setBlaster(blasterPanel.getBlaster()); // Previews its shot towards the cursor
+
+        // Entities only mark the frame dirty; the renderer decides when to draw
+        frameRenderer = createFrameRenderer();
+        frameRenderer.start();
+        if (logFrameStats && eventQueueMonitor == null) {
+            eventQueueMonitor = EventQueueMonitor.install();
+        }
+
+        // Each session gets its own scheduler, which owns every entity it runs
+        entityScheduler = schedulerMode.create(App.TICK_SPEED_MS, pauseGate);
+        entityScheduler.attach(world);
+        entityScheduler.start();
+        if (showAimHint) {
+            startAimHints();
+        }
 
         // Initialise and start the game timer (updates every second).
         gameTimer = new Timer(1000, this::onTimerTick);
@@ -116,57 +281,137 @@ public class GameManager {
             throw new IllegalStateException("Error: Cannot shoot bubble. Game has not started.");
         }
 
-        if (remainingBubbles > 0) {
-            if (canShootBlaster) {
-                canShootBlaster = false;
+        if (session.isOver()) {
+            System.err.println("Warning: No more bubbles left to shoot.");
+        } else if (!session.canShoot()) {
+            System.err.println("Warning: Bubble already fired. Wait for it to stop moving.");
+        } else {
+            final Blaster blaster = blasterPanel.getBlaster();
+            // The bubble reports its own damage once it moves into view
+            session.shoot(blaster.getLaunchX(), blaster.getLaunchY(session.getWorld()), target.x, target.y);
+            blasterPanel.updateRemainingBubblesCounter(session.getRemainingBubbles());
+        }
+    }
 
-                Blaster blaster = blasterPanel.getBlaster();
-                Bubble newBubble = blaster.shootBubble(target, nextRandomColour());
+    /**
+     * Shows the session's new score once it has added up the points scored,
+     * updating the display on the EDT.
+     *
+     * @param points The number of points scored.
+     */
+    @Override
+    public void onPointsScored(final int points) {
+        SwingUtilities.invokeLater(this::updateScoreDisplay);
+    }
 
-                bubblePanel.addBubble(newBubble);
+    /**
+     * Marks the area an entity covered, before and after moving, for
+     * repainting on the next frame.
+     */
+    @Override
+    public void onEntityMoved(final double oldX, final double oldY, final double newX, final double newY,
+            final double width, final double height) {
+        final FrameRenderer renderer = frameRenderer;
+        if (renderer != null) {
+            final double minX = Math.min(oldX, newX);
+            final double minY = Math.min(oldY, newY);
+            renderer.markDirty(minX, minY, Math.max(oldX, newX) + width - minX, Math.max(oldY, newY) + height - minY);
+        }
+    }
 
-                remainingBubbles--;
-                blasterPanel.updateRemainingBubblesCounter(remainingBubbles);
-            } else {
-                System.err.println("Warning: Bubble already fired. Wait for it to stop moving.");
+    /**
+     * Starts a thread that shows the best shot over the game area while the
+     * blaster can fire. It checks once a frame, but only solves when there is
+     * no hint yet, the last one has run out, or the blaster has changed, on a
+     * pool of its own. The thread parks with the rest of the session while the
+     * game is paused.
+     */
+    private void startAimHints() {
+        final GameSession hintSession = session;
+        final World hintWorld = hintSession.getWorld();
+        final Blaster blaster = blasterPanel.getBlaster();
+        final long frameNanos = TimeUnit.SECONDS.toNanos(1) / targetFps;
+        final long budgetNanos = Math.min(AimSolver.DEFAULT_BUDGET_NANOS, frameNanos / 2);
+        aimHintPool = new ForkJoinPool(AIM_HINT_THREADS);
+        // Stepped flights match what the player's shot will do exactly
+        final AimSolver solver = new AimSolver(aimHintPool, FlightMode.STEPPED, AimSolver.DEFAULT_CANDIDATES,
+                System.nanoTime());
+
+        aimHintThread = new Thread(() -> {
+            long solvedAt = 0;
+            double solvedSpeed = 0;
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    pauseGate.await();
+                    final long start = System.nanoTime();
+                    if (!hintSession.canShoot()) {
+                        bubblePanel.setAimHint(null);
+                    } else {
+                        final int launchX = blaster.getLaunchX();
+                        final int launchY = blaster.getLaunchY(hintWorld);
+                        final AimSolver.Solution hint = bubblePanel.getAimHint();
+                        if (hint == null || start - solvedAt >= AIM_HINT_LIFETIME_NANOS
+                                || hint.getLaunchX() != launchX || hint.getLaunchY() != launchY
+                                || solvedSpeed != blaster.getShotSpeed()) {
+                            solvedAt = start;
+                            solvedSpeed = blaster.getShotSpeed();
+                            bubblePanel.setAimHint(solver.solve(hintWorld, launchX, launchY, solvedSpeed,
+                                    budgetNanos, Integer.MAX_VALUE));
+                        }
+                    }
+                    TimeUnit.NANOSECONDS.sleep(frameNanos - (System.nanoTime() - start));
+                }
+            } catch (InterruptedException e) {
+                // The session is over
             }
-        } else {
-            System.err.println("Warning: No more bubbles left to shoot.");
-        }
+        }, "aim-hints");
+        aimHintThread.setDaemon(true);
+        aimHintThread.start();
     }
 
-    public void onBubbleMovementComplete() {
-        canShootBlaster = true;
+    /**
+     * Stops the previous session's hint thread, if any, and clears its hint.
+     */
+    private void stopAimHints() {
+        if (aimHintThread != null) {
+            aimHintThread.interrupt();
+            try {
+                aimHintThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            aimHintThread = null;
+        }
+        if (aimHintPool != null) {
+            aimHintPool.shutdownNow();
+            aimHintPool = null;
+        }
+        bubblePanel.setAimHint(null);
     }
 
     /**
-     * Chooses the next bubble's color randomly.
+     * Creates the renderer for a new session in the configured render mode.
      *
-     * @return The next random colour.
+     * @return The new, not yet started, renderer.
      */
-    private Color nextRandomColour() {
-        if (!gameActive) {
-            throw new IllegalStateException("Cannot select color when game is not active.");
+    private FrameRenderer createFrameRenderer() {
+        if (renderMode == RenderMode.ACTIVE) {
+            return new ActiveRenderer(bubblePanel.getActiveCanvas(), bubblePanel.createScene(), targetFps);
         }
-        return RandomColour.getRandomColour();
+        // The world brings its walls up to date whenever it publishes a frame, so their damage is already in
+        return new FramePacer(bubblePanel, targetFps);
     }
 
     public int getScore() {
-        return score;
-    }
-
-    public void setScore(final int score) {
-        this.score = score;
-        updateScoreDisplay();
+        final GameSession current = session;
+        return current == null ? 0 : current.getScore();
     }
 
     /**
-     * Updates the displayed score and internal score counter.
-     *
-     * @param score The new score.
+     * Updates the displayed score to the session's.
      */
     public final void updateScoreDisplay() {
-        statusPanel.updateScoreDisplay(score);
+        statusPanel.updateScoreDisplay(getScore());
     }
 
     /**
@@ -179,7 +424,7 @@ public class GameManager {
     }
 
     public boolean isPaused() {
-        return isPaused;  // This should be updated when the pause menu is opened/closed
+        return pauseGate.isPaused();
     }
 
     /**
@@ -191,17 +436,38 @@ public class GameManager {
     private void onTimerTick(ActionEvent e) {
         elapsedSeconds++;
         updateTimerDisplay();
+        if (logFrameStats) {
+            logFrameStats();
+        }
     }
 
     /**
-     * Pauses the game when the pause button is clicked. Stops the timer and
-     * displays the pause menu dialogue.
+     * Prints the last second's frame and EDT statistics, then starts a new
+     * measuring window.
+     */
+    private void logFrameStats() {
+        final long dispatched = eventQueueMonitor.getDispatchedEvents();
+        System.out.printf("%s edtEvents/s=%d queueDepth=%d (max %d)%n", frameRenderer.describeStats(),
+                dispatched - lastDispatchedEvents, eventQueueMonitor.getQueueDepth(),
+                eventQueueMonitor.getMaxQueueDepth());
+        lastDispatchedEvents = dispatched;
+        frameRenderer.resetStats();
+        eventQueueMonitor.resetMaxQueueDepth();
+    }
+
+    /**
+     * Pauses the game when the pause button is clicked. Parks the simulation,
+     * stops the timer and renderer, and displays the pause menu dialogue.
+     * Nothing in the session runs until it is resumed.
      *
      * @param e The action event triggered by clicking the pause button.
      */
     public void onPause(ActionEvent e) {
-        isPaused = true;
+        pauseGate.pause();
         gameTimer.stop();
+        if (frameRenderer != null) {
+            frameRenderer.stop();
+        }
         showPauseMenu();
     }
 
@@ -217,10 +483,15 @@ public class GameManager {
     }
 
     /**
-     * Resumes the game by restarting the game timer.
+     * Resumes the game, waking the simulation exactly where it stopped and
+     * restarting the timer and renderer.
      */
     private void onResume() {
+        if (frameRenderer != null && !frameRenderer.isRunning()) {
+            frameRenderer.markDirty();
+            frameRenderer.start();
+        }
         gameTimer.start();
-        isPaused = false;
+        pauseGate.resume();
     }
 }
@@ -56,6 +56,20 @@ public class Settings {
         return properties.getProperty(key);
     }
 
+    // Get a whole-number setting, or a default if it is unset or not a number
+    public int getIntSetting(String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid value for setting " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
     // Set a setting value
     public void setSetting(String key, String value) {
         properties.setProperty(key, value);
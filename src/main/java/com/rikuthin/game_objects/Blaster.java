@@ -2,26 +2,23 @@ package com.rikuthin.game_objects;
 
 import java.awt.Color;
 import java.awt.Graphics2D;
-import java.awt.Point;
 import java.awt.geom.Rectangle2D;
 import java.util.Objects;
 
-import com.rikuthin.GameManager;
+import com.rikuthin.simulation.World;
 import com.rikuthin.utility.Bearing2D;
 
 /**
- * Represents a blaster that operates within a JPanel. The blaster can shoot
- * bubbles in a specified direction (bearing) at a defined speed (pixels per
- * tick).
+ * Represents a blaster that operates within a JPanel. Bubbles are shot from
+ * it in a specified direction (bearing) at a defined speed (pixels per tick).
  * <p>
- * The blaster is responsible for computing the starting position for bubbles
- * and initiating their movement based on the target point. Additional
- * functionality, such as rotation, may be implemented in the future.
+ * The blaster is responsible for the starting position of bubbles and the
+ * speed they are shot at; {@link com.rikuthin.simulation.GameSession#shoot}
+ * fires them from there. Additional functionality, such as rotation, may be
+ * implemented in the future.
  * </p>
  */
-public class Blaster extends Rectangle2D.Double implements Runnable {
-
-    private final GameManager gameManager;
+public class Blaster extends Rectangle2D.Double {
 
     /**
      * The colour of the blaster.
@@ -56,7 +53,6 @@ public class Blaster extends Rectangle2D.Double implements Runnable {
      */
     public Blaster(final int x, final int y, final int shotSize, final double shotSpeed, final Color colour) {
         super(x, y, shotSize, shotSize);
-        gameManager = GameManager.getInstance();
         this.colour = colour;
         this.bearing = new Bearing2D(0);
         this.shotSize = shotSize;
@@ -140,37 +136,25 @@ public class Blaster extends Rectangle2D.Double implements Runnable {
     }
 
     /**
-     * Shoots a new Bubble instance towards the given target location.
-     * <p>
-     * The bubble is created at the centre of the blaster and its movement
-     * direction is determined by calculating the bearing from the blaster's
-     * centre to the target.
-     * </p>
+     * Returns the x-coordinate bubbles are spawned at: the blaster's centre,
+     * rounded down to a whole pixel.
      *
-     * @param target the mouse position where the bubble should travel
-     * @param bubbleColour the colour of the bubble
-     * @return the newly created {@link Bubble} instance
-     * @throws IllegalArgumentException if the target is null
-     */
-    public Bubble shootBubble(final Point target, final Color bubbleColour) {
-        if (target == null) {
-            throw new IllegalArgumentException("Target position cannot be null");
-        }
-        
-        // Account for the blaster panel being below the bubble panel
-        final int bubblePanelHeight = gameManager.getBubblePanel().getHeight();
-        
-        final int startX = (int) Math.floor(getCenterX());
-        final int startY = (int) Math.floor(getCenterY()) + bubblePanelHeight;
-
-        Bubble bubble = new Bubble(startX, startY, bubbleColour);
-        bubble.setBearing(new Bearing2D(startX, startY, target.x, target.y));
-        bubble.setSpeed(shotSpeed);
-        bubble.setIsMoving(true);
-
-        new Thread(bubble).start();
+     * @return The launch point's x-coordinate.
+     */
+    public int getLaunchX() {
+        return (int) Math.floor(getCenterX());
+    }
 
-        return bubble;
+    /**
+     * Returns the y-coordinate bubbles are spawned at in a world. The blaster
+     * sits directly below the world, so its centre is offset by the world's
+     * height.
+     *
+     * @param world The world the bubbles move in.
+     * @return The launch point's y-coordinate.
+     */
+    public int getLaunchY(final World world) {
+        return (int) Math.floor(getCenterY()) + (int) world.getHeight();
     }
 
     /**
@@ -185,26 +169,6 @@ public class Blaster extends Rectangle2D.Double implements Runnable {
         g2.draw(this);
     }
 
-    /**
-     * Runs the blaster's movement logic in a loop.
-     * <p>
-     * Note: Rotation logic is currently disabled. Future implementations may
-     * enable dynamic movement or rotation.
-     * </p>
-     */
-    @Override
-    public void run() {
-        while (true) {
-            // Future implementation: rotate();
-            try {
-                Thread.sleep(20); // Controls the update interval (speed)
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt(); // Restore interrupted state
-                break;
-            }
-        }
-    }
-
     /**
      * Compares this blaster with another object for equality. Two blasters are
      * considered equal if they have the same position, size, colour, movement
@@ -1,169 +1,392 @@
 package com.rikuthin.game_objects;
 
-import java.awt.Color;
-import java.awt.Dimension;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.geom.Ellipse2D;
-import java.util.List;
 
 import com.rikuthin.App;
-import com.rikuthin.GameManager;
-import com.rikuthin.screen_panels.gameplay_subpanels.BubblePanel;
+import com.rikuthin.rendering.SpanRasterizer;
+import com.rikuthin.rendering.SpriteCache;
+import com.rikuthin.simulation.EntityStore;
+import com.rikuthin.simulation.Updatable;
+import com.rikuthin.simulation.WallSweep;
+import com.rikuthin.simulation.World;
+import com.rikuthin.simulation.WorldListener;
 import com.rikuthin.utility.Bearing2D;
+import com.rikuthin.utility.RandomColour;
 
 /**
- * Represents a bubble that moves within a JPanel. The bubble moves along a
+ * Represents a bubble that moves within a {@link World}. The bubble moves along a
  * specified bearing (angle in degrees) at a defined speed (pixels per tick) and
  * bounces off the edges and walls, stopping at the roof.
+ * <p>
+ * A Bubble is a view of one row of the world's bubble store; the bubble's
+ * state lives in the store, not in this object. The static methods work on
+ * rows directly and are what the world's tick uses.
+ * </p>
+ * <p>
+ * A view can outlive its bubble. Once the bubble is removed,
+ * {@link #isMoving()}, {@link #isActive()}, {@link #move()} and
+ * {@link #update(double)} treat it as a bubble that has stopped, and every
+ * other accessor throws an {@link IllegalStateException}.
+ * </p>
  */
-public class Bubble extends Ellipse2D.Double implements Runnable {
+public class Bubble implements Updatable, EntityStore.View {
 
     public static final double SIZE = 30; // Size of the bubble in pixels
 
-    private final Color colour;  // Colour of the bubble
-    private boolean isMoving;    // Whether the bubble should move
-    private Bearing2D bearing;   // Direction of movement (bearing)
-    private double speed;        // Movement speed (in pixels per tick)
+    /**
+     * The bubble moved on and is still moving.
+     */
+    public static final int MOVED = 0;
+
+    /**
+     * The bubble hit a wall and breaks.
+     */
+    public static final int HIT_WALL = 1;
+
+    /**
+     * The bubble reached the top and stopped there.
+     */
+    public static final int REACHED_TOP = 2;
+
+    private final World world;  // The world the bubble moves in
+    private final long handle;  // Identifies the bubble for as long as it is in the world
+    private volatile int index; // Row in the world's bubble store, or -1 once removed
+
+    /**
+     * Constructs a view of a bubble. Bubbles are created with
+     * {@link World#spawnBubble}.
+     *
+     * @param world The world the bubble moves in.
+     * @param index The bubble's row in the world's bubble store.
+     * @param handle The bubble's handle in the world's bubble store.
+     */
+    public Bubble(final World world, final int index, final long handle) {
+        if (world == null) {
+            throw new IllegalArgumentException("Bubbles must belong to a world.");
+        }
+
+        this.world = world;
+        this.index = index;
+        this.handle = handle;
+    }
 
     /**
-     * Constructs a new Bubble.
+     * Returns the bubble's handle, which identifies it for as long as it is in
+     * the world, however it moves or its row changes.
      *
-     * @param initialX The initial x-coordinate.
-     * @param initialY The initial y-coordinate.
-     * @param colour The color.
+     * @return The handle.
      */
-    public Bubble(final int initialX, final int initialY, final Color colour) {
-        super(initialX, initialY, SIZE, SIZE);
+    public long getHandle() {
+        return handle;
+    }
+
+    /**
+     * Returns the bubble's row in the world's bubble store.
+     *
+     * @return The row, or {@code -1} if the bubble has been removed.
+     */
+    public int getIndex() {
+        return index;
+    }
 
-        if (GameManager.getInstance().getBubblePanel() == null) {
-            throw new NullPointerException("BubblePanel must be instantiated before creating bubbles.");
+    @Override
+    public void setIndex(final int index) {
+        this.index = index;
+    }
+
+    public double getX() {
+        synchronized (world) {
+            return world.getBubbleStore().x()[row()];
         }
+    }
 
-        this.colour = colour;
-        this.isMoving = false;
-        this.bearing = new Bearing2D(0);
-        this.speed = 0;
+    public double getY() {
+        synchronized (world) {
+            return world.getBubbleStore().y()[row()];
+        }
     }
 
     public boolean isMoving() {
-        return isMoving;
+        synchronized (world) {
+            return index >= 0 && world.getBubbleStore().isMoving(index);
+        }
+    }
+
+    public RandomColour getColour() {
+        synchronized (world) {
+            return RandomColour.fromIndex(world.getBubbleStore().palette()[row()]);
+        }
     }
 
     public Bearing2D getBearing() {
-        return bearing;
+        synchronized (world) {
+            final int row = row();
+            final EntityStore<Bubble> store = world.getBubbleStore();
+            return Bearing2D.fromDelta(store.dx()[row], store.dy()[row]);
+        }
     }
 
     public double getSpeed() {
-        return speed;
+        synchronized (world) {
+            final int row = row();
+            final EntityStore<Bubble> store = world.getBubbleStore();
+            return Math.hypot(store.dx()[row], store.dy()[row]);
+        }
     }
 
     public void setIsMoving(final boolean isMoving) {
-        this.isMoving = isMoving;
+        synchronized (world) {
+            final int row = row();
+            world.getBubbleStore().setMoving(row, isMoving);
+        }
     }
 
     public void setBearing(final Bearing2D bearing) {
-        this.bearing = bearing;
+        synchronized (world) {
+            final int row = row();
+            final EntityStore<Bubble> store = world.getBubbleStore();
+            final double speed = Math.hypot(store.dx()[row], store.dy()[row]);
+            store.dx()[row] = bearing.getDeltaX(speed);
+            store.dy()[row] = bearing.getDeltaY(speed);
+        }
     }
 
     public void setSpeed(final double speed) {
-        this.speed = Math.abs(speed);
+        synchronized (world) {
+            final int row = row();
+            final EntityStore<Bubble> store = world.getBubbleStore();
+            final Bearing2D bearing = Bearing2D.fromDelta(store.dx()[row], store.dy()[row]);
+            store.dx()[row] = bearing.getDeltaX(Math.abs(speed));
+            store.dy()[row] = bearing.getDeltaY(Math.abs(speed));
+        }
     }
 
     /**
-     * Moves the bubble based on its bearing and speed.
+     * Builds the bubble's current outline as a shape.
+     *
+     * @return A new ellipse matching the bubble's bounds.
      */
-    public void move() {
-        GameManager gameManager = GameManager.getInstance();
-        BubblePanel bubblePanel = gameManager.getBubblePanel();
-        if (!bubblePanel.isVisible()) {
-            return;
+    public Ellipse2D getShape() {
+        synchronized (world) {
+            final int row = row();
+            final EntityStore<Bubble> store = world.getBubbleStore();
+            return new Ellipse2D.Double(store.x()[row], store.y()[row],
+                    store.width()[row], store.height()[row]);
         }
+    }
 
-        final Dimension panelSize = bubblePanel.getSize();
-        final double radians = Math.toRadians(bearing.getDegrees());
-
-        double nextX = x + speed * Math.cos(radians);
-        double nextY = y - speed * Math.sin(radians); // Inverted for screen coordinates
+    /**
+     * Returns the bubble's row for an accessor. Callers must hold the world's
+     * lock.
+     *
+     * @return The row.
+     * @throws IllegalStateException If the bubble has been removed.
+     */
+    private int row() {
+        final int row = index;
+        if (row < 0) {
+            throw new IllegalStateException("Error: The bubble has been removed from its world.");
+        }
+        return row;
+    }
 
-        // Break if colliding with a wall
-        if (checkWallCollision()) {
-            bubblePanel.getBubbles().remove(this);
-            bubblePanel.repaint();
-            isMoving = false;
-            return;
+    /**
+     * Moves the bubble one tick based on its velocity.
+     */
+    public void move() {
+        synchronized (world) {
+            if (index >= 0) {
+                move(world, index, 1.0);
+            }
         }
+    }
+
+    /**
+     * Moves a bubble along its velocity. Once the bubble stops,
+     * the world's listener is told so the blaster can fire again. Callers
+     * must hold the world's lock.
+     *
+     * @param world The world the bubble moves in.
+     * @param index The bubble's row in the world's bubble store.
+     * @param ticks How many ticks' worth of movement to apply.
+     */
+    public static void move(final World world, final int index, final double ticks) {
+        final EntityStore<Bubble> store = world.getBubbleStore();
+        final double oldX = store.x()[index];
+        final double oldY = store.y()[index];
+        final int outcome = integrate(world, index, ticks, world.wallSweep());
+        finishMove(world, index, outcome, oldX, oldY);
+    }
+
+    /**
+     * Advances a bubble's row by one step without telling anyone: the first
+     * half of {@link #move(World, int, double)}. Only the bubble's own row is
+     * written, and walls are only read, so different bubbles can be
+     * integrated on different threads as long as the walls hold still. A
+     * bubble that hits a wall is stopped but left in the store.
+     * <p>
+     * The bubble hits a wall if its path over the step touches the wall's at
+     * any point, not just where it ends up, so it can't pass through a wall
+     * however fast it goes. The path runs straight from where the bubble was
+     * to where it ends up, or to where it crosses the top.
+     * </p>
+     *
+     * @param world The world the bubble moves in.
+     * @param index The bubble's row in the world's bubble store.
+     * @param ticks How many ticks' worth of movement to apply.
+     * @param sweep A path test for this thread's use.
+     * @return {@link #MOVED}, {@link #HIT_WALL} or {@link #REACHED_TOP}.
+     */
+    public static int integrate(final World world, final int index, final double ticks,
+            final WallSweep sweep) {
+        final EntityStore<Bubble> store = world.getBubbleStore();
+        final double[] xs = store.x();
+        final double[] ys = store.y();
+        final double[] dxs = store.dx();
+        final double[] dys = store.dy();
+        final double width = store.width()[index];
+        final double height = store.height()[index];
+        final double oldX = xs[index];
+        final double oldY = ys[index];
 
-        // Handle Y-axis bouncing or stopping at the top
-        if (nextY < 0) {
-            y = 0;
-            isMoving = false;
+        double nextX = oldX + dxs[index] * ticks;
+        double nextY = oldY + dys[index] * ticks; // Already in screen coordinates
+        double nextDx = dxs[index];
+        double nextDy = dys[index];
+        final boolean reachedTop = nextY < 0;
 
-            // The line `final int currentScore = gameManager` seems to be incomplete in the provided
-            // code snippet. It looks like there might be a typo or an incomplete statement. It seems
-            // like there is a missing method call or assignment after `gameManager`.
-            final int currentScore = gameManager.getScore();
-            gameManager.setScore(currentScore + 100);
-            return;
+        double endX = nextX;
+        double endY = nextY;
+        if (reachedTop) {
+            // The path ends where it crosses the top
+            final double fraction = oldY <= 0 ? 0 : oldY / (oldY - nextY);
+            endX = oldX + (nextX - oldX) * fraction;
+            endY = 0;
         } else {
-            if (nextY - height > panelSize.height) {
-                bearing.setDegrees(360 - bearing.getDegrees());  // Reverse Y direction
-                nextY = panelSize.height - height;
+            // Handle Y-axis bouncing
+            if (nextY - height > world.getHeight()) {
+                nextDy = -nextDy;  // Reverse Y direction
+                nextY = world.getHeight() - height;
             }
-            y = nextY;
+
+            // Handle X-axis bouncing
+            if (nextX < 0 || nextX + width > world.getWidth()) {
+                nextDx = -nextDx;  // Reverse X direction
+                nextX = Math.clamp(nextX, 0, world.getWidth() - width);
+            }
+            endX = nextX;
+            endY = nextY;
+        }
+
+        // Break if the path touches a wall
+        if (world.sweepHitsAnyWall(sweep.set(oldX, oldY, endX, endY, width))) {
+            store.setMoving(index, false);
+            return HIT_WALL;
         }
 
-        // Handle X-axis bouncing
-        if (nextX < 0 || nextX + width > panelSize.width) {
-            bearing.setDegrees(180 - bearing.getDegrees());  // Reverse X direction
-            nextX = Math.clamp(nextX, 0, panelSize.width - width);
+        // Stop at the top
+        if (reachedTop) {
+            ys[index] = 0;
+            store.setMoving(index, false);
+            return REACHED_TOP;
         }
-        x = nextX;
 
-        javax.swing.SwingUtilities.invokeLater(bubblePanel::repaint);  // Thread-safe repaint
+        xs[index] = nextX;
+        ys[index] = nextY;
+        dxs[index] = nextDx;
+        dys[index] = nextDy;
+        return MOVED;
     }
 
     /**
-     * Draws the bubble.
+     * Applies the outcome of {@link #integrate}: the second half of
+     * {@link #move(World, int, double)}. Removes a bubble that hit a wall and
+     * tells the world's listener what happened. Callers must hold the world's
+     * lock and, when finishing several bubbles, go from the highest row down,
+     * so a removed bubble is only ever replaced by one already finished.
+     *
+     * @param world The world the bubble moves in.
+     * @param index The bubble's row in the world's bubble store.
+     * @param outcome What {@link #integrate} returned.
+     * @param oldX The bubble's x-coordinate before it was integrated.
+     * @param oldY The bubble's y-coordinate before it was integrated.
      */
-    public void draw(final Graphics2D g2) {
-        g2.setColor(colour);
-        g2.fill(this);
-        g2.setColor(Color.BLACK);
-        g2.draw(this);
+    public static void finishMove(final World world, final int index, final int outcome, final double oldX,
+            final double oldY) {
+        final EntityStore<Bubble> store = world.getBubbleStore();
+        final double width = store.width()[index];
+        final double height = store.height()[index];
+        final WorldListener listener = world.getListener();
+
+        switch (outcome) {
+            case HIT_WALL:
+                store.remove(index);
+                listener.onEntityMoved(oldX, oldY, oldX, oldY, width, height);
+                listener.onBubbleStopped();
+                break;
+            case REACHED_TOP:
+                listener.onPointsScored(World.POINTS_PER_BUBBLE);
+                listener.onEntityMoved(oldX, oldY, oldX, 0, width, height);
+                listener.onBubbleStopped();
+                break;
+            default:
+                listener.onEntityMoved(oldX, oldY, store.x()[index], store.y()[index], width, height);
+                break;
+        }
     }
 
     /**
-     * Runs the bubble's movement logic.
-     * 
-     * Bubbles can freeze if the game is paused while they're in motion.
-     * No time to fix this bug now
+     * Draws a bubble from the store using its cached sprite.
+     *
+     * @param g2 The Graphics2D object used for rendering.
+     * @param store The store holding the bubble.
+     * @param index The bubble's row.
+     * @param sprites The cache holding the bubble's sprite.
      */
-    @Override
-    public void run() {
-        
-        while (isMoving && !GameManager.getInstance().isPaused()) {
-            move();
-            try {
-                Thread.sleep(App.TICK_SPEED_MS);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
-            }
-        }
-        GameManager.getInstance().onBubbleMovementComplete();
+    public static void draw(final Graphics2D g2, final EntityStore<Bubble> store, final int index,
+            final SpriteCache sprites) {
+        sprites.draw(g2, SpriteCache.Shape.BUBBLE, store.palette()[index], store.x()[index], store.y()[index],
+                store.width()[index], store.height()[index]);
     }
 
     /**
-     * Checks for collision with walls.
+     * Draws a bubble from the store straight into a software frame.
+     *
+     * @param raster The frame to draw into.
+     * @param store The store holding the bubble.
+     * @param index The bubble's row.
+     * @param clip The area to draw within, or {@code null} for the whole
+     * frame.
      */
-    private boolean checkWallCollision() {
-        List<Wall> walls = GameManager.getInstance().getBubblePanel().getWalls();
+    public static void draw(final SpanRasterizer raster, final EntityStore<Bubble> store, final int index,
+            final Rectangle clip) {
+        raster.draw(SpriteCache.Shape.BUBBLE, RandomColour.fromIndex(store.palette()[index]).getRgb(),
+                store.x()[index], store.y()[index], store.width()[index], store.height()[index], clip);
+    }
 
-        for (Wall wall : walls) {
-            if (intersects(wall)) {
-                return true;
+    /**
+     * Advances the bubble by one simulation step.
+     *
+     * @param dt The length of the step in seconds.
+     */
+    @Override
+    public void update(final double dt) {
+        synchronized (world) {
+            if (isActive()) {
+                move(world, index, dt * 1000.0 / App.TICK_SPEED_MS);
             }
         }
-        return false;
+    }
+
+    /**
+     * Bubbles only need updating while they are in flight.
+     *
+     * @return Whether the bubble is still moving.
+     */
+    @Override
+    public boolean isActive() {
+        return isMoving();
     }
 }
@@ -1,211 +1,306 @@
 package com.rikuthin.game_objects;
 
-import java.awt.Color;
-import java.awt.Dimension;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.geom.Rectangle2D;
-import java.util.List;
-import java.util.Objects;
-import java.util.concurrent.ThreadLocalRandom;
 
 import com.rikuthin.App;
-import com.rikuthin.GameManager;
-import com.rikuthin.screen_panels.gameplay_subpanels.BubblePanel;
+import com.rikuthin.rendering.SpanRasterizer;
+import com.rikuthin.rendering.SpriteCache;
+import com.rikuthin.simulation.EntityStore;
+import com.rikuthin.simulation.Updatable;
+import com.rikuthin.simulation.World;
 import com.rikuthin.utility.Bearing2D;
+import com.rikuthin.utility.RandomColour;
 
 /**
- * Represents a wall that moves within a JPanel. The wall moves along a
+ * Represents a wall that moves within a {@link World}. The wall moves along a
  * specified bearing (angle in degrees) at a defined speed (pixels per tick) and
  * bounces off the edges of the panel.
+ * <p>
+ * A Wall is a view of one row of the world's wall store; the wall's state
+ * lives in the store, not in this object. The static methods work on rows
+ * directly and are what the world's tick uses.
+ * </p>
+ * <p>
+ * A wall is identified by its handle, not by where it is: the store hands out
+ * one view per wall, so two views are the same wall only if they are the same
+ * object.
+ * </p>
+ * <p>
+ * A view can outlive its wall. Once the wall is removed, {@link #isMoving()},
+ * {@link #isActive()}, {@link #move()} and {@link #update(double)} treat it
+ * as a wall that has stopped, and every other accessor throws an
+ * {@link IllegalStateException}.
+ * </p>
  */
-public class Wall extends Rectangle2D.Double implements Runnable {
+public class Wall implements Updatable, EntityStore.View {
 
     public static final double WIDTH = 30; // Size of the wall in pixels
     public static final double SIZE = 30; // Size of the wall in pixels
 
-    private final Color colour;  // Colour of the wall
-    private final double speed;        // Movement speed (in pixels per tick)
+    private final World world;  // The world the wall moves in
+    private final long handle;  // Identifies the wall for as long as it is in the world
+    private volatile int index; // Row in the world's wall store, or -1 once removed
 
-    private boolean isMoving;    // Whether the wall should move
-    private Bearing2D bearing;   // Direction of movement (bearing)
+    /**
+     * Constructs a view of a wall. Walls are created with
+     * {@link World#spawnWall}.
+     *
+     * @param world The world the wall moves in.
+     * @param index The wall's row in the world's wall store.
+     * @param handle The wall's handle in the world's wall store.
+     */
+    public Wall(final World world, final int index, final long handle) {
+        if (world == null) {
+            throw new IllegalArgumentException("Walls must belong to a world.");
+        }
+
+        this.world = world;
+        this.index = index;
+        this.handle = handle;
+    }
 
     /**
-     * Constructs a new Bubble.
+     * Returns the wall's handle, which identifies it for as long as it is in
+     * the world, however it moves or its row changes.
      *
-     * @param initialX The initial x-coordinate of the wall.
-     * @param initialY The initial y-coordinate of the wall.
-     * @param SIZE The diameter of the wall.
-     * @param colour The color of the wall.
+     * @return The handle.
      */
-    public Wall(final int initialX, final int initialY, final int width, final int height, final Color colour) {
-        super(initialX, initialY, width, height);
+    public long getHandle() {
+        return handle;
+    }
 
-        if (GameManager.getInstance().getBubblePanel() == null) {
-            throw new NullPointerException("BubblePanel must be instantiated before creating walls.");
+    /**
+     * Returns the wall's row in the world's wall store.
+     *
+     * @return The row, or {@code -1} if the wall has been removed.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public void setIndex(final int index) {
+        this.index = index;
+    }
+
+    public double getX() {
+        synchronized (world) {
+            return world.getWallStore().x()[row()];
         }
+    }
+
+    public double getY() {
+        synchronized (world) {
+            return world.getWallStore().y()[row()];
+        }
+    }
 
-        this.colour = colour;
-        this.isMoving = true;
-        this.speed = ThreadLocalRandom.current().nextInt(9) + 1.0;
+    public double getWidth() {
+        synchronized (world) {
+            return world.getWallStore().width()[row()];
+        }
+    }
 
-        final boolean movesLeft = ThreadLocalRandom.current().nextBoolean();
-        if (movesLeft) {
-            this.bearing = new Bearing2D(0, 0, 100, 0);
-        } else {
-            this.bearing = new Bearing2D(100, 0, 0, 0);
+    public double getHeight() {
+        synchronized (world) {
+            return world.getWallStore().height()[row()];
         }
     }
 
     public boolean isMoving() {
-        return isMoving;
+        synchronized (world) {
+            return index >= 0 && world.getWallStore().isMoving(index);
+        }
+    }
+
+    public RandomColour getColour() {
+        synchronized (world) {
+            return RandomColour.fromIndex(world.getWallStore().palette()[row()]);
+        }
     }
 
     public Bearing2D getBearing() {
-        return bearing;
+        synchronized (world) {
+            final int row = row();
+            final EntityStore<Wall> store = world.getWallStore();
+            return Bearing2D.fromDelta(store.dx()[row], store.dy()[row]);
+        }
     }
 
     public double getSpeed() {
-        return speed;
+        synchronized (world) {
+            final int row = row();
+            final EntityStore<Wall> store = world.getWallStore();
+            return Math.hypot(store.dx()[row], store.dy()[row]);
+        }
     }
 
     public void setIsMoving(final boolean isMoving) {
-        this.isMoving = isMoving;
+        synchronized (world) {
+            final int row = row();
+            world.getWallStore().setMoving(row, isMoving);
+            world.anchorWall(row);
+        }
     }
 
     /**
-     * Moves the wall based on its bearing and speed.
+     * Builds the wall's current bounds as a shape.
      *
-     * The wall bounces off the sides of the panel edges and phases through
-     * other walls
+     * @return A new rectangle matching the wall's bounds.
      */
-    public void move() {
-        BubblePanel bubblePanel = GameManager.getInstance().getBubblePanel();
-        if (!bubblePanel.isVisible()) {
-            return;
-        }
-        final Dimension panelSize = bubblePanel.getSize();
-        final double radians = Math.toRadians(bearing.getDegrees());
-
-        double nextX = x + speed * Math.cos(radians);
-        // Handle X-axis bouncing
-        if (nextX < 0 || nextX + width > panelSize.width) {
-            bearing.setDegrees(180 - bearing.getDegrees());  // Reverse X direction
-            nextX = Math.clamp(nextX, 0, panelSize.width - width);
+    public Rectangle2D getShape() {
+        synchronized (world) {
+            final int row = row();
+            final EntityStore<Wall> store = world.getWallStore();
+            return new Rectangle2D.Double(store.x()[row], store.y()[row],
+                    store.width()[row], store.height()[row]);
         }
-        x = nextX;
-
-        javax.swing.SwingUtilities.invokeLater(bubblePanel::repaint);  // Thread-safe repaint
     }
 
     /**
-     * Draws the wall onto the provided Graphics2D context.
+     * Returns the wall's row for an accessor. Callers must hold the world's
+     * lock.
      *
-     * @param g2 The Graphics2D object used for rendering.
+     * @return The row.
+     * @throws IllegalStateException If the wall has been removed.
      */
-    public void draw(final Graphics2D g2) {
-        g2.setColor(colour);
-        g2.fill(this);
-        g2.setColor(Color.BLACK);
-
-        g2.draw(this);
+    private int row() {
+        final int row = index;
+        if (row < 0) {
+            throw new IllegalStateException("Error: The wall has been removed from its world.");
+        }
+        return row;
     }
 
     /**
-     * Runs the wall's movement logic
+     * Moves the wall one tick based on its velocity.
+     *
+     * The wall bounces off the sides of the panel edges and phases through
+     * other walls
      */
-    @Override
-    public void run() {
-        while (true) {
-            if (isMoving) {
-                if (!GameManager.getInstance().isPaused()) {
-                    move();
-                }
-            }
-
-            try {
-                Thread.sleep(App.TICK_SPEED_MS);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
+    public void move() {
+        synchronized (world) {
+            if (index >= 0) {
+                move(world, index, 1.0);
             }
         }
     }
 
     /**
-     * Checks if this wall is equal to another object. Two walls are considered
-     * equal if they have the same position, size, colour, movement status,
-     * bearing, and speed.
+     * Moves a wall along its velocity one step at a time, rather than along
+     * the path the world's tick works out. Walls only move horizontally.
+     * Callers must hold the world's lock.
      *
-     * @param obj The object to compare with.
-     * @return {@code true} if the walls are equal, otherwise {@code false}.
+     * @param world The world the wall moves in.
+     * @param index The wall's row in the world's wall store.
+     * @param ticks How many ticks' worth of movement to apply.
      */
-    @Override
-    public boolean equals(final Object obj) {
-        if (this == obj) {
-            return true;
-        }
-        if (!(obj instanceof Wall)) {
-            return false;
-        }
-        Wall other = (Wall) obj;
-        return java.lang.Double.compare(x, other.x) == 0
-                && java.lang.Double.compare(y, other.y) == 0
-                && java.lang.Double.compare(width, other.width) == 0
-                && java.lang.Double.compare(height, other.height) == 0
-                && colour.equals(other.colour)
-                && isMoving == other.isMoving
-                && bearing.equals(other.bearing)
-                && java.lang.Double.compare(speed, other.speed) == 0;
+    public static void move(final World world, final int index, final double ticks) {
+        final double oldX = world.getWallStore().x()[index];
+        integrate(world, index, ticks);
+        finishMove(world, index, oldX);
+        world.anchorWall(index, oldX); // So bubbles see the wall move, not jump
     }
 
     /**
-     * Computes the hash code for this wall using its position, colour, movement
-     * status, bearing, and speed.
+     * Advances a wall's row by one step without rebinning it or telling
+     * anyone: the first half of {@link #move(World, int, double)}. Only the
+     * wall's own row is written, so different walls can be integrated on
+     * different threads.
      *
-     * @return The hash code of the wall.
+     * @param world The world the wall moves in.
+     * @param index The wall's row in the world's wall store.
+     * @param ticks How many ticks' worth of movement to apply.
      */
-    @Override
-    public int hashCode() {
-        return Objects.hash(x, y, width, height, colour, isMoving, bearing, speed);
+    public static void integrate(final World world, final int index, final double ticks) {
+        final EntityStore<Wall> store = world.getWallStore();
+        final double[] xs = store.x();
+        final double[] dxs = store.dx();
+        final double width = store.width()[index];
+
+        double nextX = xs[index] + dxs[index] * ticks;
+        // Handle X-axis bouncing
+        if (nextX < 0 || nextX + width > world.getWidth()) {
+            dxs[index] = -dxs[index];  // Reverse X direction
+            nextX = Math.clamp(nextX, 0, world.getWidth() - width);
+        }
+        xs[index] = nextX;
     }
 
     /**
-     * Checks if moving into a new (x, y) poisiton would collide with another
-     * wall
-     *
-     * @param nextX the next x position (given the movement is successful)
-     * @param nextY the next y position (given the movement is successful)
+     * Rebins a wall that has been integrated and tells the world's listener
+     * it moved: the second half of {@link #move(World, int, double)}. Callers
+     * must hold the world's lock.
      *
-     * @return Whether the walls collide or not
+     * @param world The world the wall moves in.
+     * @param index The wall's row in the world's wall store.
+     * @param oldX The wall's x-coordinate before it was integrated.
      */
-    private boolean checkCollision(final double nextX, final double nextY) {
-        List<Wall> walls = GameManager.getInstance().getBubblePanel().getWalls(); // Retrieve existing walls
+    public static void finishMove(final World world, final int index, final double oldX) {
+        final EntityStore<Wall> store = world.getWallStore();
+        final double x = store.x()[index];
+        final double y = store.y()[index];
+        final double width = store.width()[index];
+        final double height = store.height()[index];
 
-        if (walls.isEmpty()) {
-            return false; // No walls to check
-        }
-
-        final double thisRadius = width / 2.0;
-        final double thisCentreX = nextX + thisRadius;
-        final double thisCentreY = nextY + thisRadius;
+        // Only rebins when the wall crosses a cell edge
+        world.getWallGrid().move(index, x, y, width, height);
 
-        for (Wall other : walls) {
-            if (other.equals(this)) {
-                continue; // Skip self-comparison
-            }
+        world.getListener().onEntityMoved(oldX, y, x, y, width, height);
+    }
 
-            final double otherRadius = other.width / 2.0;
-            final double otherCentreX = other.getCenterX();
-            final double otherCentreY = other.getCenterY();
+    /**
+     * Draws a wall from the store using its cached sprite.
+     *
+     * @param g2 The Graphics2D object used for rendering.
+     * @param store The store holding the wall.
+     * @param index The wall's row.
+     * @param sprites The cache holding the wall's sprite.
+     */
+    public static void draw(final Graphics2D g2, final EntityStore<Wall> store, final int index,
+            final SpriteCache sprites) {
+        sprites.draw(g2, SpriteCache.Shape.WALL, store.palette()[index], store.x()[index], store.y()[index],
+                store.width()[index], store.height()[index]);
+    }
 
-            final double distanceSquared = Math.pow(thisCentreX - otherCentreX, 2) + Math.pow(thisCentreY - otherCentreY, 2);
-            final double radiusSumSquared = Math.pow(thisRadius + otherRadius, 2);
+    /**
+     * Draws a wall from the store straight into a software frame.
+     *
+     * @param raster The frame to draw into.
+     * @param store The store holding the wall.
+     * @param index The wall's row.
+     * @param clip The area to draw within, or {@code null} for the whole
+     * frame.
+     */
+    public static void draw(final SpanRasterizer raster, final EntityStore<Wall> store, final int index,
+            final Rectangle clip) {
+        raster.draw(SpriteCache.Shape.WALL, RandomColour.fromIndex(store.palette()[index]).getRgb(),
+                store.x()[index], store.y()[index], store.width()[index], store.height()[index], clip);
+    }
 
-            if (distanceSquared <= radiusSumSquared) {
-                return true; // Collision detected
+    /**
+     * Advances the wall by one simulation step.
+     *
+     * @param dt The length of the step in seconds.
+     */
+    @Override
+    public void update(final double dt) {
+        synchronized (world) {
+            if (index >= 0 && world.getWallStore().isMoving(index)) {
+                move(world, index, dt * 1000.0 / App.TICK_SPEED_MS);
             }
         }
+    }
 
-        return false; // No collision
+    /**
+     * Walls stay active for as long as they are in the world.
+     *
+     * @return Whether the wall is still in the world.
+     */
+    @Override
+    public boolean isActive() {
+        return index >= 0;
     }
 }
@@ -0,0 +1,210 @@
+package com.rikuthin.rendering;
+
+import java.awt.Canvas;
+import java.awt.Graphics2D;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Draws frames into a {@link Canvas} from a dedicated render thread.
+ * <p>
+ * Each frame is drawn in full into the back buffer of the canvas's
+ * {@link BufferStrategy} and shown with a page flip (or a blit, where
+ * flipping isn't available), then the display is flushed with
+ * {@link Toolkit#sync()}. Frames are started on a fixed schedule at the
+ * target rate, independent of the Event Dispatch Thread (EDT); if a frame
+ * overruns, the schedule restarts from now rather than rushing to catch up.
+ * </p>
+ * <p>
+ * Damage reports are accepted but not needed, since every frame is drawn in
+ * full.
+ * </p>
+ */
+public class ActiveRenderer implements FrameRenderer, Runnable {
+
+    /**
+     * Draws a whole frame.
+     */
+    @FunctionalInterface
+    public interface Scene {
+
+        /**
+         * Draws the frame, including its background. Called on the render
+         * thread.
+         *
+         * @param g2 The graphics of the back buffer.
+         * @param width The width of the canvas.
+         * @param height The height of the canvas.
+         */
+        void render(Graphics2D g2, int width, int height);
+    }
+
+    private static final int BUFFERS = 2;
+
+    private final Canvas canvas;
+    private final Scene scene;
+    private final long frameNanos;
+    private final FrameTimeHistogram frameIntervals;
+    private final FrameTimeHistogram renderTimes;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * Constructs a new ActiveRenderer.
+     *
+     * @param canvas The canvas to draw into. It should ignore repaints, since
+     * the render thread redraws it every frame anyway.
+     * @param scene Draws each frame.
+     * @param targetFps The number of frames per second to draw.
+     */
+    public ActiveRenderer(final Canvas canvas, final Scene scene, final int targetFps) {
+        if (canvas == null || scene == null) {
+            throw new IllegalArgumentException("ActiveRenderer needs a canvas and a scene to draw.");
+        }
+        if (targetFps <= 0) {
+            throw new IllegalArgumentException("Target frame rate must be positive.");
+        }
+
+        this.canvas = canvas;
+        this.scene = scene;
+        this.frameNanos = TimeUnit.SECONDS.toNanos(1) / targetFps;
+        this.frameIntervals = new FrameTimeHistogram();
+        this.renderTimes = new FrameTimeHistogram();
+        this.running = false;
+    }
+
+    @Override
+    public void markDirty() {
+        // Every frame is drawn in full
+    }
+
+    @Override
+    public void markDirty(final double x, final double y, final double width, final double height) {
+        // Every frame is drawn in full
+    }
+
+    /**
+     * Starts the render thread.
+     */
+    @Override
+    public synchronized void start() {
+        if (running) {
+            throw new IllegalStateException("Error: Active renderer is already running.");
+        }
+        running = true;
+        thread = new Thread(this, "active-renderer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the render thread and waits for it to finish.
+     */
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public FrameTimeHistogram getFrameIntervals() {
+        return frameIntervals;
+    }
+
+    @Override
+    public FrameTimeHistogram getRenderTimes() {
+        return renderTimes;
+    }
+
+    @Override
+    public String describeStats() {
+        return String.format("active frames=%d interval %s render %s", renderTimes.getCount(), frameIntervals,
+                renderTimes);
+    }
+
+    @Override
+    public void resetStats() {
+        frameIntervals.reset();
+        renderTimes.reset();
+    }
+
+    /**
+     * Draws frames at the target rate until {@link #stop()} is called.
+     */
+    @Override
+    public void run() {
+        BufferStrategy strategy = null;
+        long lastFrameStart = 0;
+        long nextFrame = System.nanoTime();
+
+        try {
+            while (running) {
+                final long start = System.nanoTime();
+                if (lastFrameStart != 0) {
+                    frameIntervals.record(start - lastFrameStart);
+                }
+                lastFrameStart = start;
+
+                // The canvas can only be given buffers once it is on screen
+                if (strategy == null && canvas.isDisplayable() && canvas.getWidth() > 0) {
+                    canvas.createBufferStrategy(BUFFERS);
+                    strategy = canvas.getBufferStrategy();
+                }
+                if (strategy != null) {
+                    drawFrame(strategy);
+                    renderTimes.record(System.nanoTime() - start);
+                }
+
+                nextFrame += frameNanos;
+                final long sleepNanos = nextFrame - System.nanoTime();
+                if (sleepNanos > 0) {
+                    Thread.sleep(sleepNanos / 1_000_000, (int) (sleepNanos % 1_000_000));
+                } else {
+                    nextFrame = System.nanoTime(); // Overran, so don't try to catch up
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (strategy != null) {
+                strategy.dispose();
+            }
+        }
+    }
+
+    /**
+     * Draws one frame and shows it, redrawing if the buffers' contents are
+     * lost along the way.
+     *
+     * @param strategy The canvas's buffer strategy.
+     */
+    private void drawFrame(final BufferStrategy strategy) {
+        do {
+            do {
+                final Graphics2D g2 = (Graphics2D) strategy.getDrawGraphics();
+                try {
+                    scene.render(g2, canvas.getWidth(), canvas.getHeight());
+                } finally {
+                    g2.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+    }
+}
@@ -0,0 +1,134 @@
+package com.rikuthin.rendering;
+
+/**
+ * Collects the screen regions that have changed since the last frame.
+ * <p>
+ * Regions are kept as a short list of rectangles. A new region that overlaps
+ * one already in the list is merged into it; once the list is full every
+ * region is merged into one, so a frame never paints more than
+ * {@link #MAX_REGIONS} areas. Regions are stored in plain arrays, so adding
+ * damage allocates nothing.
+ * </p>
+ * <p>
+ * Safe to add to from any thread; draining is meant for the thread that
+ * paints.
+ * </p>
+ */
+public class DamageTracker {
+
+    /**
+     * The most separate regions kept before they are merged into one.
+     */
+    public static final int MAX_REGIONS = 16;
+
+    /**
+     * Returned by {@link #drain(int[])} when the whole area must be
+     * repainted.
+     */
+    public static final int FULL = -1;
+
+    /**
+     * Extra pixels around each region, covering the outline drawn around
+     * entities.
+     */
+    private static final int MARGIN = 1;
+
+    // Each region is {minX, minY, maxX, maxY}, with exclusive maxima
+    private final int[] regions = new int[MAX_REGIONS * 4];
+    private int regionCount;
+    private boolean full;
+
+    /**
+     * Marks a region as damaged.
+     *
+     * @param x The x-coordinate of the region.
+     * @param y The y-coordinate of the region.
+     * @param width The width of the region.
+     * @param height The height of the region.
+     */
+    public synchronized void add(final double x, final double y, final double width, final double height) {
+        if (full) {
+            return;
+        }
+
+        final int minX = (int) Math.floor(x) - MARGIN;
+        final int minY = (int) Math.floor(y) - MARGIN;
+        final int maxX = (int) Math.ceil(x + width) + MARGIN + 1;
+        final int maxY = (int) Math.ceil(y + height) + MARGIN + 1;
+
+        // Grow an overlapping region rather than adding a new one
+        for (int i = 0; i < regionCount * 4; i += 4) {
+            if (minX <= regions[i + 2] && maxX >= regions[i]
+                    && minY <= regions[i + 3] && maxY >= regions[i + 1]) {
+                union(i, minX, minY, maxX, maxY);
+                return;
+            }
+        }
+
+        if (regionCount == MAX_REGIONS) {
+            // Too many to track separately; fold them all into the first
+            for (int i = 4; i < regionCount * 4; i += 4) {
+                union(0, regions[i], regions[i + 1], regions[i + 2], regions[i + 3]);
+            }
+            regionCount = 1;
+            union(0, minX, minY, maxX, maxY);
+            return;
+        }
+
+        final int i = regionCount * 4;
+        regions[i] = minX;
+        regions[i + 1] = minY;
+        regions[i + 2] = maxX;
+        regions[i + 3] = maxY;
+        regionCount++;
+    }
+
+    /**
+     * Marks the whole area as damaged.
+     */
+    public synchronized void addAll() {
+        full = true;
+        regionCount = 0;
+    }
+
+    /**
+     * Returns whether anything has been damaged since the last drain.
+     *
+     * @return {@code true} if nothing needs repainting.
+     */
+    public synchronized boolean isEmpty() {
+        return !full && regionCount == 0;
+    }
+
+    /**
+     * Copies out the damaged regions and clears them.
+     *
+     * @param out Receives each region as {x, y, width, height}; must hold at
+     * least {@code MAX_REGIONS * 4} values.
+     * @return The number of regions copied, or {@link #FULL} if the whole area
+     * must be repainted.
+     */
+    public synchronized int drain(final int[] out) {
+        if (full) {
+            full = false;
+            return FULL;
+        }
+
+        final int count = regionCount;
+        for (int i = 0; i < count * 4; i += 4) {
+            out[i] = regions[i];
+            out[i + 1] = regions[i + 1];
+            out[i + 2] = regions[i + 2] - regions[i];
+            out[i + 3] = regions[i + 3] - regions[i + 1];
+        }
+        regionCount = 0;
+        return count;
+    }
+
+    private void union(final int i, final int minX, final int minY, final int maxX, final int maxY) {
+        regions[i] = Math.min(regions[i], minX);
+        regions[i + 1] = Math.min(regions[i + 1], minY);
+        regions[i + 2] = Math.max(regions[i + 2], maxX);
+        regions[i + 3] = Math.max(regions[i + 3], maxY);
+    }
+}
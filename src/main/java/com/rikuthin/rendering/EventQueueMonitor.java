@@ -0,0 +1,95 @@
+package com.rikuthin.rendering;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.awt.event.InvocationEvent;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An event queue that counts what passes through the Event Dispatch Thread
+ * (EDT), so a flood of posted tasks shows up as a number rather than as lag.
+ * <p>
+ * Only {@link InvocationEvent}s (from {@code invokeLater} and friends) count
+ * towards the queue depth, since Swing coalesces paint and mouse events and
+ * those would never balance out. Install it once with {@link #install()}.
+ * </p>
+ */
+public final class EventQueueMonitor extends EventQueue {
+
+    private static EventQueueMonitor instance;
+
+    private final AtomicInteger pendingInvocations = new AtomicInteger();
+    private final AtomicInteger maxPendingInvocations = new AtomicInteger();
+    private final AtomicLong dispatchedEvents = new AtomicLong();
+
+    private EventQueueMonitor() {
+    }
+
+    /**
+     * Pushes a monitor onto the system event queue, if one hasn't been pushed
+     * already.
+     *
+     * @return The installed monitor.
+     */
+    public static synchronized EventQueueMonitor install() {
+        if (instance == null) {
+            instance = new EventQueueMonitor();
+            Toolkit.getDefaultToolkit().getSystemEventQueue().push(instance);
+        }
+        return instance;
+    }
+
+    @Override
+    public void postEvent(final AWTEvent event) {
+        if (event instanceof InvocationEvent) {
+            maxPendingInvocations.accumulateAndGet(pendingInvocations.incrementAndGet(), Math::max);
+        }
+        super.postEvent(event);
+    }
+
+    @Override
+    protected void dispatchEvent(final AWTEvent event) {
+        if (event instanceof InvocationEvent) {
+            pendingInvocations.decrementAndGet();
+        }
+        dispatchedEvents.incrementAndGet();
+        super.dispatchEvent(event);
+    }
+
+    /**
+     * Returns the number of posted tasks waiting for the EDT.
+     *
+     * @return The current queue depth.
+     */
+    public int getQueueDepth() {
+        // Tasks already queued when the monitor was pushed were never counted
+        return Math.max(0, pendingInvocations.get());
+    }
+
+    /**
+     * Returns the deepest the task queue has been since the last reset.
+     *
+     * @return The maximum queue depth.
+     */
+    public int getMaxQueueDepth() {
+        return maxPendingInvocations.get();
+    }
+
+    /**
+     * Returns the number of events of any kind dispatched so far.
+     *
+     * @return The dispatched event count.
+     */
+    public long getDispatchedEvents() {
+        return dispatchedEvents.get();
+    }
+
+    /**
+     * Starts a new measuring window for the maximum queue depth.
+     */
+    public void resetMaxQueueDepth() {
+        maxPendingInvocations.set(getQueueDepth());
+    }
+}
@@ -0,0 +1,250 @@
+package com.rikuthin.rendering;
+
+import java.awt.Toolkit;
+import java.awt.event.ActionEvent;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JComponent;
+import javax.swing.Timer;
+
+/**
+ * Repaints a component at most once per display frame.
+ * <p>
+ * Simulation threads report what changed with {@link #markDirty(double,
+ * double, double, double)} instead of posting a repaint for every change,
+ * which only records the damaged region. A Swing timer running at the target
+ * frame rate paints just the damaged regions on the Event Dispatch Thread
+ * (EDT), then flushes the display with {@link Toolkit#sync()}. However many
+ * entities move, the EDT sees one timer event per frame, and unchanged parts
+ * of the component are left alone.
+ * </p>
+ * <p>
+ * Frame times and how late each frame starts are recorded, so the cost of
+ * painting and any backlog on the EDT can be read with {@link #getStats()},
+ * and as percentiles with {@link #getFrameIntervals()} and
+ * {@link #getRenderTimes()}.
+ * </p>
+ */
+public class FramePacer implements FrameRenderer {
+
+    /**
+     * The frame rate used when none is configured.
+     */
+    public static final int DEFAULT_TARGET_FPS = 60;
+
+    private final JComponent target;
+    private final Runnable beforeFrame;
+    private final Timer timer;
+    private final long frameNanos;
+    private final DamageTracker damage;
+    private final int[] regions; // Scratch space for draining the damage
+    private final FrameTimeHistogram frameIntervals;
+    private final FrameTimeHistogram renderTimes;
+
+    // Only touched on the EDT
+    private long lastFrameStart;
+    private long frames;
+    private long skippedFrames;
+    private long paintedPixels;
+    private long totalPaintNanos;
+    private long maxPaintNanos;
+    private long totalLatenessNanos;
+    private long maxLatenessNanos;
+
+    /**
+     * A snapshot of the pacer's measurements.
+     *
+     * @param frames The number of frames painted.
+     * @param skippedFrames The number of frames skipped because nothing had
+     * changed.
+     * @param meanPaintedPixels The mean area repainted per painted frame.
+     * @param meanPaintMillis The mean time spent painting a frame.
+     * @param maxPaintMillis The longest time spent painting a frame.
+     * @param meanLatenessMillis The mean delay between when a frame was due
+     * and when the EDT got to it.
+     * @param maxLatenessMillis The longest such delay.
+     */
+    public record Stats(long frames, long skippedFrames, double meanPaintedPixels, double meanPaintMillis,
+            double maxPaintMillis, double meanLatenessMillis, double maxLatenessMillis) {
+
+        @Override
+        public String toString() {
+            return String.format("frames=%d skipped=%d pixels=%.0f paint=%.2f/%.2fms late=%.2f/%.2fms (mean/max)",
+                    frames, skippedFrames, meanPaintedPixels, meanPaintMillis, maxPaintMillis,
+                    meanLatenessMillis, maxLatenessMillis);
+        }
+    }
+
+    /**
+     * Constructs a new FramePacer. The whole component starts out damaged, so
+     * the first frame is always painted in full.
+     *
+     * @param target The component to repaint.
+     * @param targetFps The maximum number of frames per second.
+     */
+    public FramePacer(final JComponent target, final int targetFps) {
+        this(target, targetFps, null);
+    }
+
+    /**
+     * Constructs a new FramePacer that runs an action at the start of every
+     * frame, before the damage is collected. Lets a model that works out its
+     * state lazily report what changed in time for the frame.
+     *
+     * @param target The component to repaint.
+     * @param targetFps The maximum number of frames per second.
+     * @param beforeFrame Run on the EDT at the start of every frame, or
+     * {@code null}.
+     */
+    public FramePacer(final JComponent target, final int targetFps, final Runnable beforeFrame) {
+        if (target == null) {
+            throw new IllegalArgumentException("FramePacer needs a component to repaint.");
+        }
+        if (targetFps <= 0) {
+            throw new IllegalArgumentException("Target frame rate must be positive.");
+        }
+
+        this.target = target;
+        this.beforeFrame = beforeFrame;
+        this.frameNanos = TimeUnit.SECONDS.toNanos(1) / targetFps;
+        this.damage = new DamageTracker();
+        this.damage.addAll();
+        this.regions = new int[DamageTracker.MAX_REGIONS * 4];
+        this.frameIntervals = new FrameTimeHistogram();
+        this.renderTimes = new FrameTimeHistogram();
+        this.timer = new Timer(Math.max(1, 1000 / targetFps), this::onFrame);
+        this.timer.setCoalesce(true); // Drop frames rather than queue them up
+    }
+
+    /**
+     * Notes that the whole component needs repainting. Safe to call from any
+     * thread; it never touches the EDT.
+     */
+    @Override
+    public void markDirty() {
+        damage.addAll();
+    }
+
+    /**
+     * Notes that part of the component needs repainting. Safe to call from
+     * any thread, as often as needed; it never touches the EDT.
+     *
+     * @param x The x-coordinate of the changed region.
+     * @param y The y-coordinate of the changed region.
+     * @param width The width of the changed region.
+     * @param height The height of the changed region.
+     */
+    @Override
+    public void markDirty(final double x, final double y, final double width, final double height) {
+        damage.add(x, y, width, height);
+    }
+
+    /**
+     * Starts painting frames.
+     */
+    @Override
+    public void start() {
+        lastFrameStart = 0;
+        timer.start();
+    }
+
+    /**
+     * Stops painting frames.
+     */
+    @Override
+    public void stop() {
+        timer.stop();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return timer.isRunning();
+    }
+
+    /**
+     * Returns the pacer's measurements so far. Call on the EDT.
+     *
+     * @return A snapshot of the measurements.
+     */
+    public Stats getStats() {
+        final double paintedFrames = Math.max(1, frames);
+        final double timedFrames = Math.max(1, frames + skippedFrames - 1);
+        return new Stats(frames, skippedFrames, paintedPixels / paintedFrames,
+                totalPaintNanos / paintedFrames / 1e6, maxPaintNanos / 1e6,
+                totalLatenessNanos / timedFrames / 1e6, maxLatenessNanos / 1e6);
+    }
+
+    @Override
+    public FrameTimeHistogram getFrameIntervals() {
+        return frameIntervals;
+    }
+
+    @Override
+    public FrameTimeHistogram getRenderTimes() {
+        return renderTimes;
+    }
+
+    @Override
+    public String describeStats() {
+        return String.format("passive %s interval %s render %s", getStats(), frameIntervals, renderTimes);
+    }
+
+    /**
+     * Clears the measurements. Call on the EDT.
+     */
+    @Override
+    public void resetStats() {
+        frameIntervals.reset();
+        renderTimes.reset();
+        frames = 0;
+        skippedFrames = 0;
+        paintedPixels = 0;
+        totalPaintNanos = 0;
+        maxPaintNanos = 0;
+        totalLatenessNanos = 0;
+        maxLatenessNanos = 0;
+    }
+
+    /**
+     * Paints whatever has changed since the last frame. Runs on the EDT.
+     *
+     * @param e The timer's action event.
+     */
+    private void onFrame(final ActionEvent e) {
+        final long start = System.nanoTime();
+        if (lastFrameStart != 0) {
+            frameIntervals.record(start - lastFrameStart);
+            final long lateness = Math.max(0, start - lastFrameStart - frameNanos);
+            totalLatenessNanos += lateness;
+            maxLatenessNanos = Math.max(maxLatenessNanos, lateness);
+        }
+        lastFrameStart = start;
+
+        if (beforeFrame != null) {
+            beforeFrame.run();
+        }
+        final int regionCount = damage.drain(regions);
+        if (regionCount == 0) {
+            skippedFrames++;
+            return;
+        }
+
+        if (regionCount == DamageTracker.FULL) {
+            target.paintImmediately(0, 0, target.getWidth(), target.getHeight());
+            paintedPixels += (long) target.getWidth() * target.getHeight();
+        } else {
+            for (int i = 0; i < regionCount * 4; i += 4) {
+                // Swing clips each call to the region, and to the component
+                target.paintImmediately(regions[i], regions[i + 1], regions[i + 2], regions[i + 3]);
+                paintedPixels += (long) regions[i + 2] * regions[i + 3];
+            }
+        }
+        Toolkit.getDefaultToolkit().sync();
+
+        final long paintNanos = System.nanoTime() - start;
+        frames++;
+        totalPaintNanos += paintNanos;
+        renderTimes.record(paintNanos);
+        maxPaintNanos = Math.max(maxPaintNanos, paintNanos);
+    }
+}
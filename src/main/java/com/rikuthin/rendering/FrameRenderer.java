@@ -0,0 +1,69 @@
+package com.rikuthin.rendering;
+
+/**
+ * Decides when a game's frames are drawn.
+ * <p>
+ * Simulation threads report changes with the {@code markDirty} methods; the
+ * renderer draws at its own pace. Each renderer records how far apart its
+ * frames start and how long each takes to draw, so rendering modes can be
+ * compared on the same terms.
+ * </p>
+ */
+public interface FrameRenderer {
+
+    /**
+     * Notes that everything needs redrawing. Safe to call from any thread.
+     */
+    void markDirty();
+
+    /**
+     * Notes that part of the scene needs redrawing. Safe to call from any
+     * thread, as often as needed.
+     *
+     * @param x The x-coordinate of the changed region.
+     * @param y The y-coordinate of the changed region.
+     * @param width The width of the changed region.
+     * @param height The height of the changed region.
+     */
+    void markDirty(double x, double y, double width, double height);
+
+    /**
+     * Starts drawing frames. Call on the Event Dispatch Thread (EDT).
+     */
+    void start();
+
+    /**
+     * Stops drawing frames and waits for any frame in progress. Call on the
+     * EDT.
+     */
+    void stop();
+
+    boolean isRunning();
+
+    /**
+     * Returns the times between the starts of consecutive frames.
+     *
+     * @return The frame interval histogram.
+     */
+    FrameTimeHistogram getFrameIntervals();
+
+    /**
+     * Returns the times spent drawing each frame.
+     *
+     * @return The render time histogram.
+     */
+    FrameTimeHistogram getRenderTimes();
+
+    /**
+     * Describes the measurements since the last reset on one line, for
+     * logging. Call on the EDT.
+     *
+     * @return The summary.
+     */
+    String describeStats();
+
+    /**
+     * Clears the measurements. Call on the EDT.
+     */
+    void resetStats();
+}
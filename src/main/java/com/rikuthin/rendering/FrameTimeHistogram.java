@@ -0,0 +1,112 @@
+package com.rikuthin.rendering;
+
+import java.util.Arrays;
+
+/**
+ * Records frame times into fixed-width buckets, so percentiles can be read
+ * without keeping every sample.
+ * <p>
+ * Buckets are {@value #BUCKET_MICROS} microseconds wide; anything longer than
+ * {@link #RANGE_MILLIS} milliseconds lands in the last bucket. Recording
+ * allocates nothing. Safe to record on one thread and read on another.
+ * </p>
+ */
+public class FrameTimeHistogram {
+
+    /**
+     * The width of each bucket.
+     */
+    public static final int BUCKET_MICROS = 50;
+
+    /**
+     * The longest time with its own bucket.
+     */
+    public static final int RANGE_MILLIS = 100;
+
+    private static final long BUCKET_NANOS = BUCKET_MICROS * 1_000L;
+    private static final int BUCKETS = RANGE_MILLIS * 1_000 / BUCKET_MICROS + 1;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+
+    /**
+     * Adds one frame time.
+     *
+     * @param nanos The frame time in nanoseconds.
+     */
+    public synchronized void record(final long nanos) {
+        final long clamped = Math.max(0, nanos);
+        counts[(int) Math.min(BUCKETS - 1, clamped / BUCKET_NANOS)]++;
+        count++;
+        totalNanos += clamped;
+        maxNanos = Math.max(maxNanos, clamped);
+    }
+
+    /**
+     * Returns the number of frame times recorded.
+     *
+     * @return The sample count.
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the time below which the given share of frames fell, to the
+     * nearest bucket.
+     *
+     * @param percentile The percentile, from 0 to 100.
+     * @return The frame time in milliseconds, or 0 if nothing was recorded.
+     */
+    public synchronized double getPercentileMillis(final double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS - 1; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                // The bucket's upper edge, but never more than the longest frame
+                return Math.min((i + 1) * BUCKET_NANOS, maxNanos) / 1e6;
+            }
+        }
+        return maxNanos / 1e6;
+    }
+
+    /**
+     * Returns the mean frame time.
+     *
+     * @return The mean in milliseconds, or 0 if nothing was recorded.
+     */
+    public synchronized double getMeanMillis() {
+        return count == 0 ? 0 : totalNanos / (double) count / 1e6;
+    }
+
+    /**
+     * Returns the longest frame time.
+     *
+     * @return The maximum in milliseconds.
+     */
+    public synchronized double getMaxMillis() {
+        return maxNanos / 1e6;
+    }
+
+    /**
+     * Clears every recorded frame time.
+     */
+    public synchronized void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("p50=%.2f p95=%.2f p99=%.2f max=%.2fms", getPercentileMillis(50),
+                getPercentileMillis(95), getPercentileMillis(99), getMaxMillis());
+    }
+}
@@ -0,0 +1,38 @@
+package com.rikuthin.rendering;
+
+import java.util.Locale;
+
+/**
+ * The ways walls and bubbles can be turned into pixels.
+ */
+public enum RenderBackend {
+    /**
+     * Each entity is a pre-rendered image from a {@link SpriteCache}, copied
+     * into place through {@code Graphics2D}.
+     */
+    SPRITES,
+    /**
+     * Entities are written straight into an RGB frame by a
+     * {@link SpanRasterizer}, which is then drawn with a single image copy.
+     */
+    SOFTWARE;
+
+    /**
+     * Parses a render backend name, ignoring case.
+     *
+     * @param name The backend name, e.g. {@code "software"}.
+     * @param fallback The backend to use if the name is missing or unknown.
+     * @return The matching backend, or the fallback.
+     */
+    public static RenderBackend parse(final String name, final RenderBackend fallback) {
+        if (name == null || name.isBlank()) {
+            return fallback;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Warning: Unknown render backend '" + name + "'. Using " + fallback + ".");
+            return fallback;
+        }
+    }
+}
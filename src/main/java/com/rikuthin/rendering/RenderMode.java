@@ -0,0 +1,38 @@
+package com.rikuthin.rendering;
+
+import java.util.Locale;
+
+/**
+ * The ways the game area can be drawn.
+ */
+public enum RenderMode {
+    /**
+     * Swing paints the panel on the Event Dispatch Thread (EDT), repainting
+     * damaged regions through a {@link FramePacer}.
+     */
+    PASSIVE,
+    /**
+     * A render thread draws whole frames into a canvas's buffer strategy and
+     * flips them at the target rate, with an {@link ActiveRenderer}.
+     */
+    ACTIVE;
+
+    /**
+     * Parses a render mode name, ignoring case.
+     *
+     * @param name The mode name, e.g. {@code "active"}.
+     * @param fallback The mode to use if the name is missing or unknown.
+     * @return The matching mode, or the fallback.
+     */
+    public static RenderMode parse(final String name, final RenderMode fallback) {
+        if (name == null || name.isBlank()) {
+            return fallback;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Warning: Unknown render mode '" + name + "'. Using " + fallback + ".");
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.rikuthin.rendering;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Draws entities straight into the pixels of an RGB image, one horizontal
+ * run of pixels at a time.
+ * <p>
+ * Each shape and size is broken into spans once: the rows it covers, and on
+ * each row the runs that are outline and the runs that are fill. The spans
+ * are taken from the same {@link SpriteCache.Shape} painting the sprite cache
+ * uses, so both backends produce the same pixels. Drawing an entity after
+ * that is a handful of {@link Arrays#fill(int[], int, int, int)} calls, with
+ * no shapes, paints or composites involved, and the finished frame is copied
+ * to the screen with a single image draw.
+ * </p>
+ * <p>
+ * Span tables are kept in least-recently-used order, like sprites, and the
+ * oldest is dropped once there are more than {@link SpriteCache#MAX_SPRITES}.
+ * Not thread-safe; use one rasterizer per drawing thread.
+ * </p>
+ */
+public class SpanRasterizer {
+
+    /**
+     * Extra pixels around each shape, matching the sprite cache's padding.
+     */
+    private static final int PADDING = 1;
+
+    private static final int OUTLINE_RGB = 0x000000;
+    private static final int KIND_OUTLINE = 0;
+    private static final int KIND_FILL = 1;
+
+    // Marks fill pixels while spans are being read back
+    private static final Color FILL_MARKER = Color.WHITE;
+
+    /**
+     * The runs making up one shape at one size. Row {@code r} owns the runs
+     * from {@code rowStarts[r]} up to {@code rowStarts[r + 1]}, each stored as
+     * {@code {startX, endX, kind}} with an exclusive end.
+     */
+    private static final class Spans {
+
+        private final int[] rowStarts;
+        private final int[] runs;
+
+        private Spans(final int[] rowStarts, final int[] runs) {
+            this.rowStarts = rowStarts;
+            this.runs = runs;
+        }
+    }
+
+    private final Map<Long, Spans> spans = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Long, Spans> eldest) {
+            return size() > SpriteCache.MAX_SPRITES;
+        }
+    };
+    private long lastKey = -1; // Most entities share a size, so skip the map for repeats
+    private Spans lastSpans;
+    private BufferedImage image;
+    private int[] pixels;
+    private int width;
+    private int height;
+
+    /**
+     * Constructs a new SpanRasterizer with a frame of the given size.
+     *
+     * @param width The width of the frame.
+     * @param height The height of the frame.
+     */
+    public SpanRasterizer(final int width, final int height) {
+        resize(width, height);
+    }
+
+    /**
+     * Resizes the frame, if it isn't that size already. The frame's contents
+     * are undefined after a resize.
+     *
+     * @param width The new width.
+     * @param height The new height.
+     */
+    public final void resize(final int width, final int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Frame size must be positive.");
+        }
+        if (image != null && width == this.width && height == this.height) {
+            return;
+        }
+        this.width = width;
+        this.height = height;
+        image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+
+    /**
+     * Returns the image holding the frame, ready to be drawn to the screen.
+     *
+     * @return The frame's image.
+     */
+    public BufferedImage getImage() {
+        return image;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Fills an area of the frame with a solid colour.
+     *
+     * @param rgb The packed RGB colour.
+     * @param clip The area to fill, or {@code null} for the whole frame.
+     */
+    public void fill(final int rgb, final Rectangle clip) {
+        final int minX = clipMinX(clip);
+        final int maxX = clipMaxX(clip);
+        final int maxY = clipMaxY(clip);
+        for (int y = clipMinY(clip); y < maxY; y++) {
+            final int row = y * width;
+            Arrays.fill(pixels, row + minX, Math.max(row + minX, row + maxX), rgb);
+        }
+    }
+
+    /**
+     * Draws a shape with its outline, placed and sized the way the sprite
+     * cache would draw it.
+     *
+     * @param shape The shape to draw.
+     * @param rgb The packed RGB fill colour.
+     * @param x The x-coordinate of the shape's top-left corner.
+     * @param y The y-coordinate of the shape's top-left corner.
+     * @param width The width of the shape.
+     * @param height The height of the shape.
+     * @param clip The area to draw within, or {@code null} for the whole
+     * frame.
+     */
+    public void draw(final SpriteCache.Shape shape, final int rgb, final double x, final double y,
+            final double width, final double height, final Rectangle clip) {
+        final int w = Math.max(1, (int) Math.round(width));
+        final int h = Math.max(1, (int) Math.round(height));
+        final Spans shapeSpans = spansFor(shape, w, h);
+
+        final int originX = (int) Math.round(x) - PADDING;
+        final int originY = (int) Math.round(y) - PADDING;
+        final int minX = clipMinX(clip);
+        final int maxX = clipMaxX(clip);
+        final int firstRow = Math.max(0, clipMinY(clip) - originY);
+        final int endRow = Math.min(shapeSpans.rowStarts.length - 1, clipMaxY(clip) - originY);
+
+        final int[] runs = shapeSpans.runs;
+        for (int r = firstRow; r < endRow; r++) {
+            final int row = (originY + r) * this.width;
+            for (int i = shapeSpans.rowStarts[r]; i < shapeSpans.rowStarts[r + 1]; i += 3) {
+                final int start = Math.max(minX, originX + runs[i]);
+                final int end = Math.min(maxX, originX + runs[i + 1]);
+                if (start < end) {
+                    Arrays.fill(pixels, row + start, row + end, runs[i + 2] == KIND_FILL ? rgb : OUTLINE_RGB);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the spans for a shape and size, working them out the first
+     * time.
+     */
+    private Spans spansFor(final SpriteCache.Shape shape, final int w, final int h) {
+        final long key = ((long) shape.ordinal() << 32) | ((long) (w & 0xFFFF) << 16) | (h & 0xFFFF);
+        if (key == lastKey) {
+            return lastSpans;
+        }
+        Spans shapeSpans = spans.get(key);
+        if (shapeSpans == null) {
+            shapeSpans = trace(shape, w, h);
+            spans.put(key, shapeSpans);
+        }
+        lastKey = key;
+        lastSpans = shapeSpans;
+        return shapeSpans;
+    }
+
+    /**
+     * Paints a shape into a scratch image and reads back its runs of outline
+     * and fill.
+     */
+    private static Spans trace(final SpriteCache.Shape shape, final int w, final int h) {
+        final int traceWidth = w + 2 * PADDING;
+        final int traceHeight = h + 2 * PADDING;
+        final BufferedImage trace = new BufferedImage(traceWidth, traceHeight, BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D g2 = trace.createGraphics();
+        try {
+            shape.paint(g2, FILL_MARKER, w, h);
+        } finally {
+            g2.dispose();
+        }
+
+        final int[] argb = ((DataBufferInt) trace.getRaster().getDataBuffer()).getData();
+        final int[] rowStarts = new int[traceHeight + 1];
+        int[] runs = new int[traceHeight * 9];
+        int count = 0;
+        for (int r = 0; r < traceHeight; r++) {
+            rowStarts[r] = count;
+            int c = 0;
+            while (c < traceWidth) {
+                final int pixel = argb[r * traceWidth + c];
+                if ((pixel >>> 24) == 0) {
+                    c++;
+                    continue;
+                }
+                final int start = c;
+                while (c < traceWidth && argb[r * traceWidth + c] == pixel) {
+                    c++;
+                }
+                if (count + 3 > runs.length) {
+                    runs = Arrays.copyOf(runs, runs.length * 2);
+                }
+                runs[count++] = start;
+                runs[count++] = c;
+                runs[count++] = pixel == FILL_MARKER.getRGB() ? KIND_FILL : KIND_OUTLINE;
+            }
+        }
+        rowStarts[traceHeight] = count;
+        return new Spans(rowStarts, Arrays.copyOf(runs, count));
+    }
+
+    private int clipMinX(final Rectangle clip) {
+        return clip == null ? 0 : Math.max(0, clip.x);
+    }
+
+    private int clipMinY(final Rectangle clip) {
+        return clip == null ? 0 : Math.max(0, clip.y);
+    }
+
+    private int clipMaxX(final Rectangle clip) {
+        return clip == null ? width : Math.min(width, clip.x + clip.width);
+    }
+
+    private int clipMaxY(final Rectangle clip) {
+        return clip == null ? height : Math.min(height, clip.y + clip.height);
+    }
+}
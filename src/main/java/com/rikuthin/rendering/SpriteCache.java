@@ -0,0 +1,238 @@
+package com.rikuthin.rendering;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.VolatileImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.rikuthin.utility.RandomColour;
+
+/**
+ * Draws entities as pre-rendered images.
+ * <p>
+ * Each combination of shape, palette colour and size is rendered once, with
+ * its outline, into a volatile image; drawing an entity after that is a single
+ * image copy, which the graphics pipeline can usually do in video memory.
+ * Sizes are rounded to whole pixels and entities are drawn at whole-pixel
+ * positions, so a sprite looks the same however the drawing is clipped.
+ * </p>
+ * <p>
+ * Sprites are kept in least-recently-used order and the oldest is dropped once
+ * there are more than {@link #MAX_SPRITES}. When the graphics configuration
+ * changes, for example when the window moves to another screen, every sprite
+ * is dropped; a sprite whose contents the system has thrown away is rendered
+ * again before it is drawn.
+ * </p>
+ * <p>
+ * Not thread-safe; use one cache per component and only paint from the Event
+ * Dispatch Thread (EDT).
+ * </p>
+ */
+public class SpriteCache {
+
+    /**
+     * The most sprites kept before the least recently used is dropped.
+     */
+    public static final int MAX_SPRITES = 256;
+
+    /**
+     * Extra pixels around each sprite, covering the outline drawn around its
+     * shape.
+     */
+    private static final int PADDING = 1;
+
+    private static final Color CLEAR = new Color(0, 0, 0, 0);
+
+    /**
+     * The shapes sprites can be drawn in.
+     */
+    public enum Shape {
+        /**
+         * An ellipse filled and then outlined in black, as the game has always
+         * drawn bubbles.
+         */
+        BUBBLE {
+            @Override
+            void paint(final Graphics2D g2, final Color colour, final int width, final int height) {
+                final Ellipse2D.Double ellipse = new Ellipse2D.Double(PADDING, PADDING, width, height);
+                g2.setColor(colour);
+                g2.fill(ellipse);
+                g2.setColor(Color.BLACK);
+                g2.draw(ellipse);
+            }
+        },
+        /**
+         * A rectangle with a one-pixel black outline.
+         */
+        WALL {
+            @Override
+            void paint(final Graphics2D g2, final Color colour, final int width, final int height) {
+                final Rectangle2D.Double rectangle = new Rectangle2D.Double(PADDING, PADDING, width, height);
+                g2.setColor(colour);
+                g2.fill(rectangle);
+                g2.setColor(Color.BLACK);
+                g2.draw(rectangle);
+            }
+        };
+
+        /**
+         * Paints the shape with its top-left corner at ({@code PADDING},
+         * {@code PADDING}).
+         *
+         * @param g2 The graphics of the sprite's image.
+         * @param colour The fill colour.
+         * @param width The shape's width in pixels.
+         * @param height The shape's height in pixels.
+         */
+        abstract void paint(Graphics2D g2, Color colour, int width, int height);
+    }
+
+    /**
+     * A rendered sprite and what it was rendered from.
+     */
+    private static final class Sprite {
+
+        private final Shape shape;
+        private final int palette;
+        private final int width;
+        private final int height;
+        private VolatileImage image;
+
+        private Sprite(final Shape shape, final int palette, final int width, final int height) {
+            this.shape = shape;
+            this.palette = palette;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    private final Map<Long, Sprite> sprites = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Long, Sprite> eldest) {
+            if (size() <= MAX_SPRITES) {
+                return false;
+            }
+            final VolatileImage image = eldest.getValue().image;
+            if (image != null) {
+                image.flush();
+            }
+            return true;
+        }
+    };
+    private GraphicsConfiguration configuration;
+    private long renders;
+
+    /**
+     * Draws a sprite, rendering it first if it isn't cached or its image has
+     * been lost.
+     *
+     * @param g2 The graphics to draw with.
+     * @param shape The shape of the sprite.
+     * @param palette The palette index of the sprite's colour.
+     * @param x The x-coordinate of the shape's top-left corner.
+     * @param y The y-coordinate of the shape's top-left corner.
+     * @param width The width of the shape.
+     * @param height The height of the shape.
+     */
+    public void draw(final Graphics2D g2, final Shape shape, final int palette, final double x, final double y,
+            final double width, final double height) {
+        final GraphicsConfiguration gc = g2.getDeviceConfiguration();
+        if (gc != configuration) {
+            clear();
+            configuration = gc;
+        }
+
+        final int w = Math.max(1, (int) Math.round(width));
+        final int h = Math.max(1, (int) Math.round(height));
+        final long key = ((long) shape.ordinal() << 40) | ((long) (palette & 0xFF) << 32)
+                | ((long) (w & 0xFFFF) << 16) | (h & 0xFFFF);
+        Sprite sprite = sprites.get(key);
+        if (sprite == null) {
+            sprite = new Sprite(shape, palette, w, h);
+            sprites.put(key, sprite);
+        }
+
+        final int drawX = (int) Math.round(x) - PADDING;
+        final int drawY = (int) Math.round(y) - PADDING;
+        do {
+            validate(sprite, gc);
+            g2.drawImage(sprite.image, drawX, drawY, null);
+        } while (sprite.image.contentsLost());
+    }
+
+    /**
+     * Drops every cached sprite.
+     */
+    public void clear() {
+        for (Iterator<Sprite> it = sprites.values().iterator(); it.hasNext();) {
+            final VolatileImage image = it.next().image;
+            if (image != null) {
+                image.flush();
+            }
+            it.remove();
+        }
+    }
+
+    /**
+     * Returns the number of cached sprites.
+     *
+     * @return The number of sprites.
+     */
+    public int size() {
+        return sprites.size();
+    }
+
+    /**
+     * Returns how many times a sprite has been rendered, including renders
+     * after an image was lost.
+     *
+     * @return The number of renders.
+     */
+    public long getRenderCount() {
+        return renders;
+    }
+
+    /**
+     * Makes sure a sprite's image exists, suits the graphics configuration and
+     * still holds its contents, rendering it again if not.
+     *
+     * @param sprite The sprite to check.
+     * @param gc The configuration it will be drawn with.
+     */
+    private void validate(final Sprite sprite, final GraphicsConfiguration gc) {
+        if (sprite.image != null) {
+            final int status = sprite.image.validate(gc);
+            if (status == VolatileImage.IMAGE_OK) {
+                return;
+            }
+            if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                sprite.image.flush();
+                sprite.image = null;
+            }
+        }
+        if (sprite.image == null) {
+            sprite.image = gc.createCompatibleVolatileImage(sprite.width + 2 * PADDING,
+                    sprite.height + 2 * PADDING, Transparency.BITMASK);
+            sprite.image.validate(gc);
+        }
+
+        final Graphics2D g2 = sprite.image.createGraphics();
+        try {
+            g2.setComposite(AlphaComposite.Src);
+            g2.setColor(CLEAR);
+            g2.fillRect(0, 0, sprite.image.getWidth(), sprite.image.getHeight());
+            g2.setComposite(AlphaComposite.SrcOver);
+            sprite.shape.paint(g2, RandomColour.fromIndex(sprite.palette).getColour(), sprite.width, sprite.height);
+        } finally {
+            g2.dispose();
+        }
+        renders++;
+    }
+}
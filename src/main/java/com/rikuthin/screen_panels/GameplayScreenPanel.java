@@ -3,6 +3,7 @@ package com.rikuthin.screen_panels;
 import javax.swing.BoxLayout;
 
 import com.rikuthin.GameFrame;
+import com.rikuthin.GameManager;
 import com.rikuthin.screen_panels.gameplay_subpanels.BlasterPanel;
 import com.rikuthin.screen_panels.gameplay_subpanels.BubblePanel;
 import com.rikuthin.screen_panels.gameplay_subpanels.StatusPanel;
@@ -13,13 +14,19 @@ public final class GameplayScreenPanel extends ScreenPanel {
     private final BubblePanel bubblePanel;
     private final BlasterPanel blasterPanel;
 
-    public GameplayScreenPanel(GameFrame gameFrame) {
+    /**
+     * Constructs the gameplay screen for a session.
+     *
+     * @param gameFrame The GameFrame object that manages panel transitions.
+     * @param gameManager The session the screen's controls act on.
+     */
+    public GameplayScreenPanel(GameFrame gameFrame, GameManager gameManager) {
         super(gameFrame);
 
         setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
 
-        statusPanel = new StatusPanel();
-        bubblePanel = new BubblePanel();
+        statusPanel = new StatusPanel(gameManager);
+        bubblePanel = new BubblePanel(gameManager);
         blasterPanel = new BlasterPanel();
 
         add(statusPanel);
@@ -16,7 +16,6 @@ import javax.swing.SwingConstants;
 
 import com.rikuthin.GameFrame;
 import com.rikuthin.GameFrame.PanelName;
-import com.rikuthin.GameManager;
 import static com.rikuthin.utility.ButtonUtil.createButton;
 
 /**
@@ -104,7 +103,7 @@ public class MainMenuScreenPanel extends ScreenPanel {
      */
     private void onStartGame(ActionEvent e) {
         gameFrame.switchToPanel(PanelName.GAMEPLAY);
-        GameManager.getInstance().startGame();
+        gameFrame.startGame();
     }
 
     // TODO: Implement the functionality for viewing how to play
@@ -13,6 +13,7 @@ import javax.swing.JPanel;
 
 import com.rikuthin.GameFrame;
 import com.rikuthin.game_objects.Blaster;
+import com.rikuthin.simulation.GameSession;
 
 /**
  * The BlasterPanel is responsible for displaying the blaster and updating the
@@ -48,7 +49,7 @@ public class BlasterPanel extends JPanel {
 
         // Configure the blaster.
         final int shotSize = 30;
-        final double shotSpeed = 15;
+        final double shotSpeed = GameSession.SHOT_SPEED; // The same rules as a headless game
         final int blasterX = (GameFrame.FRAME_WIDTH / 2) - (shotSize / 2);
         final int blasterY = 0;
         blaster = new Blaster(blasterX, blasterY, shotSize, shotSpeed, new Color(2, 52, 54));
@@ -1,25 +1,40 @@
 package com.rikuthin.screen_panels.gameplay_subpanels;
 
+import java.awt.BasicStroke;
+import java.awt.BorderLayout;
+import java.awt.Canvas;
 import java.awt.Color;
 import java.awt.Dimension;
+import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.Stroke;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
 
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 
 import com.rikuthin.GameFrame;
 import com.rikuthin.GameManager;
+import com.rikuthin.game_objects.Blaster;
 import com.rikuthin.game_objects.Bubble;
 import com.rikuthin.game_objects.Wall;
-import com.rikuthin.utility.RandomColour;
+import com.rikuthin.rendering.ActiveRenderer;
+import com.rikuthin.rendering.FrameRenderer;
+import com.rikuthin.rendering.RenderBackend;
+import com.rikuthin.rendering.SpanRasterizer;
+import com.rikuthin.rendering.SpriteCache;
+import com.rikuthin.simulation.AimSolver;
+import com.rikuthin.simulation.EntityStore;
+import com.rikuthin.simulation.RenderSnapshot;
+import com.rikuthin.simulation.SnapshotBuffer;
+import com.rikuthin.simulation.TrajectoryPreview;
+import com.rikuthin.simulation.World;
 
 /**
  * The BubblePanel is responsible for displaying the bubbles in the game and
@@ -31,24 +46,101 @@ import com.rikuthin.utility.RandomColour;
  */
 public class BubblePanel extends JPanel {
 
+    private static final Color TRAJECTORY_COLOUR = new Color(255, 240, 120, 200);
+    private static final long NO_CURSOR = Long.MIN_VALUE;
+    private static final Color AIM_HINT_COLOUR = new Color(255, 255, 255, 160);
+    private static final int AIM_HINT_STROKE_WIDTH = 2;
+    private static final Stroke AIM_HINT_STROKE = new BasicStroke(AIM_HINT_STROKE_WIDTH, BasicStroke.CAP_ROUND,
+            BasicStroke.JOIN_ROUND, 1, new float[]{8, 6}, 0);
+    private static final int AIM_HINT_LABEL_INSET = 8; // Above the bottom edge and right of the line
+
+    /**
+     * The session clicks shoot bubbles in, or {@code null} to ignore them.
+     */
+    private final GameManager gameManager;
+
+    /**
+     * The world whose walls and bubbles are drawn on the panel.
+     */
+    private volatile World world;
+
+    /**
+     * Where the world publishes copies of itself to be drawn. Read on the EDT
+     * and by the render thread in active rendering mode, neither of which
+     * ever takes the world's lock.
+     */
+    private volatile SnapshotBuffer snapshots;
+
     /**
-     * A list of bubbles contained within the panel
+     * The suggested shot drawn over the world, or {@code null} for none. Set
+     * by whichever thread solves for it.
      */
-    private final List<Bubble> bubbles;
-    private final List<Wall> walls;
+    private volatile AimSolver.Solution aimHint;
+
+    /**
+     * The blaster whose shot is previewed towards the cursor, or {@code null}
+     * for no preview.
+     */
+    private volatile Blaster blaster;
+
+    /**
+     * The cursor's position packed into one value, so the two coordinates are
+     * always read together, or {@link #NO_CURSOR} while it is outside.
+     */
+    private volatile long cursor = NO_CURSOR;
+
+    /**
+     * Predicts the shot towards the cursor, made on first use. Guarded by
+     * {@link #previewLock}, since paths are worked out by whichever thread
+     * draws.
+     */
+    private TrajectoryPreview preview;
+    private volatile TrajectoryPreview.Path previewPath;
+    private final Object previewLock = new Object();
     private final JLabel mouseLocationLabel;
 
     /**
-     * Constructs the BubblePanel, initializing the list of bubbles and setting
-     * up the background and mouse listener for bubble shooting.
+     * The canvas drawn into in active rendering mode, or {@code null} while
+     * Swing paints the panel
+     */
+    private Canvas canvas;
+
+    /**
+     * Pre-rendered images of the walls and bubbles, so drawing an entity is a
+     * single image copy
+     */
+    private final SpriteCache sprites = new SpriteCache();
+
+    /**
+     * How entities are turned into pixels
+     */
+    private RenderBackend backend = RenderBackend.SPRITES;
+
+    /**
+     * The frame the software backend draws into, created on first use
+     */
+    private SpanRasterizer raster;
+
+    /**
+     * Constructs a BubblePanel that only displays a world, ignoring clicks.
      */
     public BubblePanel() {
-        this.bubbles = new ArrayList<>();
-        this.walls = new ArrayList<>();
+        this(null);
+    }
+
+    /**
+     * Constructs the BubblePanel, setting up the background and mouse listener
+     * for bubble shooting.
+     *
+     * @param gameManager The session clicks shoot bubbles in, or {@code null}
+     * to ignore clicks.
+     */
+    public BubblePanel(final GameManager gameManager) {
+        this.gameManager = gameManager;
 
         // Set panel background color and preferred size.
         setBackground(new Color(200, 170, 170));
-        setPreferredSize(new Dimension(GameFrame.FRAME_WIDTH, 590));
+        setPreferredSize(new Dimension(GameFrame.FRAME_WIDTH, World.DEFAULT_HEIGHT));
 
         // Create and initialize the label to display mouse coordinates
         mouseLocationLabel = new JLabel();
@@ -66,6 +158,10 @@ public class BubblePanel extends JPanel {
 
                 // Update the label text with the new mouse coordinates
                 mouseLocationLabel.setText("Mouse Location: (" + mouseX + ", " + mouseY + ")");
+
+                // The path is only worked out when next drawn, so a burst of moves costs nothing here
+                cursor = ((long) mouseX << 32) | (mouseY & 0xFFFFFFFFL);
+                markPreviewDirty(previewPath);
             }
 
             @Override
@@ -78,96 +174,478 @@ public class BubblePanel extends JPanel {
         addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                if (isVisible()) {
+                if (gameManager != null && isVisible()) {
                     Point target = new Point(e.getX(), e.getY());
-                    GameManager.getInstance().shootBubble(target);
-                    repaint(); // Repaint the panel to update bubble positions.
+                    gameManager.shootBubble(target);
                 }
             }
+
+            @Override
+            public void mouseExited(MouseEvent e) {
+                cursor = NO_CURSOR;
+                markPreviewDirty(previewPath);
+            }
         });
     }
 
-    public void initialiseWalls() { 
-        int panelWidth = Math.max(getWidth(), 150); // Ensure reasonable width
-        int numWalls = ThreadLocalRandom.current().nextInt(8) + 3;
-    
-        for (int i = 0; i < numWalls; i++) {
-            int x = ThreadLocalRandom.current().nextInt(panelWidth); // Full width range
-    
-            int y = ThreadLocalRandom.current().nextInt(301) + 100; // Random Y in [100, 400]
-    
-            int wallWidth = ThreadLocalRandom.current().nextInt(51) + 30; // Random width [30, 80]
-            int wallHeight = ThreadLocalRandom.current().nextInt(21) + 30; // Random height [30, 50]
-    
-            // Ensure walls fit within the panel width
-            x = Math.min(x, panelWidth - wallWidth);
-    
-            Wall newWall = new Wall(x, y, wallWidth, wallHeight, RandomColour.getRandomColour());
-            walls.add(newWall);
+    /**
+     * Sets the world this panel displays, and has it publish copies of itself
+     * for the panel to draw.
+     *
+     * @param world The world to draw, or {@code null} to draw nothing.
+     */
+    public void setWorld(final World world) {
+        final World previous = this.world;
+        if (previous != null && previous != world) {
+            previous.setSnapshotBuffer(null);
+        }
 
-            new Thread(newWall).start();
+        SnapshotBuffer buffer = null;
+        if (world != null) {
+            buffer = new SnapshotBuffer();
+            world.setSnapshotBuffer(buffer);
         }
+        this.world = world;
+        this.snapshots = buffer;
+        repaint();
     }
-    
 
     /**
-     * Adds a bubble to the panel and triggers a repaint to display it.
+     * Chooses how entities are turned into pixels. Scenes already created for
+     * active rendering keep the backend they were created with.
      *
-     * @param bubble The bubble to add to the panel.
+     * @param backend The backend to draw with.
      */
-    public void addBubble(final Bubble bubble) {
-        bubbles.add(bubble);
-        repaint(); // Repaint to show the new bubble.
+    public void setRenderBackend(final RenderBackend backend) {
+        if (backend == null) {
+            throw new IllegalArgumentException("Render backend cannot be null.");
+        }
+        this.backend = backend;
+        repaint();
+    }
+
+    public RenderBackend getRenderBackend() {
+        return backend;
     }
 
     /**
-     * Adds a wall to the panel and triggers a repaint to display it.
+     * Sets the blaster whose shot is previewed from the blaster towards the
+     * cursor while it is over the panel.
      *
-     * @param wall The wall to add to the panel.
+     * @param blaster The blaster, or {@code null} for no preview.
      */
-    public void addWall(final Wall wall) {
-        walls.add(wall);
-        repaint(); // Repaint to show the new bubble.
+    public void setBlaster(final Blaster blaster) {
+        this.blaster = blaster;
+        markPreviewDirty(previewPath);
     }
 
     /**
-     * Adds a bubble to the panel and triggers a repaint to display it.
+     * Sets the suggested shot drawn over the world, marking where the old and
+     * new hints are drawn for repainting if it changed.
      *
-     * @param bubble The bubble to add to the panel.
+     * @param aimHint The shot to suggest, or {@code null} to draw none.
      */
-    public void removeBubble(final Bubble bubble) {
-        bubbles.remove(bubble);
-        repaint(); // Repaint to show the new bubble.
+    public void setAimHint(final AimSolver.Solution aimHint) {
+        final AimSolver.Solution previous = this.aimHint;
+        if (aimHint == previous) {
+            return;
+        }
+        this.aimHint = aimHint;
+        markAimHintDirty(previous);
+        markAimHintDirty(aimHint);
+    }
+
+    public AimSolver.Solution getAimHint() {
+        return aimHint;
     }
 
-    public List<Bubble> getBubbles() {
-        return bubbles;
+    /**
+     * Returns the world this panel displays.
+     *
+     * @return The world, or {@code null} if none has been set.
+     */
+    public World getWorld() {
+        return world;
     }
 
-    public List<Wall> getWalls() {
-        return walls;
+    /**
+     * Returns the buffer the world publishes to for this panel.
+     *
+     * @return The buffer, or {@code null} if no world has been set.
+     */
+    public SnapshotBuffer getSnapshotBuffer() {
+        return snapshots;
     }
 
     /**
-     * Paints the component by rendering all the bubbles in the list. This
+     * Paints the component by rendering the walls and bubbles in the world. This
      * method is automatically called by the Swing framework when the panel
      * needs to be redrawn.
+     * <p>
+     * Only entities that overlap the clip are drawn, so repainting a small
+     * damaged region costs little however many entities there are. With the
+     * software backend the clip is drawn into the panel's own frame, which is
+     * then copied across in one go.
+     * </p>
+     * <p>
+     * The newest snapshot of the world is drawn, so painting never waits for
+     * the simulation.
+     * </p>
      *
      * @param g The graphics context used for drawing.
      */
     @Override
     protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
-        Graphics2D g2 = (Graphics2D) g;
+        final SnapshotBuffer buffer = snapshots;
+        final RenderSnapshot snapshot = buffer == null ? null : buffer.acquire();
+        try {
+            if (backend == RenderBackend.SOFTWARE && snapshot != null && getWidth() > 0 && getHeight() > 0) {
+                if (raster == null) {
+                    raster = new SpanRasterizer(getWidth(), getHeight());
+                }
+                raster.resize(getWidth(), getHeight());
+                final Rectangle clip = g.getClipBounds();
+                drawWorld(raster, snapshot, clip, getBackground().getRGB());
+                g.drawImage(raster.getImage(), 0, 0, null);
+                drawTrajectory((Graphics2D) g, refreshPreview(snapshot));
+                drawAimHint((Graphics2D) g, aimHint, getWidth(), getHeight());
+                return;
+            }
 
-        // Draw each wall in the list.
-        for (Wall wall : walls) {
-            wall.draw(g2);
+            super.paintComponent(g);
+            if (snapshot != null) {
+                drawWorld((Graphics2D) g, snapshot, g.getClipBounds(), sprites);
+            }
+            drawTrajectory((Graphics2D) g, refreshPreview(snapshot));
+            drawAimHint((Graphics2D) g, aimHint, getWidth(), getHeight());
+        } finally {
+            if (buffer != null) {
+                buffer.release(snapshot);
+            }
         }
+    }
+
+    /**
+     * Returns the canvas for active rendering, covering the whole panel. The
+     * canvas is created and put in place the first time this is called, and
+     * receives the panel's mouse input from then on. Call on the Event
+     * Dispatch Thread (EDT).
+     * <p>
+     * The canvas is heavyweight, so it hides the mouse location label.
+     * </p>
+     *
+     * @return The canvas.
+     */
+    public Canvas getActiveCanvas() {
+        if (canvas == null) {
+            canvas = new Canvas();
+            canvas.setBackground(getBackground());
+            canvas.setIgnoreRepaint(true); // The render thread redraws it every frame
+            for (MouseListener listener : getMouseListeners()) {
+                canvas.addMouseListener(listener);
+            }
+            for (MouseMotionListener listener : getMouseMotionListeners()) {
+                canvas.addMouseMotionListener(listener);
+            }
 
-        // Draw each bubble in the list.
-        for (Bubble bubble : bubbles) {
-            bubble.draw(g2);
+            remove(mouseLocationLabel);
+            setLayout(new BorderLayout());
+            add(canvas, BorderLayout.CENTER);
+            revalidate();
         }
-    }    
+        return canvas;
+    }
+
+    /**
+     * Creates a scene that draws the panel's background and world, for an
+     * {@link ActiveRenderer}. The scene keeps its own sprite cache, since it
+     * is drawn on the render thread rather than the EDT.
+     *
+     * @return The new scene.
+     */
+    public ActiveRenderer.Scene createScene() {
+        final Color background = getBackground();
+        if (backend == RenderBackend.SOFTWARE) {
+            final SpanRasterizer sceneRaster = new SpanRasterizer(Math.max(1, getWidth()),
+                    Math.max(1, getHeight()));
+            return (g2, width, height) -> {
+                sceneRaster.resize(width, height);
+                final SnapshotBuffer buffer = snapshots;
+                final RenderSnapshot snapshot = buffer == null ? null : buffer.acquire();
+                try {
+                    if (snapshot == null) {
+                        sceneRaster.fill(background.getRGB(), null);
+                    } else {
+                        drawWorld(sceneRaster, snapshot, null, background.getRGB());
+                    }
+                    g2.drawImage(sceneRaster.getImage(), 0, 0, null);
+                    drawTrajectory(g2, refreshPreview(snapshot));
+                } finally {
+                    if (buffer != null) {
+                        buffer.release(snapshot);
+                    }
+                }
+                drawAimHint(g2, aimHint, width, height);
+            };
+        }
+
+        final SpriteCache sceneSprites = new SpriteCache();
+        return (g2, width, height) -> {
+            g2.setColor(background);
+            g2.fillRect(0, 0, width, height);
+            final SnapshotBuffer buffer = snapshots;
+            final RenderSnapshot snapshot = buffer == null ? null : buffer.acquire();
+            if (snapshot != null) {
+                try {
+                    drawWorld(g2, snapshot, null, sceneSprites);
+                    drawTrajectory(g2, refreshPreview(snapshot));
+                } finally {
+                    buffer.release(snapshot);
+                }
+            }
+            drawAimHint(g2, aimHint, width, height);
+        };
+    }
+
+    /**
+     * Draws the walls and bubbles in a snapshot that overlap the clip.
+     *
+     * @param g2 The graphics to draw with.
+     * @param snapshot The snapshot of the world to draw.
+     * @param clip The area to draw, or {@code null} to draw everything.
+     * @param sprites The cache to draw entities from.
+     */
+    private static void drawWorld(final Graphics2D g2, final RenderSnapshot snapshot, final Rectangle clip,
+            final SpriteCache sprites) {
+        // Draw each wall in the clip.
+        final EntityStore<Wall> walls = snapshot.getWalls();
+        for (int i = 0; i < walls.size(); i++) {
+            if (overlapsClip(clip, walls, i)) {
+                Wall.draw(g2, walls, i, sprites);
+            }
+        }
+
+        // Draw each bubble in the clip.
+        final EntityStore<Bubble> bubbles = snapshot.getBubbles();
+        for (int i = 0; i < bubbles.size(); i++) {
+            if (overlapsClip(clip, bubbles, i)) {
+                Bubble.draw(g2, bubbles, i, sprites);
+            }
+        }
+    }
+
+    /**
+     * Clears the clip of a software frame to the background and draws the
+     * walls and bubbles in a snapshot that overlap it.
+     *
+     * @param raster The frame to draw into.
+     * @param snapshot The snapshot of the world to draw.
+     * @param clip The area to draw, or {@code null} to draw everything.
+     * @param background The packed RGB background colour.
+     */
+    private static void drawWorld(final SpanRasterizer raster, final RenderSnapshot snapshot,
+            final Rectangle clip, final int background) {
+        raster.fill(background, clip);
+
+        final EntityStore<Wall> walls = snapshot.getWalls();
+        for (int i = 0; i < walls.size(); i++) {
+            if (overlapsClip(clip, walls, i)) {
+                Wall.draw(raster, walls, i, clip);
+            }
+        }
+
+        final EntityStore<Bubble> bubbles = snapshot.getBubbles();
+        for (int i = 0; i < bubbles.size(); i++) {
+            if (overlapsClip(clip, bubbles, i)) {
+                Bubble.draw(raster, bubbles, i, clip);
+            }
+        }
+    }
+
+    /**
+     * Brings the preview of the shot towards the cursor up to date with a
+     * snapshot, marking the old and new paths for repainting if it changed.
+     * Only works a path out again when the rounded aim or the walls have
+     * changed.
+     *
+     * @param snapshot The snapshot being drawn, or {@code null}.
+     * @return The path to draw, or {@code null} for none.
+     */
+    private TrajectoryPreview.Path refreshPreview(final RenderSnapshot snapshot) {
+        final Blaster shooter = blaster;
+        final World shown = world;
+        final long position = cursor;
+        synchronized (previewLock) {
+            TrajectoryPreview.Path path = null;
+            if (shooter != null && shown != null && snapshot != null && position != NO_CURSOR) {
+                if (preview == null || preview.getWidth() != shown.getWidth()
+                        || preview.getHeight() != shown.getHeight()
+                        || preview.getShotSpeed() != shooter.getShotSpeed()) {
+                    preview = new TrajectoryPreview(shown.getWidth(), shown.getHeight(), shooter.getShotSpeed());
+                }
+                // Fired from where the blaster fires, just below the field
+                path = preview.update(snapshot, shooter.getLaunchX(), shooter.getLaunchY(shown),
+                        (int) (position >> 32), (int) position);
+            }
+
+            final TrajectoryPreview.Path previous = previewPath;
+            if (path != previous) {
+                previewPath = path;
+                markPreviewDirty(previous);
+                markPreviewDirty(path);
+            }
+            return path;
+        }
+    }
+
+    /**
+     * Marks the area a path covers for repainting on the next frame.
+     *
+     * @param path The path, or {@code null} for nothing.
+     */
+    private void markPreviewDirty(final TrajectoryPreview.Path path) {
+        if (path == null) {
+            return;
+        }
+        final double margin = Bubble.SIZE / 2 + 2; // The hit marker and the line's width
+        markDirty(path.getMinX() - margin, path.getMinY() - margin,
+                path.getMaxX() - path.getMinX() + 2 * margin, path.getMaxY() - path.getMinY() + 2 * margin);
+    }
+
+    /**
+     * Marks the area a suggested shot's line and label cover for repainting
+     * on the next frame.
+     *
+     * @param hint The suggested shot, or {@code null} for nothing.
+     */
+    private void markAimHintDirty(final AimSolver.Solution hint) {
+        if (hint == null) {
+            return;
+        }
+        final double margin = AIM_HINT_STROKE_WIDTH;
+        final int minX = Math.min(hint.getLaunchX(), hint.getTargetX());
+        final int minY = Math.min(hint.getLaunchY(), hint.getTargetY());
+        markDirty(minX - margin, minY - margin, Math.max(hint.getLaunchX(), hint.getTargetX()) - minX + 2 * margin,
+                Math.max(hint.getLaunchY(), hint.getTargetY()) - minY + 2 * margin);
+
+        final FontMetrics metrics = getFontMetrics(getFont());
+        final int labelY = getHeight() - AIM_HINT_LABEL_INSET;
+        final int labelWidth = metrics.stringWidth("100%");
+        markDirty(aimHintLabelX(hint, labelY, getWidth() - labelWidth), labelY - metrics.getAscent(), labelWidth,
+                metrics.getHeight());
+    }
+
+    /**
+     * Marks part of the panel for repainting, through the session's renderer
+     * if it has one.
+     *
+     * @param x The x-coordinate of the area.
+     * @param y The y-coordinate of the area.
+     * @param width The width of the area.
+     * @param height The height of the area.
+     */
+    private void markDirty(final double x, final double y, final double width, final double height) {
+        final FrameRenderer renderer = gameManager == null ? null : gameManager.getFrameRenderer();
+        if (renderer != null) {
+            renderer.markDirty(x, y, width, height);
+        } else {
+            repaint((int) Math.floor(x), (int) Math.floor(y), (int) Math.ceil(width) + 1,
+                    (int) Math.ceil(height) + 1);
+        }
+    }
+
+    /**
+     * Draws a predicted path as a line through the bubble's centre, with an
+     * outline of the bubble where it would hit a wall.
+     *
+     * @param g2 The graphics to draw with.
+     * @param path The path to draw, or {@code null} to draw nothing.
+     */
+    private static void drawTrajectory(final Graphics2D g2, final TrajectoryPreview.Path path) {
+        if (path == null) {
+            return;
+        }
+
+        g2.setColor(TRAJECTORY_COLOUR);
+        for (int i = 1; i < path.getPointCount(); i++) {
+            g2.drawLine((int) Math.round(path.getX(i - 1)), (int) Math.round(path.getY(i - 1)),
+                    (int) Math.round(path.getX(i)), (int) Math.round(path.getY(i)));
+        }
+        if (path.hitsWall()) {
+            final int last = path.getPointCount() - 1;
+            final int size = (int) Bubble.SIZE;
+            g2.drawOval((int) Math.round(path.getX(last) - Bubble.SIZE / 2),
+                    (int) Math.round(path.getY(last) - Bubble.SIZE / 2), size, size);
+        }
+    }
+
+    /**
+     * Draws a suggested shot as a dashed line from the blaster towards its
+     * target, with its chance of reaching the top written beside the line
+     * where it enters the panel.
+     *
+     * @param g2 The graphics to draw with.
+     * @param hint The shot to draw, or {@code null} to draw nothing.
+     * @param width The width of the area drawn into.
+     * @param height The height of the area drawn into.
+     */
+    private static void drawAimHint(final Graphics2D g2, final AimSolver.Solution hint, final int width,
+            final int height) {
+        if (hint == null) {
+            return;
+        }
+
+        final Stroke previous = g2.getStroke();
+        g2.setColor(AIM_HINT_COLOUR);
+        g2.setStroke(AIM_HINT_STROKE);
+        g2.drawLine(hint.getLaunchX(), hint.getLaunchY(), hint.getTargetX(), hint.getTargetY());
+        g2.setStroke(previous);
+
+        final int labelY = height - AIM_HINT_LABEL_INSET;
+        final int labelX = aimHintLabelX(hint, labelY, width - g2.getFontMetrics().stringWidth("100%"));
+        g2.drawString(Math.round(hint.getChance() * 100) + "%", labelX, labelY);
+    }
+
+    /**
+     * Finds where a suggested shot's label starts: just right of where its
+     * line crosses the label's baseline, a little above the bottom edge. A
+     * level line never crosses the baseline, so its label goes by the
+     * target instead, and the label is always kept within the panel.
+     *
+     * @param hint The suggested shot.
+     * @param labelY The label's baseline.
+     * @param maxX The furthest right the widest label can start and still
+     * fit.
+     * @return The x-coordinate the label is drawn from.
+     */
+    private static int aimHintLabelX(final AimSolver.Solution hint, final int labelY, final int maxX) {
+        final int rise = hint.getLaunchY() - hint.getTargetY();
+        final double lineX;
+        if (rise == 0) {
+            lineX = hint.getTargetX();
+        } else {
+            final double along = (double) (hint.getLaunchY() - labelY) / rise;
+            lineX = hint.getLaunchX() + along * (hint.getTargetX() - hint.getLaunchX());
+        }
+        return Math.clamp(Math.round(lineX) + AIM_HINT_LABEL_INSET, 0, Math.max(0, maxX));
+    }
+
+    /**
+     * Checks whether an entity, including its one-pixel outline, touches the
+     * clip.
+     *
+     * @param clip The clip bounds, or {@code null} if unclipped.
+     * @param store The store holding the entity.
+     * @param index The entity's row.
+     * @return Whether the entity needs drawing.
+     */
+    private static boolean overlapsClip(final Rectangle clip, final EntityStore<?> store, final int index) {
+        if (clip == null) {
+            return true;
+        }
+        final double x = store.x()[index];
+        final double y = store.y()[index];
+        return x - 1 <= clip.x + clip.width && x + store.width()[index] + 1 >= clip.x
+                && y - 1 <= clip.y + clip.height && y + store.height()[index] + 1 >= clip.y;
+    }
 }
@@ -33,8 +33,10 @@ public final class StatusPanel extends JPanel {
     /**
      * Constructs the StatusPanel, initialising the score and timer displays and
      * starting the game timer.
+     *
+     * @param gameManager The session the pause button pauses.
      */
-    public StatusPanel() {
+    public StatusPanel(final GameManager gameManager) {
         // Set background colour and panel size.
         setBackground(new Color(87, 73, 100));
         setPreferredSize(new Dimension(GameFrame.FRAME_WIDTH, 60));
@@ -49,7 +51,7 @@ public final class StatusPanel extends JPanel {
         // Create the pause button.
         pauseMenuButton = createButton(
                 "PAUSE", buttonFont, 100, 40, true,
-                GameManager.getInstance()::onPause
+                gameManager::onPause
         );
 
         // Create the score and timer labels.
@@ -0,0 +1,265 @@
+package com.rikuthin.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs every entity as its own actor with its own update loop.
+ * <p>
+ * Each instance is the scope for one game session: all actors are started on
+ * an executor owned by the scheduler, and {@link #stop()} cancels every one of
+ * them together by shutting that executor down. Depending on the
+ * {@link SchedulerMode}, actors run on dedicated platform threads, on virtual
+ * threads, or as periodic tasks on a small shared pool.
+ * </p>
+ * <p>
+ * While the game is paused, actors on their own threads park on a
+ * {@link PauseGate}. Pooled actors cancel their schedule instead, and are
+ * scheduled again when the gate opens. Either way a paused session uses no
+ * CPU, and each entity carries on from exactly where it stopped.
+ * </p>
+ * <p>
+ * Entities don't publish the world after updating themselves. An attached
+ * world gets one more actor of its own, which publishes it once per step
+ * whatever the number of entities.
+ * </p>
+ */
+public class ActorScheduler implements EntityScheduler {
+
+    private static final AtomicInteger SESSION_COUNTER = new AtomicInteger();
+
+    private final SchedulerMode mode;
+    private final long stepNanos;
+    private final double stepSeconds;
+    private final PauseGate pauseGate;
+    private final String threadPrefix;
+
+    /**
+     * Entities added before {@link #start()} was called.
+     */
+    private final List<Updatable> pendingEntities;
+
+    private ExecutorService executor;
+    private boolean started;
+    private boolean stopped;
+
+    /**
+     * Constructs a new ActorScheduler.
+     *
+     * @param mode How actors are mapped onto threads. Must not be
+     * {@link SchedulerMode#FIXED_STEP}.
+     * @param stepMs The length of a single step in milliseconds.
+     * @param pauseGate Holds every actor still while it is closed.
+     */
+    public ActorScheduler(final SchedulerMode mode, final int stepMs, final PauseGate pauseGate) {
+        if (mode == null || mode == SchedulerMode.FIXED_STEP) {
+            throw new IllegalArgumentException("Actor scheduling requires a platform, virtual or pooled mode.");
+        }
+        if (stepMs <= 0) {
+            throw new IllegalArgumentException("Step length must be positive.");
+        }
+        this.mode = mode;
+        this.stepNanos = stepMs * 1_000_000L;
+        this.stepSeconds = stepMs / 1000.0;
+        this.pauseGate = pauseGate;
+        this.threadPrefix = "entity-" + mode.name().toLowerCase() + "-" + SESSION_COUNTER.incrementAndGet() + "-";
+        this.pendingEntities = new ArrayList<>();
+    }
+
+    public SchedulerMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Schedules every entity in a world on its own, along with an actor that
+     * publishes the world once per step.
+     *
+     * @param world The world to schedule.
+     */
+    @Override
+    public void attach(final World world) {
+        EntityScheduler.super.attach(world);
+        add(dt -> world.publishSnapshot());
+    }
+
+    @Override
+    public synchronized void add(final Updatable entity) {
+        if (entity == null) {
+            throw new IllegalArgumentException("Entity cannot be null");
+        }
+        if (stopped) {
+            throw new IllegalStateException("Error: Cannot add entities to a stopped scheduler.");
+        }
+
+        if (started) {
+            launch(entity);
+        } else {
+            pendingEntities.add(entity);
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (started) {
+            throw new IllegalStateException("Error: Scheduler has already been started.");
+        }
+        started = true;
+        executor = createExecutor();
+
+        for (Updatable entity : pendingEntities) {
+            launch(entity);
+        }
+        pendingEntities.clear();
+    }
+
+    @Override
+    public synchronized void stop() {
+        stopped = true;
+        if (executor == null) {
+            return;
+        }
+
+        // Cancels every actor in the session at once
+        executor.shutdownNow();
+        try {
+            if (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                System.err.println("Warning: Some entity actors did not stop in time.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Creates the executor that owns every actor in this session.
+     *
+     * @return The session's executor.
+     */
+    private ExecutorService createExecutor() {
+        switch (mode) {
+            case VIRTUAL:
+                return Executors.newThreadPerTaskExecutor(
+                        Thread.ofVirtual().name(threadPrefix, 0).factory()
+                );
+            case POOLED:
+                return Executors.newScheduledThreadPool(
+                        Runtime.getRuntime().availableProcessors(),
+                        daemonFactory()
+                );
+            default:
+                return Executors.newThreadPerTaskExecutor(daemonFactory());
+        }
+    }
+
+    /**
+     * Creates a factory for daemon platform threads, so stray actors can never
+     * keep the JVM alive.
+     *
+     * @return The thread factory.
+     */
+    private ThreadFactory daemonFactory() {
+        return Thread.ofPlatform().name(threadPrefix, 0).daemon(true).factory();
+    }
+
+    /**
+     * Starts a single entity's actor.
+     *
+     * @param entity The entity to run.
+     */
+    private void launch(final Updatable entity) {
+        if (mode == SchedulerMode.POOLED) {
+            new PeriodicActor(entity).schedule();
+        } else {
+            executor.execute(() -> runLoop(entity));
+        }
+    }
+
+    /**
+     * The loop run by a thread-per-entity actor. Sleeps until the next step is
+     * due rather than for a fixed interval, so the actor doesn't drift.
+     *
+     * @param entity The entity to run.
+     */
+    private void runLoop(final Updatable entity) {
+        long nextStep = System.nanoTime();
+
+        while (entity.isActive() && !Thread.currentThread().isInterrupted()) {
+            try {
+                if (pauseGate.await()) {
+                    nextStep = System.nanoTime(); // Carry on from now, not from before the pause
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            entity.update(stepSeconds);
+
+            nextStep += stepNanos;
+            final long sleepNanos = nextStep - System.nanoTime();
+            if (sleepNanos <= 0) {
+                nextStep = System.nanoTime(); // Fell behind; don't try to catch up
+                continue;
+            }
+
+            try {
+                Thread.sleep(sleepNanos / 1_000_000, (int) (sleepNanos % 1_000_000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    /**
+     * A single step of a pooled actor. Cancels its own schedule once the
+     * entity is no longer active, or until the game is resumed.
+     */
+    private final class PeriodicActor implements Runnable {
+
+        private final Updatable entity;
+        private volatile ScheduledFuture<?> future;
+
+        private PeriodicActor(final Updatable entity) {
+            this.entity = entity;
+        }
+
+        /**
+         * Runs the actor every step from now on, unless the session has
+         * stopped.
+         */
+        private void schedule() {
+            synchronized (ActorScheduler.this) {
+                if (!stopped) {
+                    future = ((ScheduledExecutorService) executor).scheduleAtFixedRate(
+                            this, 0, stepNanos, TimeUnit.NANOSECONDS
+                    );
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            final ScheduledFuture<?> current = future;
+            if (current == null) {
+                return; // Still being scheduled; starts on the next step
+            }
+            if (!entity.isActive()) {
+                current.cancel(false);
+                return;
+            }
+            if (pauseGate.isPaused()) {
+                current.cancel(false);
+                pauseGate.whenResumed(this::schedule);
+                return;
+            }
+            entity.update(stepSeconds);
+        }
+    }
+}
@@ -0,0 +1,446 @@
+package com.rikuthin.simulation;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.rikuthin.App;
+import com.rikuthin.utility.Bearing2D;
+import com.rikuthin.utility.RandomColour;
+
+/**
+ * Finds the firing angle most likely to get a bubble to the top, by flying
+ * candidate shots forward through copies of a world.
+ * <p>
+ * Candidate angles are spread evenly across the upward half-turn. Each one is
+ * tried many times in a private world holding a copy of the walls, flown
+ * exactly as the game would fly it, with wall motion and bounces off the
+ * sides. The shot leaves a random number of ticks later each time, as a
+ * player's click does, and its aim is nudged by up to half a degree, so a
+ * candidate's chance is the fraction of its shots that reached the top.
+ * </p>
+ * <p>
+ * Candidates are tried in rounds. Every round gives each remaining candidate
+ * the same random delays and nudges, split across a fork/join pool, and then
+ * drops every candidate that, with high confidence, can't beat the best. The
+ * first round tries each candidate once and each later round twice as many
+ * times, up to a handful, so every candidate has been tried before a tight
+ * budget runs out. Solving stops when the time budget runs out, one candidate
+ * is left, or every remaining candidate has been tried enough times, and the
+ * best answer found so far is returned.
+ * </p>
+ * <p>
+ * Each pool thread keeps its own world to fly shots in, so one solver
+ * shouldn't be used from several threads at once.
+ * </p>
+ */
+public final class AimSolver {
+
+    /**
+     * Half a frame at 60 frames per second, so a hint is ready in time for
+     * the frame after it was asked for.
+     */
+    public static final long DEFAULT_BUDGET_NANOS = 8_000_000;
+
+    /**
+     * The number of angles tried by default.
+     */
+    public static final int DEFAULT_CANDIDATES = 64;
+
+    /**
+     * How far from the launch point a solution's target is placed, so its
+     * whole-pixel rounding moves the aim by a small fraction of a degree.
+     */
+    private static final int TARGET_DISTANCE = 1_000;
+
+    /**
+     * The furthest a candidate leans from straight up, so no shot is fired
+     * flat along the bottom.
+     */
+    private static final double MAX_LEAN_DEGREES = 80;
+
+    /**
+     * The latest, in steps after the solve, that a candidate's shots leave.
+     * A solution holds for about that long while the walls move on.
+     */
+    public static final int MAX_DELAY_STEPS = 25;
+
+    private static final int MAX_SAMPLES_PER_ROUND = 8;
+    private static final double MAX_NUDGE_DEGREES = 0.5;
+    private static final int MAX_FLIGHT_STEPS = 2_000;
+    private static final int CANDIDATES_PER_TASK = 4;
+
+    /**
+     * How sure a candidate must be beaten before it is dropped: the chance of
+     * wrongly dropping one is at most this, per round.
+     */
+    private static final double DROP_CONFIDENCE = 0.01;
+
+    private static final double STEP_SECONDS = App.TICK_SPEED_MS / 1000.0;
+
+    /**
+     * The best angle found by a solve.
+     */
+    public static final class Solution {
+        private final int launchX;
+        private final int launchY;
+        private final double degrees;
+        private final int targetX;
+        private final int targetY;
+        private final double chance;
+        private final int samples;
+
+        private Solution(final int launchX, final int launchY, final double degrees, final int targetX,
+                final int targetY, final double chance, final int samples) {
+            this.launchX = launchX;
+            this.launchY = launchY;
+            this.degrees = degrees;
+            this.targetX = targetX;
+            this.targetY = targetY;
+            this.chance = chance;
+            this.samples = samples;
+        }
+
+        public int getLaunchX() {
+            return launchX;
+        }
+
+        public int getLaunchY() {
+            return launchY;
+        }
+
+        /**
+         * Returns the angle to fire at, as a {@link Bearing2D} pointing from the
+         * launch point to the target would hold it.
+         *
+         * @return The angle in degrees.
+         */
+        public double getDegrees() {
+            return degrees;
+        }
+
+        /**
+         * Returns the x-coordinate of a point to aim at for this angle.
+         *
+         * @return The target's x-coordinate.
+         */
+        public int getTargetX() {
+            return targetX;
+        }
+
+        /**
+         * Returns the y-coordinate of a point to aim at for this angle.
+         *
+         * @return The target's y-coordinate.
+         */
+        public int getTargetY() {
+            return targetY;
+        }
+
+        /**
+         * Returns the fraction of this angle's shots that reached the top.
+         *
+         * @return The estimated chance, from 0 to 1.
+         */
+        public double getChance() {
+            return chance;
+        }
+
+        /**
+         * Returns how many shots the chance was estimated from.
+         *
+         * @return The number of shots flown at this angle.
+         */
+        public int getSamples() {
+            return samples;
+        }
+    }
+
+    /**
+     * A private world to fly shots in, one per thread.
+     */
+    private static final class Rollout implements WorldListener {
+        private final World world;
+        private final Bearing2D aim = new Bearing2D(0);
+        private boolean scored;
+        private boolean stopped;
+
+        private Rollout(final double width, final double height) {
+            world = new World(width, height, new Random(0), this);
+            world.reserveBubbles(1);
+        }
+
+        @Override
+        public void onPointsScored(final int points) {
+            scored = true;
+        }
+
+        @Override
+        public void onBubbleStopped() {
+            stopped = true;
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final FlightMode flightMode;
+    private final int candidateCount;
+    private final Random random;
+    private final ThreadLocal<Rollout> rollouts = new ThreadLocal<>();
+
+    // The walls being solved against, copied once per solve
+    private final EntityStore<?> layout = new EntityStore<>(index -> {
+        throw new UnsupportedOperationException("Walls being solved against have no views");
+    });
+
+    // Per candidate, only valid during a solve
+    private final int[] targetXs;
+    private final int[] targetYs;
+    private final int[] trials;
+    private final int[] successes;
+    private final int[] live;  // The candidates still in the running
+    private int liveCount;
+
+    // The same for every candidate in a round
+    private final int[] delays = new int[MAX_SAMPLES_PER_ROUND];
+    private final double[] nudges = new double[MAX_SAMPLES_PER_ROUND];
+
+    private double width;
+    private double height;
+    private int launchX;
+    private int launchY;
+    private double shotSpeed;
+    private long deadline;
+
+    /**
+     * Constructs a new AimSolver.
+     *
+     * @param pool The pool to fly shots on, or {@code null} to fly them on
+     * the calling thread.
+     * @param flightMode How each shot is flown; {@link FlightMode#STEPPED}
+     * matches the game on screen exactly.
+     * @param candidateCount The number of angles to try.
+     * @param seed The seed for the random delays and nudges.
+     */
+    public AimSolver(final ForkJoinPool pool, final FlightMode flightMode, final int candidateCount,
+            final long seed) {
+        if (candidateCount <= 0) {
+            throw new IllegalArgumentException("Candidate count must be positive.");
+        }
+        this.pool = pool;
+        this.flightMode = flightMode;
+        this.candidateCount = candidateCount;
+        this.random = new Random(seed);
+        targetXs = new int[candidateCount];
+        targetYs = new int[candidateCount];
+        trials = new int[candidateCount];
+        successes = new int[candidateCount];
+        live = new int[candidateCount];
+    }
+
+    /**
+     * Finds the angle most likely to get a shot from a launch point to the
+     * top of a world, as the world stands now.
+     *
+     * @param world The world to aim in. Its lock is only held while its walls
+     * are copied.
+     * @param launchX The x-coordinate a shot is spawned at.
+     * @param launchY The y-coordinate a shot is spawned at.
+     * @param shotSpeed The speed (in pixels per tick) of a shot.
+     * @param budgetNanos The longest to spend, or {@link Long#MAX_VALUE} for
+     * no limit.
+     * @param maxSamples The most shots to fly at any one angle.
+     * @return The best angle found.
+     */
+    public Solution solve(final World world, final int launchX, final int launchY, final double shotSpeed,
+            final long budgetNanos, final int maxSamples) {
+        final long start = System.nanoTime();
+        deadline = budgetNanos == Long.MAX_VALUE ? Long.MAX_VALUE : start + budgetNanos;
+
+        synchronized (world) {
+            layout.copyFrom(world.getWallStore()); // Brings the walls up to date first
+            width = world.getWidth();
+            height = world.getHeight();
+        }
+        this.launchX = launchX;
+        this.launchY = launchY;
+        this.shotSpeed = shotSpeed;
+
+        // Spread evenly from leaning furthest left to leaning furthest right
+        for (int c = 0; c < candidateCount; c++) {
+            final double lean = candidateCount == 1 ? 0
+                    : -MAX_LEAN_DEGREES + 2 * MAX_LEAN_DEGREES * c / (candidateCount - 1);
+            final double radians = Math.toRadians(270 + lean); // Straight up the screen is 270
+            targetXs[c] = launchX + (int) Math.round(TARGET_DISTANCE * Math.cos(radians));
+            targetYs[c] = launchY + (int) Math.round(TARGET_DISTANCE * Math.sin(radians));
+            trials[c] = 0;
+            successes[c] = 0;
+            live[c] = c;
+        }
+        liveCount = candidateCount;
+
+        int roundSamples = 1;
+        while (liveCount > 1 && System.nanoTime() < deadline && trials[live[0]] < maxSamples) {
+            final int samples = Math.min(roundSamples, maxSamples - trials[live[0]]);
+            for (int s = 0; s < samples; s++) {
+                delays[s] = random.nextInt(MAX_DELAY_STEPS + 1);
+                nudges[s] = (random.nextDouble() * 2 - 1) * MAX_NUDGE_DEGREES;
+            }
+            if (pool == null || liveCount <= CANDIDATES_PER_TASK) {
+                tryCandidates(0, liveCount, samples);
+            } else {
+                pool.invoke(new RoundTask(0, liveCount, samples));
+            }
+            dropBeaten();
+            roundSamples = Math.min(roundSamples * 2, MAX_SAMPLES_PER_ROUND);
+        }
+        return best();
+    }
+
+    /**
+     * Flies a round of shots for a range of the remaining candidates,
+     * stopping early once the time budget runs out.
+     *
+     * @param start The first position in the remaining candidates.
+     * @param end One past the last position.
+     * @param samples The number of shots to fly for each.
+     */
+    private void tryCandidates(final int start, final int end, final int samples) {
+        Rollout rollout = rollouts.get();
+        if (rollout == null || rollout.world.getWidth() != width || rollout.world.getHeight() != height) {
+            rollout = new Rollout(width, height);
+            rollouts.set(rollout);
+        }
+
+        for (int k = start; k < end; k++) {
+            final int candidate = live[k];
+            for (int s = 0; s < samples; s++) {
+                if (System.nanoTime() >= deadline) {
+                    return;
+                }
+                trials[candidate]++;
+                if (fly(rollout, targetXs[candidate], targetYs[candidate], delays[s], nudges[s])) {
+                    successes[candidate]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Flies one shot through a copy of the walls.
+     *
+     * @return Whether the shot reached the top.
+     */
+    private boolean fly(final Rollout rollout, final int targetX, final int targetY, final int delay,
+            final double nudge) {
+        final World world = rollout.world;
+        world.copyWallsFrom(layout);
+        for (int step = 0; step < delay; step++) {
+            world.update(STEP_SECONDS); // Only moves the walls' clock on
+        }
+
+        // Aimed just as the blaster aims, then nudged
+        rollout.aim.setTowards(launchX, launchY, targetX, targetY);
+        rollout.aim.setDegrees(rollout.aim.getDegrees() + nudge);
+        rollout.scored = false;
+        rollout.stopped = false;
+        final int index = world.spawnBubble(launchX, launchY, RandomColour.ULTRAVIOLET,
+                rollout.aim.getDeltaX(shotSpeed), rollout.aim.getDeltaY(shotSpeed));
+
+        if (flightMode == FlightMode.EVENT_DRIVEN) {
+            world.flyBubble(index, STEP_SECONDS, MAX_FLIGHT_STEPS);
+        } else {
+            for (int step = 0; !rollout.stopped && step < MAX_FLIGHT_STEPS; step++) {
+                world.update(STEP_SECONDS);
+            }
+        }
+        return rollout.scored;
+    }
+
+    /**
+     * Drops every remaining candidate whose chance is, with high confidence,
+     * below the best one's, keeping the rest in order.
+     */
+    private void dropBeaten() {
+        double bestLower = 0;
+        for (int k = 0; k < liveCount; k++) {
+            final int c = live[k];
+            bestLower = Math.max(bestLower, rate(c) - margin(c));
+        }
+
+        int kept = 0;
+        for (int k = 0; k < liveCount; k++) {
+            final int c = live[k];
+            if (trials[c] == 0 || rate(c) + margin(c) >= bestLower) {
+                live[kept++] = c;
+            }
+        }
+        liveCount = kept;
+    }
+
+    /**
+     * Returns the candidate with the highest chance, preferring the one with
+     * more shots behind it and then the one closest to straight up.
+     */
+    private Solution best() {
+        int best = -1;
+        for (int c = 0; c < candidateCount; c++) {
+            if (trials[c] == 0) {
+                continue;
+            }
+            if (best < 0 || rate(c) > rate(best) || rate(c) == rate(best) && (trials[c] > trials[best]
+                    || trials[c] == trials[best] && uprightness(c) < uprightness(best))) {
+                best = c;
+            }
+        }
+        if (best < 0) {
+            best = candidateCount / 2; // Nothing was flown in time
+        }
+
+        final Bearing2D bearing = new Bearing2D(launchX, launchY, targetXs[best], targetYs[best]);
+        return new Solution(launchX, launchY, bearing.getDegrees(), targetXs[best], targetYs[best],
+                trials[best] == 0 ? 0 : rate(best), trials[best]);
+    }
+
+    private double rate(final int candidate) {
+        return (double) successes[candidate] / trials[candidate];
+    }
+
+    /**
+     * Returns how far a candidate's true chance could be from its rate, by
+     * Hoeffding's inequality.
+     */
+    private double margin(final int candidate) {
+        return Math.sqrt(Math.log(2 / DROP_CONFIDENCE) / (2.0 * trials[candidate]));
+    }
+
+    private int uprightness(final int candidate) {
+        return Math.abs(2 * candidate - (candidateCount - 1));
+    }
+
+    /**
+     * Flies a round for a range of the remaining candidates, splitting it in
+     * half until each task has only a few.
+     */
+    private final class RoundTask extends RecursiveAction {
+
+        private final int start;
+        private final int end;
+        private final int samples;
+
+        private RoundTask(final int start, final int end, final int samples) {
+            this.start = start;
+            this.end = end;
+            this.samples = samples;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > CANDIDATES_PER_TASK) {
+                final int middle = (start + end) >>> 1;
+                invokeAll(new RoundTask(start, middle, samples), new RoundTask(middle, end, samples));
+                return;
+            }
+            tryCandidates(start, end, samples);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.rikuthin.simulation;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Plays many headless games back to back and reports throughput. Intended for
+ * balancing and regression jobs on machines without a display.
+ * <p>
+ * Usage:
+ * {@code BatchSimulation [games] [seed] [stepped|event_driven] [random|solver]}.
+ * By default every shot is aimed at a random point in the upper half of the
+ * playing field. With {@code solver}, every shot is aimed by an
+ * {@link AimSolver} instead, as a baseline bot; it tries a fixed number of
+ * shots per angle rather than working to a time budget, so its games are the
+ * same from run to run.
+ * </p>
+ */
+public final class BatchSimulation {
+
+    /**
+     * The most shots the solver bot tries at each angle.
+     */
+    private static final int SOLVER_SAMPLES = 32;
+
+    private BatchSimulation() {
+    }
+
+    public static void main(String[] args) {
+        final int games = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        final long seed = args.length > 1 ? Long.parseLong(args[1]) : 42L;
+        final FlightMode flightMode = FlightMode.parse(args.length > 2 ? args[2] : null, FlightMode.STEPPED);
+        final boolean useSolver = args.length > 3 && args[3].equalsIgnoreCase("solver");
+
+        final Random aim = new Random(seed);
+        final AimSolver solver = useSolver
+                ? new AimSolver(ForkJoinPool.commonPool(), flightMode, AimSolver.DEFAULT_CANDIDATES, seed)
+                : null;
+        long totalScore = 0;
+        long totalTicks = 0;
+
+        final long start = System.nanoTime();
+        for (int i = 0; i < games; i++) {
+            HeadlessGame game = new HeadlessGame(seed + i, flightMode, GameSession.SHOT_SPEED);
+            while (!game.isOver()) {
+                if (solver != null) {
+                    final AimSolver.Solution solution = solver.solve(game.getWorld(), game.getLaunchX(),
+                            game.getLaunchY(), game.getShotSpeed(), Long.MAX_VALUE, SOLVER_SAMPLES);
+                    game.shoot(solution.getTargetX(), solution.getTargetY());
+                } else {
+                    game.shoot(aim.nextInt(World.DEFAULT_WIDTH), aim.nextInt(World.DEFAULT_HEIGHT / 2));
+                }
+            }
+            totalScore += game.getScore();
+            totalTicks += game.getTicks();
+        }
+        final double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("Flight mode: %s, aim: %s%n", flightMode, useSolver ? "solver" : "random");
+        System.out.printf("Games: %d in %.2fs (%.0f games/s, %.0f ticks/s)%n",
+                games, seconds, games / seconds, totalTicks / seconds);
+        System.out.printf("Average score: %.1f%n", (double) totalScore / games);
+    }
+}
@@ -0,0 +1,138 @@
+package com.rikuthin.simulation;
+
+/**
+ * Narrow-phase collision tests that run over primitive coordinate arrays, such
+ * as the columns of an {@link EntityStore}.
+ * <p>
+ * Every kernel gives exactly the same answers as the AWT geometry classes:
+ * an ellipse hits a box when
+ * {@link java.awt.geom.Ellipse2D#intersects(double, double, double, double)}
+ * says so, and two boxes overlap when
+ * {@link java.awt.geom.Rectangle2D#intersects(double, double, double, double)}
+ * says so. Touching edges don't count, and empty shapes never hit anything.
+ * </p>
+ * <p>
+ * {@link #preferred()} uses the {@code jdk.incubator.vector} API when the JVM
+ * was started with {@code --add-modules jdk.incubator.vector}, and the plain
+ * loops of {@link #scalar()} otherwise. Kernels hold no state, so one kernel
+ * can be shared by any number of threads.
+ * </p>
+ */
+public interface CollisionKernel {
+
+    /**
+     * Finds the first box in a range that an ellipse overlaps.
+     *
+     * @param x The x-coordinate of the ellipse's bounds.
+     * @param y The y-coordinate of the ellipse's bounds.
+     * @param width The width of the ellipse.
+     * @param height The height of the ellipse.
+     * @param xs The x-coordinates of the boxes.
+     * @param ys The y-coordinates of the boxes.
+     * @param widths The widths of the boxes.
+     * @param heights The heights of the boxes.
+     * @param from The first index to test.
+     * @param to The index just past the last one to test.
+     * @return The lowest index of an overlapping box, or -1 if there is none.
+     */
+    int firstEllipseHit(double x, double y, double width, double height, double[] xs, double[] ys,
+            double[] widths, double[] heights, int from, int to);
+
+    /**
+     * Finds the first box in a range that another box overlaps.
+     *
+     * @param x The x-coordinate of the box.
+     * @param y The y-coordinate of the box.
+     * @param width The width of the box.
+     * @param height The height of the box.
+     * @param xs The x-coordinates of the other boxes.
+     * @param ys The y-coordinates of the other boxes.
+     * @param widths The widths of the other boxes.
+     * @param heights The heights of the other boxes.
+     * @param from The first index to test.
+     * @param to The index just past the last one to test.
+     * @param skip An index to leave out, such as the box's own row, or -1.
+     * @return The lowest index of an overlapping box, or -1 if there is none.
+     */
+    int firstBoxOverlap(double x, double y, double width, double height, double[] xs, double[] ys,
+            double[] widths, double[] heights, int from, int to, int skip);
+
+    /**
+     * Returns a short name for the kernel, for logs and benchmarks.
+     *
+     * @return The kernel's name.
+     */
+    String getName();
+
+    /**
+     * Returns the kernel made of plain loops, which works on any JVM.
+     *
+     * @return The scalar kernel.
+     */
+    static CollisionKernel scalar() {
+        return ScalarCollisionKernel.INSTANCE;
+    }
+
+    /**
+     * Returns the fastest kernel this JVM can run: the vector kernel if the
+     * incubator module is present, otherwise the scalar one.
+     *
+     * @return The preferred kernel.
+     */
+    static CollisionKernel preferred() {
+        return ScalarCollisionKernel.PREFERRED;
+    }
+
+    /**
+     * Tests whether an ellipse overlaps a box, with the same arithmetic as
+     * {@link java.awt.geom.Ellipse2D#intersects(double, double, double, double)}.
+     *
+     * @param x The x-coordinate of the ellipse's bounds.
+     * @param y The y-coordinate of the ellipse's bounds.
+     * @param width The width of the ellipse.
+     * @param height The height of the ellipse.
+     * @param boxX The x-coordinate of the box.
+     * @param boxY The y-coordinate of the box.
+     * @param boxWidth The width of the box.
+     * @param boxHeight The height of the box.
+     * @return Whether the two overlap.
+     */
+    static boolean ellipseHitsBox(final double x, final double y, final double width, final double height,
+            final double boxX, final double boxY, final double boxWidth, final double boxHeight) {
+        if (boxWidth <= 0 || boxHeight <= 0 || width <= 0 || height <= 0) {
+            return false;
+        }
+
+        // Normalise the box into the ellipse's unit circle and find its nearest point
+        final double normX0 = (boxX - x) / width - 0.5;
+        final double normX1 = normX0 + boxWidth / width;
+        final double normY0 = (boxY - y) / height - 0.5;
+        final double normY1 = normY0 + boxHeight / height;
+
+        final double nearX = normX0 > 0 ? normX0 : (normX1 < 0 ? normX1 : 0);
+        final double nearY = normY0 > 0 ? normY0 : (normY1 < 0 ? normY1 : 0);
+        return nearX * nearX + nearY * nearY < 0.25;
+    }
+
+    /**
+     * Tests whether two boxes overlap, with the same arithmetic as
+     * {@link java.awt.geom.Rectangle2D#intersects(double, double, double, double)}.
+     *
+     * @param x The x-coordinate of the first box.
+     * @param y The y-coordinate of the first box.
+     * @param width The width of the first box.
+     * @param height The height of the first box.
+     * @param boxX The x-coordinate of the second box.
+     * @param boxY The y-coordinate of the second box.
+     * @param boxWidth The width of the second box.
+     * @param boxHeight The height of the second box.
+     * @return Whether the two overlap.
+     */
+    static boolean boxesOverlap(final double x, final double y, final double width, final double height,
+            final double boxX, final double boxY, final double boxWidth, final double boxHeight) {
+        if (boxWidth <= 0 || boxHeight <= 0 || width <= 0 || height <= 0) {
+            return false;
+        }
+        return x + width > boxX && y + height > boxY && x < boxX + boxWidth && y < boxY + boxHeight;
+    }
+}
@@ -0,0 +1,76 @@
+package com.rikuthin.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Holds back a world's move events until the snapshot showing the moves has
+ * been published.
+ * <p>
+ * A renderer repaints the regions it is told about from the newest
+ * snapshot. Were it told about a move during the tick, it could repaint that
+ * region from an older snapshot that still has the entity where it was, and
+ * nothing would mark the region again once the newer snapshot came out. So
+ * while a world has a snapshot buffer, moves are kept here and passed on by
+ * {@link #flush()} just after each publication. Every other event is passed
+ * on straight away.
+ * </p>
+ * <p>
+ * Only used with the world's lock held. Moves are kept in one growing array,
+ * so once it is big enough for a frame's worth, holding them back allocates
+ * nothing.
+ * </p>
+ */
+final class DeferredDamage implements WorldListener {
+
+    private static final int FIELDS = 6; // {oldX, oldY, newX, newY, width, height}
+
+    private final WorldListener target;
+    private double[] moves = new double[FIELDS * 64];
+    private int moveCount;
+
+    /**
+     * Constructs a new DeferredDamage.
+     *
+     * @param target The listener to pass events on to.
+     */
+    DeferredDamage(final WorldListener target) {
+        this.target = target;
+    }
+
+    @Override
+    public void onEntityMoved(final double oldX, final double oldY, final double newX, final double newY,
+            final double width, final double height) {
+        int i = moveCount * FIELDS;
+        if (i == moves.length) {
+            moves = Arrays.copyOf(moves, moves.length * 2);
+        }
+        moves[i++] = oldX;
+        moves[i++] = oldY;
+        moves[i++] = newX;
+        moves[i++] = newY;
+        moves[i++] = width;
+        moves[i] = height;
+        moveCount++;
+    }
+
+    @Override
+    public void onPointsScored(final int points) {
+        target.onPointsScored(points);
+    }
+
+    @Override
+    public void onBubbleStopped() {
+        target.onBubbleStopped();
+    }
+
+    /**
+     * Passes on every move held back since the last flush, in the order they
+     * happened.
+     */
+    void flush() {
+        for (int i = 0; i < moveCount * FIELDS; i += FIELDS) {
+            target.onEntityMoved(moves[i], moves[i + 1], moves[i + 2], moves[i + 3], moves[i + 4], moves[i + 5]);
+        }
+        moveCount = 0;
+    }
+}
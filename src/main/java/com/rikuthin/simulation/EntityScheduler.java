@@ -0,0 +1,42 @@
+package com.rikuthin.simulation;
+
+/**
+ * Decides which threads advance a game's entities and how often.
+ * <p>
+ * A scheduler belongs to exactly one game session. Everything it starts is
+ * stopped together when {@link #stop()} is called, so nothing from a previous
+ * game keeps running once a new one begins.
+ * </p>
+ */
+public interface EntityScheduler {
+
+    /**
+     * Registers an entity so it starts receiving updates. Safe to call from
+     * any thread, before or after {@link #start()}.
+     *
+     * @param entity The entity to add.
+     */
+    void add(Updatable entity);
+
+    /**
+     * Schedules every entity in a world, along with any added to it later.
+     * By default each entity is scheduled on its own.
+     *
+     * @param world The world to schedule.
+     */
+    default void attach(final World world) {
+        world.setSpawnListener(this::add);
+        world.forEachEntity(this::add);
+    }
+
+    /**
+     * Starts updating every registered entity.
+     */
+    void start();
+
+    /**
+     * Stops updating every entity and waits for the scheduler's threads to
+     * finish.
+     */
+    void stop();
+}
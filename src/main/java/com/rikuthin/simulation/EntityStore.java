@@ -0,0 +1,408 @@
+package com.rikuthin.simulation;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * Stores one kind of entity as a structure of arrays.
+ * <p>
+ * Every entity is a row index into parallel primitive arrays holding its
+ * position, size, velocity, palette index and flags. Rows are kept packed in
+ * {@code [0, size())}, so the tick and render loops walk each array in order
+ * without touching any per-entity objects. Removing a row moves the last row
+ * into its place.
+ * </p>
+ * <p>
+ * Rows move, so anything that needs to find an entity again later holds its
+ * handle instead. A handle names a slot in a table that maps to the entity's
+ * current row, and the slot's generation, which goes up every time an entity
+ * using that slot is removed. Looking up a handle is a couple of array reads,
+ * and a handle to a removed entity is recognised as stale even once its slot
+ * has been reused.
+ * </p>
+ * <p>
+ * Object views of an entity are optional and only created when asked for;
+ * the store keeps each view's index up to date as rows move. The store is not
+ * thread-safe; its owner is responsible for locking.
+ * </p>
+ *
+ * @param <V> The type of object view for the entities.
+ */
+public final class EntityStore<V extends EntityStore.View> {
+
+    /**
+     * An object that refers to a row of the store.
+     */
+    public interface View {
+
+        /**
+         * Called when the entity's row changes, or with {@code -1} when the
+         * entity is removed.
+         *
+         * @param index The entity's new row.
+         */
+        void setIndex(int index);
+    }
+
+    /**
+     * Set while the entity is moving.
+     */
+    public static final byte FLAG_MOVING = 1;
+
+    /**
+     * A handle that never refers to an entity.
+     */
+    public static final long NO_HANDLE = 0;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final IntFunction<V> viewFactory;
+
+    private double[] x;
+    private double[] y;
+    private double[] width;
+    private double[] height;
+    private double[] dx;
+    private double[] dy;
+    private byte[] palette;
+    private byte[] flags;
+    private Object[] views;
+    private int[] rowSlots; // Each row's slot
+    private int size;
+
+    // The slot table: each slot's row, or -1 while free, and its generation
+    private int[] slotRows;
+    private int[] slotGenerations;
+    private int[] freeSlots; // A stack of the free slots below slotCount
+    private int freeCount;
+    private int slotCount;
+
+    /**
+     * Constructs a new, empty EntityStore.
+     *
+     * @param viewFactory Creates the view for a row the first time one is
+     * needed.
+     */
+    public EntityStore(final IntFunction<V> viewFactory) {
+        this.viewFactory = viewFactory;
+        x = new double[INITIAL_CAPACITY];
+        y = new double[INITIAL_CAPACITY];
+        width = new double[INITIAL_CAPACITY];
+        height = new double[INITIAL_CAPACITY];
+        dx = new double[INITIAL_CAPACITY];
+        dy = new double[INITIAL_CAPACITY];
+        palette = new byte[INITIAL_CAPACITY];
+        flags = new byte[INITIAL_CAPACITY];
+        views = new Object[INITIAL_CAPACITY];
+        rowSlots = new int[INITIAL_CAPACITY];
+        size = 0;
+        slotRows = new int[INITIAL_CAPACITY];
+        slotGenerations = new int[INITIAL_CAPACITY];
+        freeSlots = new int[INITIAL_CAPACITY];
+        Arrays.fill(slotGenerations, 1); // So that no handle is NO_HANDLE
+    }
+
+    /**
+     * Returns the number of entities in the store.
+     *
+     * @return The number of rows in use.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds an entity to the end of the store.
+     *
+     * @param x The x-coordinate of the entity's bounds.
+     * @param y The y-coordinate of the entity's bounds.
+     * @param width The width of the entity's bounds.
+     * @param height The height of the entity's bounds.
+     * @param dx The change in x per tick.
+     * @param dy The change in y per tick.
+     * @param palette The index of the entity's colour.
+     * @param moving Whether the entity starts out moving.
+     * @return The entity's row.
+     */
+    public int add(final double x, final double y, final double width, final double height,
+            final double dx, final double dy, final int palette, final boolean moving) {
+        if (size == this.x.length) {
+            grow();
+        }
+
+        final int index = size++;
+        this.x[index] = x;
+        this.y[index] = y;
+        this.width[index] = width;
+        this.height[index] = height;
+        this.dx[index] = dx;
+        this.dy[index] = dy;
+        this.palette[index] = (byte) palette;
+        this.flags[index] = moving ? FLAG_MOVING : 0;
+        this.views[index] = null;
+
+        final int slot = freeCount > 0 ? freeSlots[--freeCount] : newSlot();
+        slotRows[slot] = index;
+        rowSlots[index] = slot;
+        return index;
+    }
+
+    /**
+     * Removes an entity, moving the last row into its place.
+     *
+     * @param index The row to remove.
+     */
+    public void remove(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("No entity at row " + index);
+        }
+
+        final View removed = (View) views[index];
+        releaseSlot(rowSlots[index]);
+        final int last = --size;
+        if (index != last) {
+            x[index] = x[last];
+            y[index] = y[last];
+            width[index] = width[last];
+            height[index] = height[last];
+            dx[index] = dx[last];
+            dy[index] = dy[last];
+            palette[index] = palette[last];
+            flags[index] = flags[last];
+            views[index] = views[last];
+            rowSlots[index] = rowSlots[last];
+            slotRows[rowSlots[index]] = index;
+            if (views[index] != null) {
+                ((View) views[index]).setIndex(index);
+            }
+        }
+        views[last] = null;
+
+        if (removed != null) {
+            removed.setIndex(-1);
+        }
+    }
+
+    /**
+     * Removes every entity.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            releaseSlot(rowSlots[i]);
+            if (views[i] != null) {
+                ((View) views[i]).setIndex(-1);
+            }
+        }
+        Arrays.fill(views, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Replaces every row and handle with a copy of another store's. Views
+     * aren't copied. The backing arrays grow to the other store's capacity,
+     * so copying again allocates nothing until the other store grows.
+     *
+     * @param source The store to copy.
+     */
+    public void copyFrom(final EntityStore<?> source) {
+        clear();
+        while (x.length < source.x.length) {
+            grow();
+        }
+        while (slotRows.length < source.slotRows.length) {
+            growSlots();
+        }
+
+        final int count = source.size;
+        System.arraycopy(source.rowSlots, 0, rowSlots, 0, count);
+        System.arraycopy(source.slotRows, 0, slotRows, 0, source.slotCount);
+        System.arraycopy(source.slotGenerations, 0, slotGenerations, 0, source.slotCount);
+        System.arraycopy(source.freeSlots, 0, freeSlots, 0, source.freeCount);
+        slotCount = source.slotCount;
+        freeCount = source.freeCount;
+        System.arraycopy(source.x, 0, x, 0, count);
+        System.arraycopy(source.y, 0, y, 0, count);
+        System.arraycopy(source.width, 0, width, 0, count);
+        System.arraycopy(source.height, 0, height, 0, count);
+        System.arraycopy(source.dx, 0, dx, 0, count);
+        System.arraycopy(source.dy, 0, dy, 0, count);
+        System.arraycopy(source.palette, 0, palette, 0, count);
+        System.arraycopy(source.flags, 0, flags, 0, count);
+        size = count;
+    }
+
+    /**
+     * Makes room for a number of entities up front. Removed rows and slots
+     * are reused by later adds, so a store never holding more than this many
+     * entities at once allocates nothing from then on.
+     *
+     * @param capacity The number of entities to make room for.
+     */
+    public void reserve(final int capacity) {
+        while (x.length < capacity) {
+            grow();
+        }
+        while (slotRows.length < capacity) {
+            growSlots();
+        }
+    }
+
+    /**
+     * Returns the handle of the entity in a row, which stays the same for as
+     * long as the entity is in the store.
+     *
+     * @param index The entity's row.
+     * @return The entity's handle.
+     */
+    public long handle(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("No entity at row " + index);
+        }
+        final int slot = rowSlots[index];
+        return ((long) slotGenerations[slot] << 32) | slot;
+    }
+
+    /**
+     * Finds the row of the entity a handle refers to.
+     *
+     * @param handle The entity's handle.
+     * @return The entity's current row, or -1 if the handle is stale or was
+     * never issued by this store.
+     */
+    public int indexOf(final long handle) {
+        final int slot = (int) handle;
+        if (slot < 0 || slot >= slotCount || slotGenerations[slot] != (int) (handle >>> 32)) {
+            return -1;
+        }
+        return slotRows[slot];
+    }
+
+    /**
+     * Checks whether a handle still refers to an entity in the store.
+     *
+     * @param handle The handle to check.
+     * @return Whether the entity is still in the store.
+     */
+    public boolean contains(final long handle) {
+        return indexOf(handle) >= 0;
+    }
+
+    /**
+     * Returns the object view of an entity, creating it if needed.
+     *
+     * @param index The entity's row.
+     * @return The entity's view.
+     */
+    @SuppressWarnings("unchecked")
+    public V view(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("No entity at row " + index);
+        }
+        if (views[index] == null) {
+            views[index] = viewFactory.apply(index);
+        }
+        return (V) views[index];
+    }
+
+    public boolean isMoving(final int index) {
+        return (flags[index] & FLAG_MOVING) != 0;
+    }
+
+    public void setMoving(final int index, final boolean moving) {
+        if (moving) {
+            flags[index] |= FLAG_MOVING;
+        } else {
+            flags[index] &= ~FLAG_MOVING;
+        }
+    }
+
+    // The backing arrays. Only rows [0, size()) are valid, and the arrays are
+    // replaced when the store grows, so don't hold on to them across adds.
+
+    public double[] x() {
+        return x;
+    }
+
+    public double[] y() {
+        return y;
+    }
+
+    public double[] width() {
+        return width;
+    }
+
+    public double[] height() {
+        return height;
+    }
+
+    public double[] dx() {
+        return dx;
+    }
+
+    public double[] dy() {
+        return dy;
+    }
+
+    public byte[] palette() {
+        return palette;
+    }
+
+    public byte[] flags() {
+        return flags;
+    }
+
+    /**
+     * Doubles the capacity of every backing array.
+     */
+    private void grow() {
+        final int capacity = x.length * 2;
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        width = Arrays.copyOf(width, capacity);
+        height = Arrays.copyOf(height, capacity);
+        dx = Arrays.copyOf(dx, capacity);
+        dy = Arrays.copyOf(dy, capacity);
+        palette = Arrays.copyOf(palette, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        views = Arrays.copyOf(views, capacity);
+        rowSlots = Arrays.copyOf(rowSlots, capacity);
+    }
+
+    /**
+     * Takes a slot that has never been used, growing the slot table if it is
+     * full.
+     *
+     * @return The slot.
+     */
+    private int newSlot() {
+        if (slotCount == slotRows.length) {
+            growSlots();
+        }
+        return slotCount++;
+    }
+
+    /**
+     * Frees a slot for reuse, moving its generation on so that handles to it
+     * go stale.
+     *
+     * @param slot The slot to free.
+     */
+    private void releaseSlot(final int slot) {
+        slotRows[slot] = -1;
+        // Skips 0 on wrapping around, so that no handle is NO_HANDLE
+        slotGenerations[slot] = slotGenerations[slot] == -1 ? 1 : slotGenerations[slot] + 1;
+        freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * Doubles the capacity of the slot table.
+     */
+    private void growSlots() {
+        final int oldCapacity = slotRows.length;
+        final int capacity = oldCapacity * 2;
+        slotRows = Arrays.copyOf(slotRows, capacity);
+        slotGenerations = Arrays.copyOf(slotGenerations, capacity);
+        freeSlots = Arrays.copyOf(freeSlots, capacity);
+        Arrays.fill(slotGenerations, oldCapacity, capacity, 1);
+    }
+}
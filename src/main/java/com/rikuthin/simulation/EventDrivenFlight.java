@@ -0,0 +1,311 @@
+package com.rikuthin.simulation;
+
+import java.util.Arrays;
+
+import com.rikuthin.game_objects.Bubble;
+import com.rikuthin.game_objects.Wall;
+
+/**
+ * Flies a bubble from event to event instead of step by step.
+ * <p>
+ * Between events everything moves in straight lines: the bubble at its
+ * velocity, and each wall at a constant speed for the rest of its current
+ * run, as given by {@link WallMotion}. So the time of every possible contact
+ * can be worked out up front: the bubble reaching a side, the top or the
+ * bottom of the world, a wall ending its run, or the bubble touching a wall
+ * (with {@link SweptCollision}). These sit in an {@link ImpactQueue}, and the
+ * flight jumps straight to the earliest one. A bounce changes the bubble's
+ * path, so every contact is worked out again; a wall turning only changes
+ * that wall's.
+ * </p>
+ * <p>
+ * Time is measured in steps from the start of the flight. Walls move
+ * smoothly between the positions they have at whole steps. The bubble is
+ * treated as a circle as wide as its bounds. A shot starts below the bottom
+ * edge, heading down, and bounces straight off it.
+ * </p>
+ * <p>
+ * Guarded by the world's lock.
+ * </p>
+ */
+final class EventDrivenFlight {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Event kinds
+    private static final int EDGE = 0;
+    private static final int WALL_RUN_END = 1;
+    private static final int WALL_CONTACT = 2;
+
+    // Which edge an edge event is for
+    private static final int SIDE = 0;
+    private static final int TOP = 1;
+    private static final int BOTTOM = 2;
+
+    private final World world;
+    private final EntityStore<Wall> walls;
+    private final EntityStore<Bubble> bubbles;
+    private final WallMotion wallMotion;
+    private final ImpactQueue queue = new ImpactQueue();
+
+    // Each wall's current run: when it started, where the wall was then, and its speed per step
+    private long[] runStarts = new long[INITIAL_CAPACITY];
+    private double[] runXs = new double[INITIAL_CAPACITY];
+    private double[] runSpeeds = new double[INITIAL_CAPACITY];
+    private int[] wallVersions = new int[INITIAL_CAPACITY];
+
+    // The bubble's current path: when it started, where its centre was then, and its velocity per step
+    private double pathStart;
+    private double centreX;
+    private double centreY;
+    private double vx;
+    private double vy;
+    private double radius;
+    private int bubbleVersion;
+
+    private long startStep;
+    private double maxTime;
+
+    /**
+     * Constructs a new EventDrivenFlight.
+     *
+     * @param world The world the bubbles fly in.
+     * @param walls The world's wall store.
+     * @param bubbles The world's bubble store.
+     * @param wallMotion The world's wall paths.
+     */
+    EventDrivenFlight(final World world, final EntityStore<Wall> walls, final EntityStore<Bubble> bubbles,
+            final WallMotion wallMotion) {
+        this.world = world;
+        this.walls = walls;
+        this.bubbles = bubbles;
+        this.wallMotion = wallMotion;
+    }
+
+    /**
+     * Flies a bubble until it stops or runs out of time. The bubble's row is
+     * left where the bubble is at the end, the world's clock is moved on to
+     * the end of the step the flight ended in, and the listener hears about
+     * the outcome just as it would from {@link Bubble#finishMove}.
+     *
+     * @param index The bubble's row.
+     * @param ticks How many ticks' worth of movement each step is.
+     * @param maxSteps The most steps to fly for.
+     * @return The number of steps the flight took.
+     */
+    long fly(final int index, final double ticks, final long maxSteps) {
+        wallMotion.setStepTicks(ticks); // Walls are read off their paths, so the store can stay as it is
+        startStep = wallMotion.getStep();
+        maxTime = maxSteps;
+        queue.clear();
+
+        final double oldX = bubbles.x()[index];
+        final double oldY = bubbles.y()[index];
+        radius = bubbles.width()[index] / 2;
+        pathStart = 0;
+        centreX = oldX + radius;
+        centreY = oldY + radius;
+        vx = bubbles.dx()[index] * ticks;
+        vy = bubbles.dy()[index] * ticks;
+        bubbleVersion = 0;
+        if (vy > 0 && centreY > world.getHeight() - radius) {
+            // A shot starts below the bottom edge, so bounce now rather than after scheduling every wall
+            vy = -vy;
+            centreY = world.getHeight() - radius;
+        }
+
+        if (walls.size() > runStarts.length) {
+            grow(Math.max(walls.size(), runStarts.length * 2));
+        }
+        for (int i = 0; i < walls.size(); i++) {
+            wallVersions[i] = 0;
+            startRun(i, startStep);
+        }
+        scheduleEdge();
+
+        while (queue.poll() && queue.time() <= maxTime) {
+            final double time = queue.time();
+            final int subject = queue.subject();
+            switch (queue.kind()) {
+                case EDGE:
+                    if (queue.version() != bubbleVersion) {
+                        break; // The bubble has bounced since
+                    }
+                    moveTo(time);
+                    if (subject == TOP) {
+                        return stop(index, Bubble.REACHED_TOP, time, oldX, oldY, ticks);
+                    }
+                    // Moved onto the edge if it started past it, just as stepping would
+                    if (subject == SIDE) {
+                        vx = -vx;
+                        centreX = Math.clamp(centreX, radius, world.getWidth() - radius);
+                    } else {
+                        vy = -vy;
+                        centreY = Math.min(centreY, world.getHeight() - radius);
+                    }
+                    bubbleVersion++;
+                    scheduleEdge();
+                    for (int i = 0; i < walls.size(); i++) {
+                        scheduleContact(i);
+                    }
+                    break;
+                case WALL_RUN_END:
+                    if (queue.version() == wallVersions[subject]) {
+                        wallVersions[subject]++;
+                        startRun(subject, startStep + (long) time);
+                    }
+                    break;
+                default:
+                    if (queue.version() == contactVersion(subject)) {
+                        moveTo(time);
+                        return stop(index, Bubble.HIT_WALL, time, oldX, oldY, ticks);
+                    }
+                    break;
+            }
+        }
+
+        // Still flying when the time ran out
+        moveTo(maxTime);
+        return stop(index, Bubble.MOVED, maxTime, oldX, oldY, ticks);
+    }
+
+    /**
+     * Starts a wall's next run and schedules its end and any contact during
+     * it.
+     *
+     * @param index The wall's row.
+     * @param step The step the run starts at.
+     */
+    private void startRun(final int index, final long step) {
+        final double x = wallMotion.positionAt(index, step);
+        runStarts[index] = step;
+        runXs[index] = x;
+        runSpeeds[index] = wallMotion.positionAt(index, step + 1) - x;
+
+        final long end = wallMotion.runEnd(index, step);
+        if (end != Long.MAX_VALUE && end - startStep <= maxTime) {
+            queue.add(end - startStep, WALL_RUN_END, index, wallVersions[index]);
+        }
+        scheduleContact(index);
+    }
+
+    /**
+     * Schedules the first contact between the bubble's current path and a
+     * wall's current run, if there is one before either changes.
+     *
+     * @param index The wall's row.
+     */
+    private void scheduleContact(final int index) {
+        final double runStart = runStarts[index] - startStep;
+        final double from = Math.max(pathStart, runStart);
+        final double wallX = runXs[index] + runSpeeds[index] * (from - runStart);
+        final double elapsed = from - pathStart;
+
+        final double impact = SweptCollision.circleBoxImpact(centreX + vx * elapsed, centreY + vy * elapsed,
+                radius, vx - runSpeeds[index], vy, wallX, walls.y()[index], walls.width()[index],
+                walls.height()[index], maxTime - from);
+        if (impact != SweptCollision.NO_IMPACT) {
+            queue.add(from + impact, WALL_CONTACT, index, contactVersion(index));
+        }
+    }
+
+    /**
+     * Schedules the bubble reaching the nearest edge of the world on its
+     * current path.
+     */
+    private void scheduleEdge() {
+        final double x = centreX - radius;
+        final double y = centreY - radius;
+        final double furthestX = world.getWidth() - 2 * radius;
+
+        double sideTime = SweptCollision.NO_IMPACT;
+        if (vx > 0) {
+            sideTime = Math.max(0, (furthestX - x) / vx);
+        } else if (vx < 0) {
+            sideTime = Math.max(0, x / -vx);
+        }
+
+        double endTime = SweptCollision.NO_IMPACT;
+        int end = TOP;
+        if (vy < 0) {
+            endTime = Math.max(0, y / -vy);
+        } else if (vy > 0) {
+            endTime = Math.max(0, (world.getHeight() - 2 * radius - y) / vy);
+            end = BOTTOM;
+        }
+
+        // Reaching the top wins a tie, since the flight ends there
+        if (endTime <= sideTime && endTime != SweptCollision.NO_IMPACT) {
+            queue.add(pathStart + endTime, EDGE, end, bubbleVersion);
+        } else if (sideTime != SweptCollision.NO_IMPACT) {
+            queue.add(pathStart + sideTime, EDGE, SIDE, bubbleVersion);
+        }
+    }
+
+    /**
+     * Moves the bubble's path along to a later time.
+     */
+    private void moveTo(final double time) {
+        final double elapsed = time - pathStart;
+        centreX += vx * elapsed;
+        centreY += vy * elapsed;
+        pathStart = time;
+    }
+
+    /**
+     * Ends the flight: writes the bubble's row, moves the clock on and tells
+     * the listener.
+     *
+     * @return The number of steps the flight took.
+     */
+    private long stop(final int index, final int outcome, final double time, final double oldX,
+            final double oldY, final double ticks) {
+        final long steps = Math.max(1, (long) Math.ceil(time));
+        wallMotion.skip(ticks, steps);
+
+        final double width = bubbles.width()[index];
+        final double height = bubbles.height()[index];
+        final double x = centreX - radius;
+        final double y = outcome == Bubble.REACHED_TOP ? 0 : centreY - radius;
+        final WorldListener listener = world.getListener();
+
+        switch (outcome) {
+            case Bubble.HIT_WALL:
+                bubbles.remove(index);
+                listener.onEntityMoved(oldX, oldY, oldX, oldY, width, height);
+                listener.onBubbleStopped();
+                break;
+            case Bubble.REACHED_TOP:
+                bubbles.x()[index] = x;
+                bubbles.y()[index] = y;
+                bubbles.setMoving(index, false);
+                listener.onPointsScored(World.POINTS_PER_BUBBLE);
+                listener.onEntityMoved(oldX, oldY, x, y, width, height);
+                listener.onBubbleStopped();
+                break;
+            default:
+                bubbles.x()[index] = x;
+                bubbles.y()[index] = y;
+                bubbles.dx()[index] = vx / ticks;
+                bubbles.dy()[index] = vy / ticks;
+                listener.onEntityMoved(oldX, oldY, x, y, width, height);
+                break;
+        }
+        return steps;
+    }
+
+    /**
+     * Returns the version a contact with a wall is scheduled against, which
+     * changes whenever the bubble bounces or the wall turns.
+     */
+    private long contactVersion(final int index) {
+        return ((long) wallVersions[index] << 32) | (bubbleVersion & 0xFFFF_FFFFL);
+    }
+
+    private void grow(final int capacity) {
+        runStarts = Arrays.copyOf(runStarts, capacity);
+        runXs = Arrays.copyOf(runXs, capacity);
+        runSpeeds = Arrays.copyOf(runSpeeds, capacity);
+        wallVersions = Arrays.copyOf(wallVersions, capacity);
+    }
+}
@@ -0,0 +1,39 @@
+package com.rikuthin.simulation;
+
+import java.util.Locale;
+
+/**
+ * The ways a headless game can fly its bubbles.
+ */
+public enum FlightMode {
+    /**
+     * The world is updated one step at a time until the bubble stops, just as
+     * in a game on screen.
+     */
+    STEPPED,
+    /**
+     * The bubble jumps from one contact to the next with
+     * {@link World#flyBubble(int, double, long)}. Much cheaper, and immune to
+     * tunnelling, but not always the same outcome as stepping.
+     */
+    EVENT_DRIVEN;
+
+    /**
+     * Parses a flight mode name, ignoring case.
+     *
+     * @param name The mode name, e.g. {@code "event_driven"}.
+     * @param fallback The mode to use if the name is missing or unknown.
+     * @return The matching mode, or the fallback.
+     */
+    public static FlightMode parse(final String name, final FlightMode fallback) {
+        if (name == null || name.isBlank()) {
+            return fallback;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Warning: Unknown flight mode '" + name + "'. Using " + fallback + ".");
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.rikuthin.simulation;
+
+import java.util.Arrays;
+
+import com.rikuthin.game_objects.Wall;
+
+/**
+ * A headless game behind a reset/step interface, for training bots.
+ * <p>
+ * Each step fires one bubble at a target and flies it until it stops. The
+ * reward is the score the shot earned, and the episode is done once every
+ * bubble has been fired. A step writes the game as it then stands into a
+ * caller's array as a fixed number of floats, and returns the reward and
+ * done flag packed into one {@code long}, read back with
+ * {@link #reward(long)} and {@link #isDone(long)}. So a whole transition
+ * comes from one call that allocates nothing, and a reset after the first
+ * replays the same game object with a new seed.
+ * </p>
+ * <p>
+ * An observation is laid out as:
+ * </p>
+ * <ul>
+ * <li>{@link #REMAINING_BUBBLES}: the number of bubbles left to fire,</li>
+ * <li>{@link #WALL_COUNT}: the number of walls,</li>
+ * <li>from {@link #FIRST_WALL}, {@link World#MAX_WALLS} groups of
+ * {@link #WALL_FEATURES}: each wall's x, y, width, height and velocity in
+ * pixels per tick, with zeros for missing walls.</li>
+ * </ul>
+ * <p>
+ * Not thread-safe; step each environment from one thread at a time.
+ * </p>
+ */
+public final class GameEnvironment {
+
+    /**
+     * Where an observation holds the number of bubbles left to fire.
+     */
+    public static final int REMAINING_BUBBLES = 0;
+
+    /**
+     * Where an observation holds the number of walls.
+     */
+    public static final int WALL_COUNT = 1;
+
+    /**
+     * Where an observation's first wall starts.
+     */
+    public static final int FIRST_WALL = 2;
+
+    /**
+     * The number of floats describing each wall.
+     */
+    public static final int WALL_FEATURES = 6;
+
+    /**
+     * The number of floats in an observation.
+     */
+    public static final int OBSERVATION_SIZE = FIRST_WALL + World.MAX_WALLS * WALL_FEATURES;
+
+    private static final long DONE = 1L; // The flag bit of a packed step; the reward is in the upper half
+
+    private final FlightMode flightMode;
+    private HeadlessGame game;
+
+    /**
+     * Constructs a new GameEnvironment. Call {@link #reset(long)} before the
+     * first step.
+     *
+     * @param flightMode How each shot is flown.
+     */
+    public GameEnvironment(final FlightMode flightMode) {
+        this.flightMode = flightMode;
+    }
+
+    /**
+     * Starts a new game.
+     *
+     * @param seed The seed for all of the game's randomness.
+     */
+    public void reset(final long seed) {
+        if (game == null) {
+            game = new HeadlessGame(seed, flightMode, GameSession.SHOT_SPEED);
+        } else {
+            game.reset(seed);
+        }
+    }
+
+    /**
+     * Fires a bubble at a target, flies it until it stops and observes the
+     * outcome.
+     *
+     * @param targetX The x-coordinate to aim at.
+     * @param targetY The y-coordinate to aim at.
+     * @param observation The array to write the observation after the shot
+     * to.
+     * @param offset Where in the array to start; {@link #OBSERVATION_SIZE}
+     * floats are written from here.
+     * @return The points the shot scored and whether the game has ended, to
+     * be read with {@link #reward(long)} and {@link #isDone(long)}.
+     */
+    public long step(final int targetX, final int targetY, final float[] observation, final int offset) {
+        if (game == null) {
+            throw new IllegalStateException("Error: Cannot step. The environment has not been reset.");
+        }
+        final int points = game.shoot(targetX, targetY);
+        observe(observation, offset);
+        return ((long) points << 32) | (game.isOver() ? DONE : 0);
+    }
+
+    /**
+     * Reads the reward from the result of a step.
+     *
+     * @param transition A result of {@link #step(int, int, float[], int)}.
+     * @return The points the shot scored.
+     */
+    public static int reward(final long transition) {
+        return (int) (transition >> 32);
+    }
+
+    /**
+     * Reads the done flag from the result of a step.
+     *
+     * @param transition A result of {@link #step(int, int, float[], int)}.
+     * @return Whether the shot ended the game.
+     */
+    public static boolean isDone(final long transition) {
+        return (transition & DONE) != 0;
+    }
+
+    /**
+     * Checks whether the current game has ended.
+     *
+     * @return Whether every bubble has been fired.
+     */
+    public boolean isDone() {
+        return game == null || game.isOver();
+    }
+
+    /**
+     * Returns the game being played.
+     *
+     * @return The current game, or {@code null} before the first reset.
+     */
+    public HeadlessGame getGame() {
+        return game;
+    }
+
+    /**
+     * Writes the current observation into an array.
+     *
+     * @param out The array to write to.
+     * @param offset Where in the array to start; {@link #OBSERVATION_SIZE}
+     * floats are written from here.
+     */
+    public void observe(final float[] out, final int offset) {
+        if (game == null) {
+            throw new IllegalStateException("Error: Cannot observe. The environment has not been reset.");
+        }
+
+        final World world = game.getWorld();
+        out[offset + REMAINING_BUBBLES] = game.getRemainingBubbles();
+        synchronized (world) {
+            final EntityStore<Wall> walls = world.getWallStore(); // Brings the walls up to date
+            final int count = Math.min(walls.size(), World.MAX_WALLS);
+            out[offset + WALL_COUNT] = count;
+
+            int at = offset + FIRST_WALL;
+            for (int i = 0; i < count; i++) {
+                out[at++] = (float) walls.x()[i];
+                out[at++] = (float) walls.y()[i];
+                out[at++] = (float) walls.width()[i];
+                out[at++] = (float) walls.height()[i];
+                out[at++] = (float) walls.dx()[i];
+                out[at++] = (float) walls.dy()[i];
+            }
+            Arrays.fill(out, at, offset + OBSERVATION_SIZE, 0f);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.rikuthin.simulation;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.rikuthin.utility.Bearing2D;
+import com.rikuthin.utility.RandomColour;
+
+/**
+ * The rules of one game, shared by every kind of session: the world it is
+ * played in, how many bubbles the player starts with, how a bubble is fired
+ * and how the score adds up.
+ * <p>
+ * A session is its world's listener. It keeps the score, notes when the last
+ * bubble fired has stopped, and then passes every event on to a listener of
+ * its own, such as a window drawing the game. {@link com.rikuthin.GameManager}
+ * plays a session on screen and {@link HeadlessGame} plays one without any
+ * Swing components, so both follow exactly the same rules.
+ * </p>
+ * <p>
+ * Bubbles are fired from one thread at a time, while the world's events may
+ * arrive on another, so the counts can be read from any thread.
+ * </p>
+ */
+public class GameSession implements WorldListener {
+
+    /**
+     * The number of bubbles the player starts with.
+     */
+    public static final int STARTING_BUBBLES = 100;
+
+    /**
+     * The speed (in pixels per tick) at which bubbles are shot.
+     */
+    public static final double SHOT_SPEED = 15;
+
+    private final World world;
+    private final WorldListener listener;
+    private final double shotSpeed;
+    private final Bearing2D aim = new Bearing2D(0); // Reused for every shot
+    private final AtomicInteger score = new AtomicInteger();
+    private volatile int remainingBubbles;
+    private volatile boolean shotInFlight;
+
+    /**
+     * Constructs a new GameSession in a world with a random wall layout.
+     * Room is made for every bubble up front, so firing allocates nothing.
+     *
+     * @param width The width of the world.
+     * @param height The height of the world.
+     * @param random The source of all of the game's randomness.
+     * @param shotSpeed The speed (in pixels per tick) at which bubbles are
+     * shot.
+     * @param listener Hears every event from the world after the session
+     * has.
+     */
+    public GameSession(final double width, final double height, final Random random, final double shotSpeed,
+            final WorldListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null; use WorldListener.NONE.");
+        }
+        this.listener = listener;
+        this.shotSpeed = shotSpeed;
+        remainingBubbles = STARTING_BUBBLES;
+        world = new World(width, height, random, this);
+        world.initialiseWalls();
+        world.reserveBubbles(STARTING_BUBBLES);
+    }
+
+    /**
+     * Starts the game over in the same world: a new random wall layout, no
+     * bubbles on the field, no score and every bubble left to fire. The
+     * layout is drawn from the world's source of randomness, so reseed that
+     * first for a repeatable game.
+     */
+    public void restart() {
+        world.initialiseWalls();
+        score.set(0);
+        remainingBubbles = STARTING_BUBBLES;
+        shotInFlight = false;
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    public double getShotSpeed() {
+        return shotSpeed;
+    }
+
+    public int getRemainingBubbles() {
+        return remainingBubbles;
+    }
+
+    public int getScore() {
+        return score.get();
+    }
+
+    public boolean isOver() {
+        return remainingBubbles <= 0;
+    }
+
+    /**
+     * Checks whether the last bubble fired is still moving.
+     *
+     * @return Whether a shot is in flight.
+     */
+    public boolean isShotInFlight() {
+        return shotInFlight;
+    }
+
+    /**
+     * Checks whether the player may fire: there are bubbles left and the last
+     * one has stopped.
+     *
+     * @return Whether a bubble can be fired.
+     */
+    public boolean canShoot() {
+        return !shotInFlight && !isOver();
+    }
+
+    /**
+     * Fires a bubble of a random colour from a launch point towards a target.
+     * Doesn't wait for an earlier bubble to stop; check {@link #canShoot()}
+     * first to fire one at a time.
+     *
+     * @param launchX The x-coordinate the bubble is spawned at.
+     * @param launchY The y-coordinate the bubble is spawned at.
+     * @param targetX The x-coordinate to aim at.
+     * @param targetY The y-coordinate to aim at.
+     * @return The bubble's row in the world's bubble store, as it was when
+     * spawned.
+     * @throws IllegalStateException If there are no bubbles left.
+     */
+    public int shoot(final int launchX, final int launchY, final int targetX, final int targetY) {
+        if (isOver()) {
+            throw new IllegalStateException("Error: Cannot shoot bubble. No more bubbles left.");
+        }
+
+        final RandomColour colour = RandomColour.next(world.getRandom());
+        // The only trigonometry in a bubble's flight; bounces just flip signs
+        aim.setTowards(launchX, launchY, targetX, targetY);
+        remainingBubbles--;
+        shotInFlight = true; // Before spawning, in case the world stops it straight away
+        return world.spawnBubble(launchX, launchY, colour, aim.getDeltaX(shotSpeed), aim.getDeltaY(shotSpeed));
+    }
+
+    @Override
+    public void onEntityMoved(final double oldX, final double oldY, final double newX, final double newY,
+            final double width, final double height) {
+        listener.onEntityMoved(oldX, oldY, newX, newY, width, height);
+    }
+
+    @Override
+    public void onPointsScored(final int points) {
+        score.addAndGet(points);
+        listener.onPointsScored(points);
+    }
+
+    @Override
+    public void onBubbleStopped() {
+        shotInFlight = false;
+        listener.onBubbleStopped();
+    }
+}
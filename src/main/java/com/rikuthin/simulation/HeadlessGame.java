@@ -0,0 +1,155 @@
+package com.rikuthin.simulation;
+
+import java.util.Random;
+
+import com.rikuthin.App;
+import com.rikuthin.game_objects.Bubble;
+
+/**
+ * A complete game played without any Swing components.
+ * <p>
+ * Each shot is simulated to completion by stepping the world directly, so a
+ * game runs as fast as the CPU allows. The rules and starting values are a
+ * {@link GameSession}'s, as for {@link com.rikuthin.GameManager}.
+ * </p>
+ * <p>
+ * In {@link FlightMode#EVENT_DRIVEN} mode each shot jumps from contact to
+ * contact instead, which costs the same however long the flight is.
+ * </p>
+ */
+public class HeadlessGame {
+
+    /**
+     * An upper bound on a single shot's flight, in case a bubble never stops.
+     */
+    private static final int MAX_TICKS_PER_SHOT = 10_000;
+
+    private static final double STEP_SECONDS = App.TICK_SPEED_MS / 1000.0;
+
+    private final Random random;
+    private final GameSession session;
+    private final World world;
+    private final FlightMode flightMode;
+    private final int launchX;
+    private final int launchY;
+    private long ticks;
+
+    /**
+     * Constructs a new HeadlessGame with a random wall layout.
+     *
+     * @param seed The seed for all of the game's randomness.
+     */
+    public HeadlessGame(final long seed) {
+        this(seed, FlightMode.STEPPED, GameSession.SHOT_SPEED);
+    }
+
+    /**
+     * Constructs a new HeadlessGame with a random wall layout.
+     *
+     * @param seed The seed for all of the game's randomness.
+     * @param flightMode How each shot is flown.
+     * @param shotSpeed The speed (in pixels per tick) at which bubbles are
+     * shot.
+     */
+    public HeadlessGame(final long seed, final FlightMode flightMode, final double shotSpeed) {
+        this.flightMode = flightMode;
+        random = new Random(seed);
+        session = new GameSession(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT, random, shotSpeed, WorldListener.NONE);
+        world = session.getWorld();
+
+        // Matches the blaster's position just below the playing field
+        launchX = World.DEFAULT_WIDTH / 2;
+        launchY = World.DEFAULT_HEIGHT + (int) (Bubble.SIZE / 2);
+        ticks = 0;
+    }
+
+    /**
+     * Starts a new game in this one's world, played exactly as a new
+     * HeadlessGame with the same seed would be. The world and its stores are
+     * kept, so a reset costs no more than placing the walls.
+     *
+     * @param seed The seed for all of the new game's randomness.
+     */
+    public void reset(final long seed) {
+        random.setSeed(seed);
+        session.restart();
+        ticks = 0;
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    /**
+     * Returns the x-coordinate every shot is spawned at.
+     *
+     * @return The launch point's x-coordinate.
+     */
+    public int getLaunchX() {
+        return launchX;
+    }
+
+    /**
+     * Returns the y-coordinate every shot is spawned at.
+     *
+     * @return The launch point's y-coordinate.
+     */
+    public int getLaunchY() {
+        return launchY;
+    }
+
+    public double getShotSpeed() {
+        return session.getShotSpeed();
+    }
+
+    public int getRemainingBubbles() {
+        return session.getRemainingBubbles();
+    }
+
+    public int getScore() {
+        return session.getScore();
+    }
+
+    /**
+     * Returns the total number of ticks simulated so far.
+     *
+     * @return The tick count.
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    public boolean isOver() {
+        return session.isOver();
+    }
+
+    /**
+     * Shoots a bubble towards a target and simulates until it stops.
+     *
+     * @param targetX The x-coordinate to aim at.
+     * @param targetY The y-coordinate to aim at.
+     * @return The points scored by the shot.
+     * @throws IllegalStateException If there are no bubbles left.
+     */
+    public int shoot(final int targetX, final int targetY) {
+        final int scoreBefore = session.getScore();
+        final boolean strayInFlight = session.isShotInFlight(); // An earlier shot that never stopped
+        final int index = session.shoot(launchX, launchY, targetX, targetY);
+
+        // Jumping ahead needs every other bubble at rest, so a stray shot means stepping
+        if (flightMode == FlightMode.EVENT_DRIVEN && !strayInFlight) {
+            ticks += world.flyBubble(index, STEP_SECONDS, MAX_TICKS_PER_SHOT);
+            return session.getScore() - scoreBefore;
+        }
+
+        // The session hears when the bubble stops
+        int flightTicks = 0;
+        while (session.isShotInFlight() && flightTicks < MAX_TICKS_PER_SHOT) {
+            world.update(STEP_SECONDS);
+            flightTicks++;
+        }
+        ticks += flightTicks;
+
+        return session.getScore() - scoreBefore;
+    }
+}
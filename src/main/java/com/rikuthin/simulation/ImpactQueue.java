@@ -0,0 +1,131 @@
+package com.rikuthin.simulation;
+
+import java.util.Arrays;
+
+/**
+ * A priority queue of timed events, earliest first, kept in parallel
+ * primitive arrays so that scheduling an event allocates nothing once the
+ * queue has grown to size.
+ * <p>
+ * Each event carries a kind, the row it concerns and a version. Events are
+ * never removed early: whoever scheduled one bumps its version instead, and
+ * stale events are skipped when they reach the front.
+ * </p>
+ */
+final class ImpactQueue {
+
+    private static final int INITIAL_CAPACITY = 32;
+
+    private double[] times = new double[INITIAL_CAPACITY];
+    private int[] kinds = new int[INITIAL_CAPACITY];
+    private int[] subjects = new int[INITIAL_CAPACITY];
+    private long[] versions = new long[INITIAL_CAPACITY];
+    private int size;
+
+    // The event last taken off the front
+    private double time;
+    private int kind;
+    private int subject;
+    private long version;
+
+    /**
+     * Schedules an event.
+     *
+     * @param eventTime When the event happens.
+     * @param eventKind What kind of event it is.
+     * @param eventSubject The row the event concerns, if any.
+     * @param eventVersion The version the event was scheduled against.
+     */
+    void add(final double eventTime, final int eventKind, final int eventSubject, final long eventVersion) {
+        if (size == times.length) {
+            final int capacity = size * 2;
+            times = Arrays.copyOf(times, capacity);
+            kinds = Arrays.copyOf(kinds, capacity);
+            subjects = Arrays.copyOf(subjects, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+        }
+
+        // Sift up
+        int child = size++;
+        while (child > 0) {
+            final int parent = (child - 1) >>> 1;
+            if (times[parent] <= eventTime) {
+                break;
+            }
+            set(child, parent);
+            child = parent;
+        }
+        times[child] = eventTime;
+        kinds[child] = eventKind;
+        subjects[child] = eventSubject;
+        versions[child] = eventVersion;
+    }
+
+    /**
+     * Takes the earliest event off the queue. Its fields are then available
+     * from {@link #time()}, {@link #kind()}, {@link #subject()} and
+     * {@link #version()}.
+     *
+     * @return {@code false} if the queue was empty.
+     */
+    boolean poll() {
+        if (size == 0) {
+            return false;
+        }
+        time = times[0];
+        kind = kinds[0];
+        subject = subjects[0];
+        version = versions[0];
+
+        // Sift the last event down from the root
+        final int last = --size;
+        final double lastTime = times[last];
+        int parent = 0;
+        while (true) {
+            int child = 2 * parent + 1;
+            if (child >= last) {
+                break;
+            }
+            if (child + 1 < last && times[child + 1] < times[child]) {
+                child++;
+            }
+            if (lastTime <= times[child]) {
+                break;
+            }
+            set(parent, child);
+            parent = child;
+        }
+        set(parent, last);
+        return true;
+    }
+
+    /**
+     * Discards every event.
+     */
+    void clear() {
+        size = 0;
+    }
+
+    double time() {
+        return time;
+    }
+
+    int kind() {
+        return kind;
+    }
+
+    int subject() {
+        return subject;
+    }
+
+    long version() {
+        return version;
+    }
+
+    private void set(final int to, final int from) {
+        times[to] = times[from];
+        kinds[to] = kinds[from];
+        subjects[to] = subjects[from];
+        versions[to] = versions[from];
+    }
+}
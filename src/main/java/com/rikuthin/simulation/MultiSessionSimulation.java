@@ -0,0 +1,109 @@
+package com.rikuthin.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs many independent headless sessions at once in one JVM and reports
+ * each session's throughput. Intended for automated playtesting and AI
+ * evaluation jobs that want every core busy.
+ * <p>
+ * Usage:
+ * {@code MultiSessionSimulation [sessions] [gamesPerSession] [seed] [stepped|event_driven] [threads]}.
+ * A session plays its games back to back on one thread, aiming every shot at
+ * a random point in the upper half of the playing field. Sessions share no
+ * state, so their results are the same however many threads run them.
+ * </p>
+ */
+public final class MultiSessionSimulation {
+
+    /**
+     * What one session did, and how long it took.
+     */
+    private static final class SessionResult {
+        private final long score;
+        private final long ticks;
+        private final long nanos;
+
+        private SessionResult(final long score, final long ticks, final long nanos) {
+            this.score = score;
+            this.ticks = ticks;
+            this.nanos = nanos;
+        }
+    }
+
+    private MultiSessionSimulation() {
+    }
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        final int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        final int gamesPerSession = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        final long seed = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+        final FlightMode flightMode = FlightMode.parse(args.length > 3 ? args[3] : null, FlightMode.STEPPED);
+        final int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final List<Future<SessionResult>> futures = new ArrayList<>(sessions);
+        final long start = System.nanoTime();
+        try {
+            for (int s = 0; s < sessions; s++) {
+                final long sessionSeed = seed + (long) s * gamesPerSession;
+                futures.add(executor.submit(() -> runSession(sessionSeed, gamesPerSession, flightMode)));
+            }
+
+            long totalScore = 0;
+            long totalTicks = 0;
+            final double[] gamesPerSecond = new double[sessions];
+            for (int s = 0; s < sessions; s++) {
+                final SessionResult result = futures.get(s).get();
+                totalScore += result.score;
+                totalTicks += result.ticks;
+                gamesPerSecond[s] = gamesPerSession / (result.nanos / 1e9);
+            }
+            final double seconds = (System.nanoTime() - start) / 1e9;
+            final long games = (long) sessions * gamesPerSession;
+
+            Arrays.sort(gamesPerSecond);
+            System.out.printf("Flight mode: %s, threads: %d%n", flightMode, threads);
+            System.out.printf("Sessions: %d x %d games in %.2fs (%.0f games/s, %.0f ticks/s overall)%n",
+                    sessions, gamesPerSession, seconds, games / seconds, totalTicks / seconds);
+            System.out.printf("Per session: min %.0f, median %.0f, max %.0f games/s%n",
+                    gamesPerSecond[0], gamesPerSecond[sessions / 2], gamesPerSecond[sessions - 1]);
+            System.out.printf("Average score: %.1f%n", (double) totalScore / games);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Plays one session's games back to back on the calling thread.
+     *
+     * @param seed The seed of the session's first game; each later game adds
+     * one.
+     * @param games The number of games to play.
+     * @param flightMode How each shot is flown.
+     * @return The session's total score and ticks, and how long it took.
+     */
+    private static SessionResult runSession(final long seed, final int games, final FlightMode flightMode) {
+        final Random aim = new Random(seed);
+        long score = 0;
+        long ticks = 0;
+
+        final long start = System.nanoTime();
+        for (int i = 0; i < games; i++) {
+            HeadlessGame game = new HeadlessGame(seed + i, flightMode, GameSession.SHOT_SPEED);
+            while (!game.isOver()) {
+                game.shoot(aim.nextInt(World.DEFAULT_WIDTH), aim.nextInt(World.DEFAULT_HEIGHT / 2));
+            }
+            score += game.getScore();
+            ticks += game.getTicks();
+        }
+        return new SessionResult(score, ticks, System.nanoTime() - start);
+    }
+}
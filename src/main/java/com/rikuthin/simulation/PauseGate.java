@@ -0,0 +1,98 @@
+package com.rikuthin.simulation;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Holds a session's simulation threads still while the game is paused.
+ * <p>
+ * A thread that reaches the gate while it is closed parks until
+ * {@link #resume()} wakes every waiting thread at once, so a paused session
+ * uses no CPU at all rather than waking each step to check. Work that runs
+ * as scheduled tasks instead of on its own thread can't park without holding
+ * a pool thread, so it stops its schedule and asks to be started again with
+ * {@link #whenResumed(Runnable)}.
+ * </p>
+ * <p>
+ * Safe to use from any thread. A gate starts open.
+ * </p>
+ */
+public final class PauseGate {
+
+    private volatile boolean paused;
+    private final Queue<Thread> waiters = new ConcurrentLinkedQueue<>();
+    private final Queue<Runnable> resumeActions = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Closes the gate. Threads already past it finish what they are doing
+     * and stop the next time they reach it.
+     */
+    public void pause() {
+        paused = true;
+    }
+
+    /**
+     * Opens the gate, waking every parked thread and running every action
+     * waiting for it on the calling thread.
+     */
+    public void resume() {
+        paused = false;
+
+        Thread waiter;
+        while ((waiter = waiters.poll()) != null) {
+            LockSupport.unpark(waiter);
+        }
+        Runnable action;
+        while ((action = resumeActions.poll()) != null) {
+            action.run();
+        }
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Parks the calling thread for as long as the gate is closed.
+     *
+     * @return Whether the thread had to wait, in which case any time-keeping
+     * should start again from now.
+     * @throws InterruptedException If the thread is interrupted while
+     * waiting, such as when its session is stopped.
+     */
+    public boolean await() throws InterruptedException {
+        if (!paused) {
+            return false;
+        }
+
+        final Thread current = Thread.currentThread();
+        waiters.add(current);
+        try {
+            // Re-checked after queueing, so a resume in between can't be missed
+            while (paused) {
+                LockSupport.park(this);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            waiters.remove(current);
+        }
+        return true;
+    }
+
+    /**
+     * Runs an action once the gate is open: straight away if it already is,
+     * otherwise on the thread that next opens it. Runs exactly once.
+     *
+     * @param action The action to run.
+     */
+    public void whenResumed(final Runnable action) {
+        resumeActions.add(action);
+        // If the gate opened before the action was queued, whoever removes it runs it
+        if (!paused && resumeActions.remove(action)) {
+            action.run();
+        }
+    }
+}
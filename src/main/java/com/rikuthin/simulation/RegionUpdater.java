@@ -0,0 +1,188 @@
+package com.rikuthin.simulation;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.rikuthin.game_objects.Bubble;
+
+/**
+ * Runs a {@link World}'s bubble update on a {@link ForkJoinPool}, one vertical
+ * band of the field at a time.
+ * <p>
+ * Walls are brought up to the current tick on the calling thread first, just
+ * as the first bubble's wall test would in the single-threaded update. The
+ * moving bubbles are then sorted into bands by their x-coordinate, and each
+ * band is integrated as its own fork/join task. Integrating only writes a
+ * bubble's own row, and bubbles only read walls, which hold still meanwhile,
+ * so bands never write to each other.
+ * </p>
+ * <p>
+ * Everything that reaches outside a single row is left to a merge step on
+ * the calling thread: bubbles are removed and reported in descending order,
+ * the order the single-threaded update uses, so the stores, the grid and the
+ * listener's events come out bit-for-bit the same however many threads there
+ * are.
+ * </p>
+ * <p>
+ * Called with the world's lock held; the pool's workers rely on that lock
+ * rather than taking it themselves.
+ * </p>
+ */
+final class RegionUpdater {
+
+    /**
+     * The fewest entities worth spreading over the pool; smaller worlds are
+     * updated on the calling thread.
+     */
+    static final int MIN_ENTITIES = 4_096;
+
+    /**
+     * Bands per pool thread, so a crowded band doesn't leave the others idle.
+     */
+    private static final int REGIONS_PER_THREAD = 4;
+
+    private static final byte NOT_MOVING = -1;
+    private static final byte PENDING = Byte.MAX_VALUE;
+
+    private final World world;
+    private final ForkJoinPool pool;
+    private final int regionCount;
+    private final int[] regionStarts;  // Where each band's rows begin in order
+    private final int[] regionCursors; // Scratch for filling order
+    private final WallSweep[] sweeps;  // One per band, as the world's shared one is only safe on one thread
+
+    // Indexed by row, and only valid during an update
+    private int[] order = new int[16]; // Moving rows, grouped by band
+    private double[] oldXs = new double[16];
+    private double[] oldYs = new double[16];
+    private byte[] outcomes = new byte[16];
+    private double ticks;
+
+    /**
+     * Constructs a new RegionUpdater.
+     *
+     * @param world The world to update.
+     * @param pool The pool to integrate bands on.
+     */
+    RegionUpdater(final World world, final ForkJoinPool pool) {
+        this.world = world;
+        this.pool = pool;
+        this.regionCount = Math.max(1, pool.getParallelism() * REGIONS_PER_THREAD);
+        this.regionStarts = new int[regionCount + 1];
+        this.regionCursors = new int[regionCount];
+        this.sweeps = new WallSweep[regionCount];
+        for (int r = 0; r < regionCount; r++) {
+            sweeps[r] = new WallSweep(world);
+        }
+    }
+
+    /**
+     * Advances every moving bubble by one step. The world's clock must
+     * already have been moved on for walls.
+     *
+     * @param ticks How many ticks' worth of movement to apply.
+     */
+    void update(final double ticks) {
+        this.ticks = ticks;
+
+        final EntityStore<Bubble> bubbles = world.getBubbleStore();
+        final int bubbleCount = bubbles.size();
+        ensureCapacity(bubbleCount);
+        int movingCount = 0;
+        for (int i = 0; i < bubbleCount; i++) {
+            outcomes[i] = bubbles.isMoving(i) ? PENDING : NOT_MOVING;
+            oldXs[i] = bubbles.x()[i];
+            oldYs[i] = bubbles.y()[i];
+            movingCount += outcomes[i] == PENDING ? 1 : 0;
+        }
+        if (movingCount == 0) {
+            return;
+        }
+
+        // Walls are only read from here on, so every band sees the same ones
+        world.syncWalls();
+
+        // Integrate in bands, then remove and report from the last row down
+        partition(bubbles.x(), bubbleCount);
+        pool.invoke(new RegionTask(0, regionCount));
+        for (int i = bubbleCount - 1; i >= 0; i--) {
+            if (outcomes[i] != NOT_MOVING) {
+                Bubble.finishMove(world, i, outcomes[i], oldXs[i], oldYs[i]);
+            }
+        }
+    }
+
+    /**
+     * Groups the moving rows by band with a counting sort, leaving each band's
+     * rows in ascending order.
+     *
+     * @param xs The x-coordinates of the rows.
+     * @param count The number of rows.
+     */
+    private void partition(final double[] xs, final int count) {
+        Arrays.fill(regionStarts, 0);
+        for (int i = 0; i < count; i++) {
+            if (outcomes[i] != NOT_MOVING) {
+                regionStarts[region(xs[i]) + 1]++;
+            }
+        }
+        for (int r = 0; r < regionCount; r++) {
+            regionStarts[r + 1] += regionStarts[r];
+        }
+
+        System.arraycopy(regionStarts, 0, regionCursors, 0, regionCount);
+        for (int i = 0; i < count; i++) {
+            if (outcomes[i] != NOT_MOVING) {
+                order[regionCursors[region(xs[i])]++] = i;
+            }
+        }
+    }
+
+    private int region(final double x) {
+        final int region = (int) (x * regionCount / world.getWidth());
+        return Math.clamp(region, 0, regionCount - 1);
+    }
+
+    private void ensureCapacity(final int count) {
+        if (order.length < count) {
+            final int capacity = Math.max(count, order.length * 2);
+            order = new int[capacity];
+            oldXs = new double[capacity];
+            oldYs = new double[capacity];
+            outcomes = new byte[capacity];
+        }
+    }
+
+    /**
+     * Integrates a range of bands, splitting it in half until each task has a
+     * single band.
+     */
+    private final class RegionTask extends RecursiveAction {
+
+        private final int firstRegion;
+        private final int endRegion;
+
+        private RegionTask(final int firstRegion, final int endRegion) {
+            this.firstRegion = firstRegion;
+            this.endRegion = endRegion;
+        }
+
+        @Override
+        protected void compute() {
+            if (endRegion - firstRegion > 1) {
+                final int middle = (firstRegion + endRegion) >>> 1;
+                invokeAll(new RegionTask(firstRegion, middle), new RegionTask(middle, endRegion));
+                return;
+            }
+
+            final int start = regionStarts[firstRegion];
+            final int end = regionStarts[firstRegion + 1];
+            final WallSweep sweep = sweeps[firstRegion];
+            for (int k = start; k < end; k++) {
+                final int index = order[k];
+                outcomes[index] = (byte) Bubble.integrate(world, index, ticks, sweep);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.rikuthin.simulation;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.rikuthin.game_objects.Bubble;
+import com.rikuthin.game_objects.Wall;
+
+/**
+ * A copy of a world's walls and bubbles as they stood at one moment, for
+ * drawing without the world's lock.
+ * <p>
+ * Snapshots are handed out by a {@link SnapshotBuffer} and must not be
+ * changed once published. A snapshot is only valid between
+ * {@link SnapshotBuffer#acquire()} and {@link SnapshotBuffer#release}, after
+ * which the buffer may fill it again. Its stores have no object views.
+ * </p>
+ */
+public final class RenderSnapshot {
+
+    private final EntityStore<Wall> walls = new EntityStore<>(RenderSnapshot::noView);
+    private final EntityStore<Bubble> bubbles = new EntityStore<>(RenderSnapshot::noView);
+    private long wallVersion;
+    private long sequence;
+
+    /**
+     * The number of threads currently reading the snapshot. The buffer only
+     * fills a snapshot that no one is reading.
+     */
+    final AtomicInteger readers = new AtomicInteger();
+
+    RenderSnapshot() {
+    }
+
+    /**
+     * Copies the world's stores into the snapshot. Only called by the buffer,
+     * while the snapshot is unpublished and unread.
+     *
+     * @param wallStore The world's walls.
+     * @param bubbleStore The world's bubbles.
+     * @param version The world's wall version.
+     * @param number The snapshot's place in the order of publication.
+     */
+    void fill(final EntityStore<Wall> wallStore, final EntityStore<Bubble> bubbleStore, final long version,
+            final long number) {
+        walls.copyFrom(wallStore);
+        bubbles.copyFrom(bubbleStore);
+        wallVersion = version;
+        sequence = number;
+    }
+
+    /**
+     * Returns the walls. Read only.
+     *
+     * @return The wall store.
+     */
+    public EntityStore<Wall> getWalls() {
+        return walls;
+    }
+
+    /**
+     * Returns the bubbles. Read only.
+     *
+     * @return The bubble store.
+     */
+    public EntityStore<Bubble> getBubbles() {
+        return bubbles;
+    }
+
+    /**
+     * Returns the world's wall version when the snapshot was taken, as
+     * {@link World#getWallVersion()}. Two snapshots with the same version
+     * have the same walls.
+     *
+     * @return The wall version.
+     */
+    public long getWallVersion() {
+        return wallVersion;
+    }
+
+    /**
+     * Returns the snapshot's place in the order of publication, counting from
+     * 1. A later snapshot always has a larger number.
+     *
+     * @return The sequence number.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    private static <V extends EntityStore.View> V noView(final int index) {
+        throw new UnsupportedOperationException("Render snapshots have no entity views.");
+    }
+}
@@ -0,0 +1,60 @@
+package com.rikuthin.simulation;
+
+/**
+ * The {@link CollisionKernel} made of plain loops. Also picks the preferred
+ * kernel, loading the vector kernel by name so that this class still links on
+ * a JVM without the {@code jdk.incubator.vector} module.
+ */
+final class ScalarCollisionKernel implements CollisionKernel {
+
+    static final ScalarCollisionKernel INSTANCE = new ScalarCollisionKernel();
+    static final CollisionKernel PREFERRED = loadPreferred();
+
+    private static final String VECTOR_KERNEL = "com.rikuthin.simulation.VectorCollisionKernel";
+
+    private ScalarCollisionKernel() {
+    }
+
+    @Override
+    public int firstEllipseHit(final double x, final double y, final double width, final double height,
+            final double[] xs, final double[] ys, final double[] widths, final double[] heights,
+            final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            if (CollisionKernel.ellipseHitsBox(x, y, width, height, xs[i], ys[i], widths[i], heights[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int firstBoxOverlap(final double x, final double y, final double width, final double height,
+            final double[] xs, final double[] ys, final double[] widths, final double[] heights,
+            final int from, final int to, final int skip) {
+        for (int i = from; i < to; i++) {
+            if (i != skip && CollisionKernel.boxesOverlap(x, y, width, height, xs[i], ys[i], widths[i],
+                    heights[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+
+    /**
+     * Returns the vector kernel if it can be loaded and this CPU has vector
+     * registers worth using, otherwise the scalar kernel.
+     */
+    private static CollisionKernel loadPreferred() {
+        try {
+            return (CollisionKernel) Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | UnsupportedOperationException e) {
+            // The incubator module isn't in the boot layer, or the CPU has no usable vector shape
+            return INSTANCE;
+        }
+    }
+}
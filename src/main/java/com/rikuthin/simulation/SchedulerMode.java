@@ -0,0 +1,59 @@
+package com.rikuthin.simulation;
+
+import java.util.Locale;
+
+/**
+ * The ways a game's entities can be scheduled.
+ */
+public enum SchedulerMode {
+    /**
+     * One {@link SimulationEngine} thread advances every entity in lockstep.
+     */
+    FIXED_STEP,
+    /**
+     * Every entity runs its own loop on a dedicated platform thread.
+     */
+    PLATFORM,
+    /**
+     * Every entity runs its own loop on a virtual thread.
+     */
+    VIRTUAL,
+    /**
+     * Every entity is a periodic task on a shared pool sized to the number of
+     * available processors.
+     */
+    POOLED;
+
+    /**
+     * Creates a new scheduler of this mode for a single game session.
+     *
+     * @param stepMs The length of a single step in milliseconds.
+     * @param pauseGate Holds every entity still while it is closed.
+     * @return The new, not yet started, scheduler.
+     */
+    public EntityScheduler create(final int stepMs, final PauseGate pauseGate) {
+        if (this == FIXED_STEP) {
+            return new SimulationEngine(stepMs, SimulationEngine.DEFAULT_MAX_TICKS_PER_FRAME, pauseGate);
+        }
+        return new ActorScheduler(this, stepMs, pauseGate);
+    }
+
+    /**
+     * Parses a scheduler mode name, ignoring case.
+     *
+     * @param name The mode name, e.g. {@code "virtual"}.
+     * @param fallback The mode to use if the name is missing or unknown.
+     * @return The matching mode, or the fallback.
+     */
+    public static SchedulerMode parse(final String name, final SchedulerMode fallback) {
+        if (name == null || name.isBlank()) {
+            return fallback;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Warning: Unknown scheduler mode '" + name + "'. Using " + fallback + ".");
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.rikuthin.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Advances every registered {@link Updatable} from a single thread using a
+ * fixed timestep.
+ * <p>
+ * Real elapsed time is added to an accumulator and drained in whole steps, so
+ * the simulation catches up after a slow frame instead of drifting. The number
+ * of steps run per frame is capped; any backlog beyond that cap is dropped
+ * rather than letting the engine fall further and further behind.
+ * </p>
+ * <p>
+ * An attached world is published to its snapshot buffer once per frame,
+ * after that frame's catch-up steps, rather than after every step.
+ * </p>
+ * <p>
+ * While the game is paused the engine thread parks on a {@link PauseGate},
+ * and picks up from where it left off once woken.
+ * </p>
+ */
+public class SimulationEngine implements EntityScheduler, Runnable {
+
+    /**
+     * The default maximum number of catch-up steps run in a single frame.
+     */
+    public static final int DEFAULT_MAX_TICKS_PER_FRAME = 5;
+
+    private final long stepNanos;
+    private final double stepSeconds;
+    private final int maxTicksPerFrame;
+    private final PauseGate pauseGate;
+
+    /**
+     * Entities owned by the engine. Only touched from the engine thread.
+     */
+    private final List<Updatable> entities;
+
+    /**
+     * Entities added from other threads, waiting to be picked up at the start
+     * of the next tick.
+     */
+    private final Queue<Updatable> pendingEntities;
+
+    private volatile World world; // Published after each frame's steps, if attached
+    private volatile boolean running;
+    private Thread thread;
+    private long tickCount;
+    private long droppedTicks;
+
+    /**
+     * Constructs a new SimulationEngine.
+     *
+     * @param stepMs The length of a single fixed step in milliseconds.
+     * @param maxTicksPerFrame The maximum number of steps run per frame.
+     * @param pauseGate Parks the engine thread while it is closed.
+     */
+    public SimulationEngine(final int stepMs, final int maxTicksPerFrame, final PauseGate pauseGate) {
+        if (stepMs <= 0 || maxTicksPerFrame <= 0) {
+            throw new IllegalArgumentException("Step length and max ticks per frame must be positive.");
+        }
+        this.stepNanos = stepMs * 1_000_000L;
+        this.stepSeconds = stepMs / 1000.0;
+        this.maxTicksPerFrame = maxTicksPerFrame;
+        this.pauseGate = pauseGate;
+        this.entities = new ArrayList<>();
+        this.pendingEntities = new ConcurrentLinkedQueue<>();
+        this.running = false;
+    }
+
+    /**
+     * Registers an entity with the engine. Safe to call from any thread; the
+     * entity starts receiving updates from the next tick.
+     *
+     * @param entity The entity to add.
+     */
+    @Override
+    public void add(final Updatable entity) {
+        if (entity == null) {
+            throw new IllegalArgumentException("Entity cannot be null");
+        }
+        pendingEntities.add(entity);
+    }
+
+    /**
+     * Drives the whole world with a single update per tick, rather than
+     * scheduling each of its entities separately. The world is published
+     * once per frame.
+     *
+     * @param world The world to schedule.
+     */
+    @Override
+    public void attach(final World world) {
+        this.world = world;
+        add(world);
+    }
+
+    /**
+     * Returns the number of steps run so far.
+     *
+     * @return The tick count.
+     */
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * Returns the number of steps skipped because a frame exceeded the
+     * per-frame cap.
+     *
+     * @return The dropped tick count.
+     */
+    public long getDroppedTicks() {
+        return droppedTicks;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts the engine on its own thread.
+     */
+    @Override
+    public synchronized void start() {
+        if (running) {
+            throw new IllegalStateException("Error: Simulation engine is already running.");
+        }
+        running = true;
+        thread = new Thread(this, "simulation-engine");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the engine and waits for its thread to finish.
+     */
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    /**
+     * Runs a single fixed step, updating every active entity once.
+     */
+    public void tick() {
+        Updatable pending;
+        while ((pending = pendingEntities.poll()) != null) {
+            entities.add(pending);
+        }
+
+        for (Updatable entity : entities) {
+            entity.update(stepSeconds);
+        }
+        entities.removeIf(entity -> !entity.isActive());
+        tickCount++;
+    }
+
+    /**
+     * Runs the fixed-timestep loop until {@link #stop()} is called.
+     */
+    @Override
+    public void run() {
+        long previous = System.nanoTime();
+        long accumulator = 0;
+
+        while (running) {
+            try {
+                if (pauseGate.await()) {
+                    // Don't try to catch up on time spent paused
+                    previous = System.nanoTime();
+                    accumulator = 0;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            final long now = System.nanoTime();
+            accumulator += now - previous;
+            previous = now;
+
+            int ticks = 0;
+            while (accumulator >= stepNanos && ticks < maxTicksPerFrame) {
+                tick();
+                accumulator -= stepNanos;
+                ticks++;
+            }
+
+            // Still behind after the cap, so drop the backlog instead of spiralling
+            if (accumulator >= stepNanos) {
+                droppedTicks += accumulator / stepNanos;
+                accumulator %= stepNanos;
+            }
+
+            final World attached = world;
+            if (ticks > 0 && attached != null) {
+                attached.publishSnapshot();
+            }
+
+            final long sleepNanos = stepNanos - accumulator;
+            try {
+                Thread.sleep(sleepNanos / 1_000_000, (int) (sleepNanos % 1_000_000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.rikuthin.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.rikuthin.game_objects.Bubble;
+import com.rikuthin.game_objects.Wall;
+
+/**
+ * Hands copies of a world from the simulation to the renderer without
+ * either waiting for the other.
+ * <p>
+ * The world publishes a fresh {@link RenderSnapshot} after every change
+ * while it holds its own lock, and the newest one is swapped in through an
+ * atomic reference. Readers take the newest snapshot with
+ * {@link #acquire()}, draw from it, and hand it back with
+ * {@link #release(RenderSnapshot)}. Nothing here takes a lock: a reader
+ * never waits for a tick, and a tick never waits for a frame.
+ * </p>
+ * <p>
+ * A snapshot is only filled again once it is neither the newest nor being
+ * read, so a reader always sees one moment of the world, never a mix of
+ * two. With one reader that needs three snapshots at most, as with triple
+ * buffering; each extra reader may hold on to one more. Once that many
+ * exist, publishing allocates nothing.
+ * </p>
+ */
+public final class SnapshotBuffer {
+
+    private final AtomicReference<RenderSnapshot> latest = new AtomicReference<>();
+
+    // Only touched by the publishing thread, under the world's lock
+    private final List<RenderSnapshot> snapshots = new ArrayList<>();
+    private long published;
+
+    /**
+     * Copies the world's stores into a snapshot no one is reading and makes
+     * it the newest. Only called by the world, with its lock held.
+     *
+     * @param walls The world's walls.
+     * @param bubbles The world's bubbles.
+     * @param wallVersion The world's wall version.
+     */
+    void publish(final EntityStore<Wall> walls, final EntityStore<Bubble> bubbles, final long wallVersion) {
+        final RenderSnapshot current = latest.get();
+        RenderSnapshot free = null;
+        for (int i = 0; i < snapshots.size() && free == null; i++) {
+            final RenderSnapshot snapshot = snapshots.get(i);
+            if (snapshot != current && snapshot.readers.get() == 0) {
+                free = snapshot;
+            }
+        }
+        if (free == null) {
+            free = new RenderSnapshot();
+            snapshots.add(free);
+        }
+
+        // A reader that picked this one up before it was replaced sees it's no longer newest and retries
+        free.fill(walls, bubbles, wallVersion, ++published);
+        latest.set(free);
+    }
+
+    /**
+     * Takes the newest snapshot for reading. Every snapshot acquired must be
+     * released. Safe to call from any thread, and never blocks.
+     *
+     * @return The newest snapshot, or {@code null} if none has been
+     * published.
+     */
+    public RenderSnapshot acquire() {
+        while (true) {
+            final RenderSnapshot snapshot = latest.get();
+            if (snapshot == null) {
+                return null;
+            }
+            snapshot.readers.incrementAndGet();
+            // Still newest once marked as read, so it can't have been refilled in between
+            if (latest.get() == snapshot) {
+                return snapshot;
+            }
+            snapshot.readers.decrementAndGet();
+        }
+    }
+
+    /**
+     * Hands back a snapshot taken with {@link #acquire()}. The snapshot must
+     * not be read afterwards.
+     *
+     * @param snapshot The snapshot, or {@code null} to do nothing.
+     */
+    public void release(final RenderSnapshot snapshot) {
+        if (snapshot != null) {
+            snapshot.readers.decrementAndGet();
+        }
+    }
+}
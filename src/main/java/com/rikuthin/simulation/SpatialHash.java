@@ -0,0 +1,313 @@
+package com.rikuthin.simulation;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * A uniform grid over a bounded area that buckets items by the cells their
+ * bounding boxes overlap.
+ * <p>
+ * Items are small non-negative integer ids, such as rows of an
+ * {@link EntityStore}, and must keep the same id for as long as they are in
+ * the grid. Each item remembers the range of cells it occupies and only
+ * touches the grid when its bounds cross a cell edge, so items that move a few
+ * pixels per tick are almost never rebinned. Queries only look at the cells a
+ * box overlaps, so their cost depends on local density rather than the total
+ * number of items.
+ * </p>
+ * <p>
+ * Each cell is a plain array that is compacted on removal, so rebinning
+ * allocates nothing once the cells have grown. The grid does no locking of
+ * its own; like the store whose rows it indexes, it is guarded by whatever
+ * lock guards its owner, which for a {@link World} is the world itself.
+ * </p>
+ */
+public class SpatialHash {
+
+    /**
+     * The default cell size (in pixels). Wide enough that a wall only crosses
+     * a cell edge every dozen or so ticks.
+     */
+    public static final double DEFAULT_CELL_SIZE = 128;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    private final int[][] cellItems;
+    private final int[] cellSizes;
+
+    // The range of cells each item occupies, indexed by id. A min column of
+    // -1 means the id is not in the grid.
+    private int[] minColumns;
+    private int[] maxColumns;
+    private int[] minRows;
+    private int[] maxRows;
+
+    // The span each bound can move within before the item needs rebinning
+    private double[] leftStarts;
+    private double[] leftEnds;
+    private double[] rightStarts;
+    private double[] rightEnds;
+    private double[] topStarts;
+    private double[] topEnds;
+    private double[] bottomStarts;
+    private double[] bottomEnds;
+
+    /**
+     * Constructs a new, empty SpatialHash. Items outside the area are clamped
+     * into the border cells.
+     *
+     * @param width The width of the area covered.
+     * @param height The height of the area covered.
+     * @param cellSize The width and height of a single cell.
+     */
+    public SpatialHash(final double width, final double height, final double cellSize) {
+        if (width <= 0 || height <= 0 || cellSize <= 0) {
+            throw new IllegalArgumentException("Grid dimensions and cell size must be positive.");
+        }
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.cellItems = new int[columns * rows][4];
+        this.cellSizes = new int[columns * rows];
+        allocateRanges(INITIAL_CAPACITY);
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Adds an item to every cell its bounds overlap.
+     *
+     * @param id The item's id.
+     * @param x The x-coordinate of the item's bounds.
+     * @param y The y-coordinate of the item's bounds.
+     * @param width The width of the item's bounds.
+     * @param height The height of the item's bounds.
+     */
+    public void insert(final int id, final double x, final double y, final double width,
+            final double height) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Ids must not be negative.");
+        }
+        while (id >= minColumns.length) {
+            growRanges();
+        }
+        if (minColumns[id] >= 0) {
+            removeFromCells(id);
+        }
+        setRange(id, column(x), column(x + width), row(y), row(y + height));
+        addToCells(id);
+    }
+
+    /**
+     * Updates an item's bounds, rebinning it only if it now overlaps a
+     * different range of cells.
+     *
+     * @param id The item's id.
+     * @param x The new x-coordinate of the item's bounds.
+     * @param y The new y-coordinate of the item's bounds.
+     * @param width The new width of the item's bounds.
+     * @param height The new height of the item's bounds.
+     * @return {@code true} if the item was rebinned.
+     */
+    public boolean move(final int id, final double x, final double y, final double width, final double height) {
+        final double right = x + width;
+        final double bottom = y + height;
+
+        // Cheap check for the common case of staying inside the same cells
+        if (x >= leftStarts[id] && x < leftEnds[id] && right >= rightStarts[id] && right < rightEnds[id]
+                && y >= topStarts[id] && y < topEnds[id] && bottom >= bottomStarts[id] && bottom < bottomEnds[id]) {
+            return false;
+        }
+
+        if (minColumns[id] < 0) {
+            return false;
+        }
+        removeFromCells(id);
+        setRange(id, column(x), column(right), row(y), row(bottom));
+        addToCells(id);
+        return true;
+    }
+
+    /**
+     * Removes an item from the grid.
+     *
+     * @param id The item's id.
+     */
+    public void remove(final int id) {
+        if (id < minColumns.length && minColumns[id] >= 0) {
+            removeFromCells(id);
+            clearRange(id);
+        }
+    }
+
+    /**
+     * Removes every item from the grid.
+     */
+    public void clear() {
+        Arrays.fill(cellSizes, 0);
+        for (int id = 0; id < minColumns.length; id++) {
+            clearRange(id);
+        }
+    }
+
+    /**
+     * Tests whether any item in the cells overlapped by a box matches a
+     * predicate. Items spanning several cells may be tested more than once.
+     *
+     * @param x The x-coordinate of the box.
+     * @param y The y-coordinate of the box.
+     * @param width The width of the box.
+     * @param height The height of the box.
+     * @param test The test to apply to each candidate id.
+     * @return {@code true} as soon as a candidate passes the test.
+     */
+    public boolean anyMatch(final double x, final double y, final double width, final double height,
+            final IntPredicate test) {
+        final int minColumn = column(x);
+        final int maxColumn = column(x + width);
+        final int minRow = row(y);
+        final int maxRow = row(y + height);
+
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minColumn; c <= maxColumn; c++) {
+                final int cell = r * columns + c;
+                final int[] items = cellItems[cell];
+                for (int i = 0; i < cellSizes[cell]; i++) {
+                    if (test.test(items[i])) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private void addToCells(final int id) {
+        for (int r = minRows[id]; r <= maxRows[id]; r++) {
+            for (int c = minColumns[id]; c <= maxColumns[id]; c++) {
+                final int cell = r * columns + c;
+                int[] items = cellItems[cell];
+                if (cellSizes[cell] == items.length) {
+                    items = Arrays.copyOf(items, items.length * 2);
+                    cellItems[cell] = items;
+                }
+                items[cellSizes[cell]++] = id;
+            }
+        }
+    }
+
+    private void removeFromCells(final int id) {
+        for (int r = minRows[id]; r <= maxRows[id]; r++) {
+            for (int c = minColumns[id]; c <= maxColumns[id]; c++) {
+                final int cell = r * columns + c;
+                final int[] items = cellItems[cell];
+                final int size = cellSizes[cell];
+                for (int i = 0; i < size; i++) {
+                    if (items[i] == id) {
+                        items[i] = items[size - 1];
+                        cellSizes[cell] = size - 1;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private void setRange(final int id, final int minColumn, final int maxColumn, final int minRow,
+            final int maxRow) {
+        minColumns[id] = minColumn;
+        maxColumns[id] = maxColumn;
+        minRows[id] = minRow;
+        maxRows[id] = maxRow;
+
+        leftStarts[id] = cellStart(minColumn);
+        leftEnds[id] = cellEnd(minColumn, columns);
+        rightStarts[id] = cellStart(maxColumn);
+        rightEnds[id] = cellEnd(maxColumn, columns);
+        topStarts[id] = cellStart(minRow);
+        topEnds[id] = cellEnd(minRow, rows);
+        bottomStarts[id] = cellStart(maxRow);
+        bottomEnds[id] = cellEnd(maxRow, rows);
+    }
+
+    /**
+     * Marks an id as not in the grid. Its spans are made empty so that
+     * {@link #move} always falls through to a rebin.
+     */
+    private void clearRange(final int id) {
+        minColumns[id] = -1;
+        leftStarts[id] = Double.POSITIVE_INFINITY;
+        leftEnds[id] = Double.NEGATIVE_INFINITY;
+    }
+
+    private int column(final double x) {
+        return Math.clamp((long) Math.floor(x / cellSize), 0, columns - 1);
+    }
+
+    private int row(final double y) {
+        return Math.clamp((long) Math.floor(y / cellSize), 0, rows - 1);
+    }
+
+    /**
+     * Returns the lowest coordinate inside a cell along one axis. The first
+     * cell extends forever, since out-of-bounds items are clamped into it.
+     */
+    private double cellStart(final int index) {
+        return index == 0 ? Double.NEGATIVE_INFINITY : index * cellSize;
+    }
+
+    /**
+     * Returns the coordinate just past a cell along one axis. The last cell
+     * extends forever, since out-of-bounds items are clamped into it.
+     */
+    private double cellEnd(final int index, final int count) {
+        return index == count - 1 ? Double.POSITIVE_INFINITY : (index + 1) * cellSize;
+    }
+
+    private void allocateRanges(final int capacity) {
+        minColumns = new int[capacity];
+        maxColumns = new int[capacity];
+        minRows = new int[capacity];
+        maxRows = new int[capacity];
+        leftStarts = new double[capacity];
+        leftEnds = new double[capacity];
+        rightStarts = new double[capacity];
+        rightEnds = new double[capacity];
+        topStarts = new double[capacity];
+        topEnds = new double[capacity];
+        bottomStarts = new double[capacity];
+        bottomEnds = new double[capacity];
+        for (int id = 0; id < capacity; id++) {
+            clearRange(id);
+        }
+    }
+
+    private void growRanges() {
+        final int oldCapacity = minColumns.length;
+        final int capacity = oldCapacity * 2;
+        minColumns = Arrays.copyOf(minColumns, capacity);
+        maxColumns = Arrays.copyOf(maxColumns, capacity);
+        minRows = Arrays.copyOf(minRows, capacity);
+        maxRows = Arrays.copyOf(maxRows, capacity);
+        leftStarts = Arrays.copyOf(leftStarts, capacity);
+        leftEnds = Arrays.copyOf(leftEnds, capacity);
+        rightStarts = Arrays.copyOf(rightStarts, capacity);
+        rightEnds = Arrays.copyOf(rightEnds, capacity);
+        topStarts = Arrays.copyOf(topStarts, capacity);
+        topEnds = Arrays.copyOf(topEnds, capacity);
+        bottomStarts = Arrays.copyOf(bottomStarts, capacity);
+        bottomEnds = Arrays.copyOf(bottomEnds, capacity);
+        for (int id = oldCapacity; id < capacity; id++) {
+            clearRange(id);
+        }
+    }
+}
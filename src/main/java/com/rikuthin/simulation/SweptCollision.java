@@ -0,0 +1,145 @@
+package com.rikuthin.simulation;
+
+/**
+ * Continuous collision tests: when, rather than whether, a moving shape first
+ * touches another.
+ * <p>
+ * A circle moving in a straight line touches a box exactly when its centre
+ * enters the box grown by the circle's radius, a rectangle with rounded
+ * corners. That shape is the union of the box widened by the radius, the box
+ * heightened by the radius and a circle of that radius on each corner, so the
+ * first contact is the earliest time the centre enters any of the six.
+ * Motion is relative, so a box moving at a constant velocity is handled by
+ * subtracting its velocity from the circle's.
+ * </p>
+ * <p>
+ * Unlike {@link CollisionKernel}, touching counts as contact here: a time of
+ * impact is the moment the shapes first meet, not the moment they first
+ * overlap.
+ * </p>
+ */
+public final class SweptCollision {
+
+    /**
+     * Returned when the shapes don't meet in the time given.
+     */
+    public static final double NO_IMPACT = Double.POSITIVE_INFINITY;
+
+    private SweptCollision() {
+    }
+
+    /**
+     * Finds when a moving circle first touches a box.
+     *
+     * @param centreX The x-coordinate of the circle's centre at time 0.
+     * @param centreY The y-coordinate of the circle's centre at time 0.
+     * @param radius The radius of the circle.
+     * @param vx The circle's velocity along x relative to the box, per unit of
+     * time.
+     * @param vy The circle's velocity along y relative to the box, per unit of
+     * time.
+     * @param boxX The x-coordinate of the box at time 0.
+     * @param boxY The y-coordinate of the box at time 0.
+     * @param boxWidth The width of the box.
+     * @param boxHeight The height of the box.
+     * @param maxTime The latest time of interest.
+     * @return The first time in {@code [0, maxTime]} at which the circle
+     * touches the box, 0 if it already does, or {@link #NO_IMPACT}.
+     */
+    public static double circleBoxImpact(final double centreX, final double centreY, final double radius,
+            final double vx, final double vy, final double boxX, final double boxY, final double boxWidth,
+            final double boxHeight, final double maxTime) {
+        final double right = boxX + boxWidth;
+        final double bottom = boxY + boxHeight;
+
+        // Most paths miss the box grown by the radius on every side, which holds the rounded shape
+        final double outer = rayBoxEntry(centreX, centreY, vx, vy, boxX - radius, boxY - radius, right + radius,
+                bottom + radius, maxTime);
+        if (outer == NO_IMPACT) {
+            return NO_IMPACT;
+        }
+        final double enterX = centreX + vx * outer;
+        final double enterY = centreY + vy * outer;
+        if ((enterX >= boxX && enterX <= right) || (enterY >= boxY && enterY <= bottom)) {
+            return outer; // Entered through a flat side, not a corner
+        }
+
+        // The box widened and heightened by the radius
+        double first = rayBoxEntry(centreX, centreY, vx, vy, boxX - radius, boxY, right + radius, bottom, maxTime);
+        first = Math.min(first, rayBoxEntry(centreX, centreY, vx, vy, boxX, boxY - radius, right, bottom + radius,
+                Math.min(first, maxTime)));
+
+        // The rounded corners
+        final double limit = Math.min(first, maxTime);
+        first = Math.min(first, rayCircleEntry(centreX - boxX, centreY - boxY, vx, vy, radius, limit));
+        first = Math.min(first, rayCircleEntry(centreX - right, centreY - boxY, vx, vy, radius, limit));
+        first = Math.min(first, rayCircleEntry(centreX - boxX, centreY - bottom, vx, vy, radius, limit));
+        first = Math.min(first, rayCircleEntry(centreX - right, centreY - bottom, vx, vy, radius, limit));
+        return first;
+    }
+
+    /**
+     * Finds when a point moving in a straight line first enters a box, using
+     * the slab test.
+     *
+     * @return The entry time in {@code [0, maxTime]}, 0 if the point starts
+     * inside, or {@link #NO_IMPACT}.
+     */
+    private static double rayBoxEntry(final double x, final double y, final double vx, final double vy,
+            final double left, final double top, final double right, final double bottom, final double maxTime) {
+        double enter = 0;
+        double exit = maxTime;
+
+        if (vx == 0) {
+            if (x < left || x > right) {
+                return NO_IMPACT;
+            }
+        } else {
+            final double t1 = (left - x) / vx;
+            final double t2 = (right - x) / vx;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+
+        if (vy == 0) {
+            if (y < top || y > bottom) {
+                return NO_IMPACT;
+            }
+        } else {
+            final double t1 = (top - y) / vy;
+            final double t2 = (bottom - y) / vy;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+
+        return enter <= exit ? enter : NO_IMPACT;
+    }
+
+    /**
+     * Finds when a point moving in a straight line first comes within a
+     * distance of the origin.
+     *
+     * @param x The point's x-coordinate relative to the circle's centre.
+     * @param y The point's y-coordinate relative to the circle's centre.
+     * @return The entry time in {@code [0, maxTime]}, 0 if the point starts
+     * inside, or {@link #NO_IMPACT}.
+     */
+    private static double rayCircleEntry(final double x, final double y, final double vx, final double vy,
+            final double radius, final double maxTime) {
+        final double c = x * x + y * y - radius * radius;
+        if (c <= 0) {
+            return 0;
+        }
+        final double a = vx * vx + vy * vy;
+        final double b = x * vx + y * vy;
+        if (a == 0 || b >= 0) {
+            return NO_IMPACT; // Standing still or moving away
+        }
+        final double discriminant = b * b - a * c;
+        if (discriminant < 0) {
+            return NO_IMPACT;
+        }
+        final double t = c / (-b + Math.sqrt(discriminant)); // The smaller root, without cancellation
+        return t <= maxTime ? t : NO_IMPACT;
+    }
+}
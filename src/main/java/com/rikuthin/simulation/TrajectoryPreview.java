@@ -0,0 +1,226 @@
+package com.rikuthin.simulation;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import com.rikuthin.App;
+import com.rikuthin.game_objects.Bubble;
+import com.rikuthin.utility.Bearing2D;
+import com.rikuthin.utility.RandomColour;
+
+/**
+ * Predicts the path a shot would take if fired now, for drawing an aim line
+ * that follows the cursor.
+ * <p>
+ * The shot is flown one step at a time through a private world holding a
+ * copy of a snapshot's walls, so the path bounces off the sides, follows
+ * moving walls and ends at the first wall it hits exactly as the game's own
+ * tick would fly it. The aim is rounded to {@link #ANGLE_STEP_DEGREES}, and
+ * the last path is kept until either the rounded aim or the snapshot's
+ * {@link RenderSnapshot#getWallVersion() wall version} changes, so a burst of
+ * mouse moves within a tick flies at most one shot per angle.
+ * </p>
+ * <p>
+ * Safe to use from any thread; paths are immutable once returned.
+ * </p>
+ */
+public final class TrajectoryPreview {
+
+    /**
+     * The finest difference in aim the preview shows.
+     */
+    public static final double ANGLE_STEP_DEGREES = 0.25;
+
+    /**
+     * The most steps a path is followed for, in case a bubble never stops.
+     */
+    private static final int MAX_STEPS = 1_000;
+
+    private static final double STEP_SECONDS = App.TICK_SPEED_MS / 1000.0;
+
+    /**
+     * A predicted path, as the bubble's centre at the start and after every
+     * step.
+     */
+    public static final class Path {
+        private final double[] xs;
+        private final double[] ys;
+        private final boolean hitsWall;
+        private final double minX;
+        private final double minY;
+        private final double maxX;
+        private final double maxY;
+
+        private Path(final double[] xs, final double[] ys, final boolean hitsWall) {
+            this.xs = xs;
+            this.ys = ys;
+            this.hitsWall = hitsWall;
+            double lowX = xs[0];
+            double lowY = ys[0];
+            double highX = xs[0];
+            double highY = ys[0];
+            for (int i = 1; i < xs.length; i++) {
+                lowX = Math.min(lowX, xs[i]);
+                lowY = Math.min(lowY, ys[i]);
+                highX = Math.max(highX, xs[i]);
+                highY = Math.max(highY, ys[i]);
+            }
+            minX = lowX;
+            minY = lowY;
+            maxX = highX;
+            maxY = highY;
+        }
+
+        public int getPointCount() {
+            return xs.length;
+        }
+
+        public double getX(final int index) {
+            return xs[index];
+        }
+
+        public double getY(final int index) {
+            return ys[index];
+        }
+
+        /**
+         * Checks whether the path ends at a wall, in which case its last
+         * point is where the bubble's centre was when it hit.
+         *
+         * @return Whether the bubble would hit a wall.
+         */
+        public boolean hitsWall() {
+            return hitsWall;
+        }
+
+        public double getMinX() {
+            return minX;
+        }
+
+        public double getMinY() {
+            return minY;
+        }
+
+        public double getMaxX() {
+            return maxX;
+        }
+
+        public double getMaxY() {
+            return maxY;
+        }
+    }
+
+    private final World world;
+    private final Bearing2D aim = new Bearing2D(0);
+    private final double shotSpeed;
+    private boolean stopped;
+
+    // Reused for every flight; each path gets a trimmed copy
+    private double[] xs = new double[64];
+    private double[] ys = new double[64];
+
+    // What the last path was worked out for
+    private Path path;
+    private long pathVersion;
+    private long pathAngle;
+    private int pathLaunchX;
+    private int pathLaunchY;
+
+    /**
+     * Constructs a new TrajectoryPreview.
+     *
+     * @param width The width of the playing field.
+     * @param height The height of the playing field.
+     * @param shotSpeed The speed (in pixels per tick) of a shot.
+     */
+    public TrajectoryPreview(final double width, final double height, final double shotSpeed) {
+        this.shotSpeed = shotSpeed;
+        world = new World(width, height, new Random(0), new WorldListener() {
+            @Override
+            public void onBubbleStopped() {
+                stopped = true;
+            }
+        });
+        world.reserveBubbles(1);
+    }
+
+    public double getWidth() {
+        return world.getWidth();
+    }
+
+    public double getHeight() {
+        return world.getHeight();
+    }
+
+    public double getShotSpeed() {
+        return shotSpeed;
+    }
+
+    /**
+     * Returns the path of a shot aimed from a launch point towards a target,
+     * through the walls in a snapshot. The last path is returned as is if
+     * neither the rounded aim, the launch point nor the walls have changed.
+     *
+     * @param snapshot The snapshot whose walls the shot flies through.
+     * @param launchX The x-coordinate the shot is spawned at.
+     * @param launchY The y-coordinate the shot is spawned at.
+     * @param targetX The x-coordinate aimed at.
+     * @param targetY The y-coordinate aimed at.
+     * @return The predicted path.
+     */
+    public synchronized Path update(final RenderSnapshot snapshot, final int launchX, final int launchY,
+            final int targetX, final int targetY) {
+        aim.setTowards(launchX, launchY, targetX, targetY);
+        final long angle = Math.round(aim.getDegrees() / ANGLE_STEP_DEGREES);
+        final long version = snapshot.getWallVersion();
+        if (path != null && angle == pathAngle && version == pathVersion && launchX == pathLaunchX
+                && launchY == pathLaunchY) {
+            return path;
+        }
+
+        path = fly(snapshot, launchX, launchY, angle * ANGLE_STEP_DEGREES);
+        pathAngle = angle;
+        pathVersion = version;
+        pathLaunchX = launchX;
+        pathLaunchY = launchY;
+        return path;
+    }
+
+    /**
+     * Flies a shot through a copy of a snapshot's walls, recording the
+     * bubble's centre after every step.
+     */
+    private Path fly(final RenderSnapshot snapshot, final int launchX, final int launchY, final double degrees) {
+        world.copyWallsFrom(snapshot.getWalls());
+        aim.setDegrees(degrees);
+        stopped = false;
+        world.spawnBubble(launchX, launchY, RandomColour.ULTRAVIOLET, aim.getDeltaX(shotSpeed),
+                aim.getDeltaY(shotSpeed));
+
+        final double radius = Bubble.SIZE / 2;
+        int count = 0;
+        record(count++, launchX + radius, launchY + radius);
+        boolean hitsWall = false;
+        synchronized (world) {
+            final EntityStore<Bubble> bubbles = world.getBubbleStore();
+            for (int step = 0; step < MAX_STEPS && !stopped; step++) {
+                world.update(STEP_SECONDS);
+                if (bubbles.size() == 0) {
+                    hitsWall = true; // A bubble that hits a wall is removed where it stood
+                    break;
+                }
+                record(count++, bubbles.x()[0] + radius, bubbles.y()[0] + radius);
+            }
+        }
+        return new Path(Arrays.copyOf(xs, count), Arrays.copyOf(ys, count), hitsWall);
+    }
+
+    private void record(final int index, final double x, final double y) {
+        if (index == xs.length) {
+            xs = Arrays.copyOf(xs, index * 2);
+            ys = Arrays.copyOf(ys, index * 2);
+        }
+        xs[index] = x;
+        ys[index] = y;
+    }
+}
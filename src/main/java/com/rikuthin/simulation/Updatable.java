@@ -0,0 +1,28 @@
+package com.rikuthin.simulation;
+
+/**
+ * Represents anything that can be advanced by the {@link SimulationEngine}.
+ * <p>
+ * Implementations should do a single, bounded amount of work per call and must
+ * not block or sleep; the engine is responsible for pacing.
+ * </p>
+ */
+public interface Updatable {
+
+    /**
+     * Advances the object by one simulation step.
+     *
+     * @param dt The length of the step in seconds.
+     */
+    void update(double dt);
+
+    /**
+     * Returns whether the object still needs to be updated. Inactive objects
+     * are dropped by the engine after the tick in which they became inactive.
+     *
+     * @return {@code true} if the object should keep receiving updates.
+     */
+    default boolean isActive() {
+        return true;
+    }
+}
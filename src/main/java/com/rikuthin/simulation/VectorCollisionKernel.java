@@ -0,0 +1,128 @@
+package com.rikuthin.simulation;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The {@link CollisionKernel} built on the {@code jdk.incubator.vector} API.
+ * Tests as many boxes at once as fit in the CPU's preferred vector shape, and
+ * finishes any leftover boxes with the scalar tests.
+ * <p>
+ * Each lane does the same operations in the same order as the scalar tests,
+ * with no fused multiply-adds, so the answers are bit-for-bit the same.
+ * Only ever loaded by name from {@link ScalarCollisionKernel}, since this
+ * class needs {@code --add-modules jdk.incubator.vector} to link.
+ * </p>
+ */
+final class VectorCollisionKernel implements CollisionKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    /**
+     * Constructs a new VectorCollisionKernel.
+     *
+     * @throws UnsupportedOperationException If the CPU can't fit more than
+     * one double in a vector, so there's nothing to gain.
+     */
+    VectorCollisionKernel() {
+        if (SPECIES.length() < 2) {
+            throw new UnsupportedOperationException("No vector shape wider than one double.");
+        }
+    }
+
+    @Override
+    public int firstEllipseHit(final double x, final double y, final double width, final double height,
+            final double[] xs, final double[] ys, final double[] widths, final double[] heights,
+            final int from, final int to) {
+        if (width <= 0 || height <= 0) {
+            return -1;
+        }
+
+        int i = from;
+        final int bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += SPECIES.length()) {
+            final DoubleVector boxWidth = DoubleVector.fromArray(SPECIES, widths, i);
+            final DoubleVector boxHeight = DoubleVector.fromArray(SPECIES, heights, i);
+
+            // Normalise the boxes into the ellipse's unit circle and find their nearest points
+            final DoubleVector normX0 = DoubleVector.fromArray(SPECIES, xs, i).sub(x).div(width).sub(0.5);
+            final DoubleVector normX1 = normX0.add(boxWidth.div(width));
+            final DoubleVector normY0 = DoubleVector.fromArray(SPECIES, ys, i).sub(y).div(height).sub(0.5);
+            final DoubleVector normY1 = normY0.add(boxHeight.div(height));
+
+            final DoubleVector nearX = nearest(normX0, normX1);
+            final DoubleVector nearY = nearest(normY0, normY1);
+            final VectorMask<Double> hits = nearX.mul(nearX).add(nearY.mul(nearY)).compare(VectorOperators.LT, 0.25)
+                    .and(boxWidth.compare(VectorOperators.GT, 0))
+                    .and(boxHeight.compare(VectorOperators.GT, 0));
+            if (hits.anyTrue()) {
+                return i + hits.firstTrue();
+            }
+        }
+
+        for (; i < to; i++) {
+            if (CollisionKernel.ellipseHitsBox(x, y, width, height, xs[i], ys[i], widths[i], heights[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int firstBoxOverlap(final double x, final double y, final double width, final double height,
+            final double[] xs, final double[] ys, final double[] widths, final double[] heights,
+            final int from, final int to, final int skip) {
+        if (width <= 0 || height <= 0) {
+            return -1;
+        }
+
+        final double right = x + width;
+        final double bottom = y + height;
+        int i = from;
+        final int bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += SPECIES.length()) {
+            final DoubleVector boxX = DoubleVector.fromArray(SPECIES, xs, i);
+            final DoubleVector boxY = DoubleVector.fromArray(SPECIES, ys, i);
+            final DoubleVector boxWidth = DoubleVector.fromArray(SPECIES, widths, i);
+            final DoubleVector boxHeight = DoubleVector.fromArray(SPECIES, heights, i);
+
+            VectorMask<Double> hits = boxX.compare(VectorOperators.LT, right)
+                    .and(boxY.compare(VectorOperators.LT, bottom))
+                    .and(boxX.add(boxWidth).compare(VectorOperators.GT, x))
+                    .and(boxY.add(boxHeight).compare(VectorOperators.GT, y))
+                    .and(boxWidth.compare(VectorOperators.GT, 0))
+                    .and(boxHeight.compare(VectorOperators.GT, 0));
+            if (skip >= i && skip < i + SPECIES.length()) {
+                hits = hits.and(VectorMask.fromLong(SPECIES, ~(1L << (skip - i))));
+            }
+            if (hits.anyTrue()) {
+                return i + hits.firstTrue();
+            }
+        }
+
+        for (; i < to; i++) {
+            if (i != skip && CollisionKernel.boxesOverlap(x, y, width, height, xs[i], ys[i], widths[i],
+                    heights[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String getName() {
+        return "vector x" + SPECIES.length();
+    }
+
+    /**
+     * Picks, per lane, the low edge if it is above zero, else the high edge if
+     * it is below zero, else zero.
+     */
+    private static DoubleVector nearest(final DoubleVector low, final DoubleVector high) {
+        final DoubleVector zero = DoubleVector.zero(SPECIES);
+        return zero.blend(high, high.compare(VectorOperators.LT, 0))
+                .blend(low, low.compare(VectorOperators.GT, 0));
+    }
+}
@@ -0,0 +1,195 @@
+package com.rikuthin.simulation;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Steps many {@link GameEnvironment}s at once, for training bots in batches.
+ * <p>
+ * Targets go in and observations, rewards and done flags come out through
+ * flat arrays owned by this class, one slot per environment, so a step
+ * allocates nothing per environment. Environment {@code i}'s observation
+ * starts at {@code i * GameEnvironment.OBSERVATION_SIZE}, and its target is
+ * {@code targets[2 * i]}, {@code targets[2 * i + 1]}.
+ * </p>
+ * <p>
+ * An environment whose game ends is reset straight away, so every
+ * environment always has a game to step: its done flag is set for that step,
+ * its reward is the final shot's, and its observation is the new game's
+ * first. Each environment's games are seeded in turn from the seed it was
+ * reset with, so results are the same however many threads step them.
+ * </p>
+ * <p>
+ * With a pool, the environments are split into ranges stepped as fork/join
+ * tasks; without one they are stepped on the calling thread. Not
+ * thread-safe; call from one thread at a time.
+ * </p>
+ */
+public final class VectorEnvironment {
+
+    /**
+     * The fewest environments worth giving a task of their own.
+     */
+    private static final int MIN_ENVIRONMENTS_PER_TASK = 4;
+
+    private final GameEnvironment[] environments;
+    private final ForkJoinPool pool;
+    private final float[] observations;
+    private final int[] rewards;
+    private final boolean[] dones;
+    private final long[] nextSeeds;
+    private int[] targets; // Only valid during a step
+
+    /**
+     * Constructs a new VectorEnvironment. Call {@link #reset(long)} before the
+     * first step.
+     *
+     * @param count The number of environments.
+     * @param flightMode How each shot is flown.
+     * @param pool The pool to step environments on, or {@code null} to step
+     * them on the calling thread.
+     */
+    public VectorEnvironment(final int count, final FlightMode flightMode, final ForkJoinPool pool) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Environment count must be positive.");
+        }
+        this.pool = pool;
+        environments = new GameEnvironment[count];
+        for (int i = 0; i < count; i++) {
+            environments[i] = new GameEnvironment(flightMode);
+        }
+        observations = new float[count * GameEnvironment.OBSERVATION_SIZE];
+        rewards = new int[count];
+        dones = new boolean[count];
+        nextSeeds = new long[count];
+    }
+
+    public int size() {
+        return environments.length;
+    }
+
+    /**
+     * Returns every environment's latest observation, packed one after
+     * another. The array is reused by every step.
+     *
+     * @return The observations.
+     */
+    public float[] getObservations() {
+        return observations;
+    }
+
+    /**
+     * Returns each environment's reward from the latest step. The array is
+     * reused by every step.
+     *
+     * @return The rewards.
+     */
+    public int[] getRewards() {
+        return rewards;
+    }
+
+    /**
+     * Returns whether each environment's game ended on the latest step. The
+     * array is reused by every step.
+     *
+     * @return The done flags.
+     */
+    public boolean[] getDones() {
+        return dones;
+    }
+
+    /**
+     * Starts a new game in every environment and observes them.
+     *
+     * @param seed The seed for the first environment's game; environment
+     * {@code i} is seeded with {@code seed + i}.
+     */
+    public void reset(final long seed) {
+        for (int i = 0; i < environments.length; i++) {
+            nextSeeds[i] = seed + i;
+            environments[i].reset(nextSeed(i));
+            environments[i].observe(observations, i * GameEnvironment.OBSERVATION_SIZE);
+            rewards[i] = 0;
+            dones[i] = false;
+        }
+    }
+
+    /**
+     * Fires one shot in every environment and observes the results.
+     *
+     * @param targets Each environment's target, as x and y pairs.
+     */
+    public void step(final int[] targets) {
+        if (targets.length < 2 * environments.length) {
+            throw new IllegalArgumentException("Expected a target for each of the " + environments.length
+                    + " environments.");
+        }
+
+        this.targets = targets;
+        try {
+            if (pool == null || environments.length < 2 * MIN_ENVIRONMENTS_PER_TASK) {
+                stepRange(0, environments.length);
+            } else {
+                pool.invoke(new StepTask(0, environments.length));
+            }
+        } finally {
+            this.targets = null;
+        }
+    }
+
+    /**
+     * Steps a range of environments, resetting any whose game ends.
+     *
+     * @param start The first environment.
+     * @param end One past the last environment.
+     */
+    private void stepRange(final int start, final int end) {
+        for (int i = start; i < end; i++) {
+            final GameEnvironment environment = environments[i];
+            final int offset = i * GameEnvironment.OBSERVATION_SIZE;
+            final long transition = environment.step(targets[2 * i], targets[2 * i + 1], observations, offset);
+            rewards[i] = GameEnvironment.reward(transition);
+            dones[i] = GameEnvironment.isDone(transition);
+            if (dones[i]) {
+                environment.reset(nextSeed(i)); // Replays the same game object with the next seed
+                environment.observe(observations, offset);
+            }
+        }
+    }
+
+    /**
+     * Takes the seed for an environment's next game. Successive games in an
+     * environment are as far apart as there are environments, so no two
+     * environments ever play the same seed.
+     */
+    private long nextSeed(final int index) {
+        final long seed = nextSeeds[index];
+        nextSeeds[index] += environments.length;
+        return seed;
+    }
+
+    /**
+     * Steps a range of environments, splitting it in half until each task
+     * has only a few.
+     */
+    private final class StepTask extends RecursiveAction {
+
+        private final int start;
+        private final int end;
+
+        private StepTask(final int start, final int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start >= 2 * MIN_ENVIRONMENTS_PER_TASK) {
+                final int middle = (start + end) >>> 1;
+                invokeAll(new StepTask(start, middle), new StepTask(middle, end));
+                return;
+            }
+            stepRange(start, end);
+        }
+    }
+}
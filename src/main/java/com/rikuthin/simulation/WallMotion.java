@@ -0,0 +1,346 @@
+package com.rikuthin.simulation;
+
+import java.util.Arrays;
+
+import com.rikuthin.game_objects.Wall;
+
+/**
+ * Works out where a {@link World}'s walls are from how long they have been
+ * moving, instead of stepping every wall every tick.
+ * <p>
+ * A wall only moves sideways at a constant speed, and is clamped against an
+ * edge and turned around whenever a step would take it past one. So once it
+ * first reaches an edge it repeats the same cycle of positions forever:
+ * {@code 0, d, 2d, ..., md, L, L - d, ..., L - md} and back to {@code 0},
+ * where {@code d} is the distance covered in a step, {@code L} is the
+ * furthest right the wall can go and {@code m} is the number of whole steps
+ * that fit in {@code L}. Each wall keeps the position and velocity it had at
+ * some anchor tick, and its position at any later tick is read straight off
+ * that cycle. For the game's whole-pixel walls and fixed steps these are
+ * exactly the positions {@link Wall#move(World, int, double)} would reach one
+ * step at a time.
+ * </p>
+ * <p>
+ * Advancing the clock costs nothing per wall. The wall store's positions are
+ * only brought up to date, rebinned in the grid and reported to the listener
+ * when something reads them, which is at most once per tick. Each wall's
+ * position a step earlier is kept alongside, so that a bubble's path over the
+ * last step can be tested against the wall's. Guarded by the world's lock.
+ * </p>
+ */
+final class WallMotion {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final World world;
+    private final EntityStore<Wall> walls;
+
+    // The row each wall had at its anchor tick, and its path from there, indexed by row
+    private double[] anchorXs = new double[INITIAL_CAPACITY];
+    private double[] anchorDxs = new double[INITIAL_CAPACITY];
+    private long[] anchorSteps = new long[INITIAL_CAPACITY];
+    private double[] distances = new double[INITIAL_CAPACITY]; // Covered per step
+    private long[] firstBounces = new long[INITIAL_CAPACITY]; // Steps until it first reaches an edge
+    private long[] fullSteps = new long[INITIAL_CAPACITY];    // Whole steps between the edges
+    private long[] phases = new long[INITIAL_CAPACITY];       // Where in its cycle it was last read
+    private long[] phaseSteps = new long[INITIAL_CAPACITY];   // When it was last read, or -1
+    private double[] previousXs = new double[INITIAL_CAPACITY]; // Where it was the step before the store's
+
+    private double stepTicks = Double.NaN; // Ticks per step; each change restarts every path
+    private long step;                     // Steps taken so far
+    private long syncedStep;               // The step the wall store last showed
+    private double maxDistance;            // The most any wall moves in a step
+
+    /**
+     * Constructs a new WallMotion.
+     *
+     * @param world The world whose walls move.
+     * @param walls The world's wall store.
+     */
+    WallMotion(final World world, final EntityStore<Wall> walls) {
+        this.world = world;
+        this.walls = walls;
+    }
+
+    /**
+     * Starts a wall's path from its row as it stands now.
+     *
+     * @param index The wall's row.
+     */
+    void anchor(final int index) {
+        if (index >= anchorXs.length) {
+            grow(Math.max(index + 1, anchorXs.length * 2));
+        }
+        final double anchorX = walls.x()[index];
+        final double anchorDx = walls.dx()[index];
+        anchorXs[index] = anchorX;
+        anchorDxs[index] = anchorDx;
+        anchorSteps[index] = step;
+        phaseSteps[index] = -1;
+        previousXs[index] = anchorX;
+
+        final double distance = Math.abs(anchorDx) * stepTicks;
+        distances[index] = distance;
+        if (distance > maxDistance) {
+            maxDistance = distance;
+        }
+        final double furthest = world.getWidth() - walls.width()[index];
+        if (!(distance > 0) || !(furthest > 0)) {
+            // Standing still, too wide to move, or no step length yet
+            firstBounces[index] = Long.MAX_VALUE;
+        } else if (anchorDx > 0) {
+            firstBounces[index] = anchorX > furthest ? 1 : (long) Math.floor((furthest - anchorX) / distance) + 1;
+        } else {
+            firstBounces[index] = anchorX < 0 ? 1 : (long) Math.floor(anchorX / distance) + 1;
+        }
+        fullSteps[index] = distance > 0 ? (long) Math.floor(furthest / distance) : 0;
+    }
+
+    /**
+     * Starts a wall's path from its row as it stands now, after the wall has
+     * been stepped on its own from somewhere else. That is kept as where it
+     * was the step before, so a bubble's path is still tested against the
+     * wall's whole move.
+     *
+     * @param index The wall's row.
+     * @param previousX Where the wall was before the step.
+     */
+    void anchor(final int index, final double previousX) {
+        anchor(index);
+        previousXs[index] = previousX;
+        final double distance = Math.abs(walls.x()[index] - previousX);
+        if (distance > maxDistance) {
+            maxDistance = distance;
+        }
+    }
+
+    /**
+     * Moves the clock on by one step. No wall is touched.
+     *
+     * @param ticks How many ticks' worth of movement the step is.
+     */
+    void advance(final double ticks) {
+        setStepTicks(ticks);
+        step++;
+    }
+
+    /**
+     * Moves the clock on by a number of steps at once. No wall is touched.
+     *
+     * @param ticks How many ticks' worth of movement each step is.
+     * @param steps The number of steps.
+     */
+    void skip(final double ticks, final long steps) {
+        setStepTicks(ticks);
+        step += steps;
+    }
+
+    /**
+     * Sets how many ticks' worth of movement each step is from now on.
+     *
+     * @param ticks The ticks per step.
+     */
+    void setStepTicks(final double ticks) {
+        if (Double.compare(ticks, stepTicks) != 0) {
+            // A different step length changes where walls are clamped, so restart every path here
+            sync();
+            stepTicks = ticks;
+            maxDistance = 0;
+            for (int i = 0; i < walls.size(); i++) {
+                anchor(i);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of steps taken so far.
+     *
+     * @return The current step.
+     */
+    long getStep() {
+        return step;
+    }
+
+    /**
+     * Returns where a wall is at a step, without touching the wall store.
+     *
+     * @param index The wall's row.
+     * @param atStep The step, no earlier than the wall's anchor.
+     * @return The wall's x-coordinate at that step.
+     */
+    double positionAt(final int index, final long atStep) {
+        if (!walls.isMoving(index)) {
+            return walls.x()[index];
+        }
+        final long steps = atStep - anchorSteps[index];
+        if (steps < firstBounces[index]) {
+            return linearPosition(index, steps);
+        }
+        return cyclePosition(index, cyclePhase(index, steps));
+    }
+
+    /**
+     * Returns the step at which a wall's current straight run ends, that is
+     * the first step after which it moves by a different amount per step.
+     * Between the two steps, the wall covers the same distance every step.
+     *
+     * @param index The wall's row.
+     * @param atStep The step the run includes, no earlier than the wall's
+     * anchor.
+     * @return The step the run ends at, or {@link Long#MAX_VALUE} for a wall
+     * that never turns.
+     */
+    long runEnd(final int index, final long atStep) {
+        final long firstBounce = firstBounces[index];
+        if (!walls.isMoving(index) || firstBounce == Long.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+
+        final long steps = atStep - anchorSteps[index];
+        if (steps < firstBounce - 1) {
+            return anchorSteps[index] + firstBounce - 1; // Up to the last whole step before the edge
+        }
+        if (steps == firstBounce - 1) {
+            return atStep + 1; // The short step onto the edge
+        }
+
+        final long full = fullSteps[index];
+        final long phase = cyclePhase(index, steps);
+        if (phase < full) {
+            return atStep + (full - phase);
+        }
+        if (phase > full && phase < 2 * full + 1) {
+            return atStep + (2 * full + 1 - phase);
+        }
+        return atStep + 1; // A short step onto an edge
+    }
+
+    /**
+     * Returns where each wall was the step before the one the wall store
+     * shows. A wall that has just been anchored is treated as having stood
+     * still.
+     *
+     * @return The previous x-coordinates, indexed by row.
+     */
+    double[] previousX() {
+        return previousXs;
+    }
+
+    /**
+     * Returns the furthest any wall moves in a step. Never less than the
+     * truth, though it may be more once the fastest wall has stopped.
+     *
+     * @return The distance.
+     */
+    double getMaxDistance() {
+        return maxDistance;
+    }
+
+    /**
+     * Returns whether the wall store shows the walls at the current step.
+     *
+     * @return {@code true} if nothing needs working out.
+     */
+    boolean isSynced() {
+        return syncedStep == step;
+    }
+
+    /**
+     * Writes every moving wall's position and velocity at the current step
+     * into the wall store, rebinning it and reporting the move. Does nothing
+     * if the store is already up to date.
+     */
+    void sync() {
+        if (syncedStep == step) {
+            return;
+        }
+        final boolean readLastStep = syncedStep == step - 1; // As when a bubble is in flight
+        syncedStep = step;
+
+        final double[] xs = walls.x();
+        for (int i = 0; i < walls.size(); i++) {
+            if (walls.isMoving(i)) {
+                final double oldX = xs[i];
+                if (anchorSteps[i] == step) {
+                    previousXs[i] = oldX;
+                } else {
+                    previousXs[i] = readLastStep ? oldX : positionAt(i, step - 1);
+                }
+                evaluate(i, step - anchorSteps[i]);
+                Wall.finishMove(world, i, oldX);
+            }
+        }
+    }
+
+    /**
+     * Works out where a wall is a number of steps after its anchor.
+     *
+     * @param index The wall's row.
+     * @param steps The number of steps since the anchor.
+     */
+    private void evaluate(final int index, final long steps) {
+        final double anchorDx = anchorDxs[index];
+        final double[] xs = walls.x();
+        final double[] dxs = walls.dx();
+
+        if (steps < firstBounces[index]) {
+            xs[index] = linearPosition(index, steps);
+            dxs[index] = anchorDx;
+            return;
+        }
+
+        final long period = 2 * (fullSteps[index] + 1);
+        long phase;
+        if (phaseSteps[index] >= 0 && steps >= phaseSteps[index] && steps - phaseSteps[index] < period) {
+            // Usually read every tick or so, so carry on from the last read
+            phase = phases[index] + (steps - phaseSteps[index]);
+            if (phase >= period) {
+                phase -= period;
+            }
+        } else {
+            phase = cyclePhase(index, steps);
+        }
+        phases[index] = phase;
+        phaseSteps[index] = steps;
+
+        xs[index] = cyclePosition(index, phase);
+        dxs[index] = phase <= fullSteps[index] ? Math.abs(anchorDx) : -Math.abs(anchorDx);
+    }
+
+    /**
+     * Returns where a wall is before it first reaches an edge.
+     */
+    private double linearPosition(final int index, final long steps) {
+        final double distance = distances[index];
+        return anchorDxs[index] > 0 ? anchorXs[index] + steps * distance : anchorXs[index] - steps * distance;
+    }
+
+    /**
+     * Returns how many steps a wall is into its cycle once it has first
+     * reached an edge. The cycle starts at the left edge heading right.
+     */
+    private long cyclePhase(final int index, final long steps) {
+        final long full = fullSteps[index];
+        return ((anchorDxs[index] > 0 ? full + 1 : 0) + (steps - firstBounces[index])) % (2 * (full + 1));
+    }
+
+    private double cyclePosition(final int index, final long phase) {
+        final long full = fullSteps[index];
+        if (phase <= full) {
+            return phase * distances[index];
+        }
+        return world.getWidth() - walls.width()[index] - (phase - full - 1) * distances[index];
+    }
+
+    private void grow(final int capacity) {
+        anchorXs = Arrays.copyOf(anchorXs, capacity);
+        anchorDxs = Arrays.copyOf(anchorDxs, capacity);
+        anchorSteps = Arrays.copyOf(anchorSteps, capacity);
+        distances = Arrays.copyOf(distances, capacity);
+        firstBounces = Arrays.copyOf(firstBounces, capacity);
+        fullSteps = Arrays.copyOf(fullSteps, capacity);
+        phases = Arrays.copyOf(phases, capacity);
+        phaseSteps = Arrays.copyOf(phaseSteps, capacity);
+        previousXs = Arrays.copyOf(previousXs, capacity);
+    }
+}
@@ -0,0 +1,116 @@
+package com.rikuthin.simulation;
+
+import java.util.function.IntPredicate;
+
+import com.rikuthin.game_objects.Wall;
+
+/**
+ * Tests a bubble's path over a single step against walls, for use with
+ * {@link World#sweepHitsAnyWall(WallSweep)}.
+ * <p>
+ * Over the step the bubble is taken to move in a straight line from where it
+ * was to where it ends up, and each wall in a straight line from where it was
+ * the step before to where it is now. A wall is hit if the two touch at any
+ * moment in between, found with {@link SweptCollision}, so however far either
+ * moves in a step neither can pass through the other. The bubble is treated
+ * as a circle as wide as its bounds.
+ * </p>
+ * <p>
+ * A sweep holds the path it was last {@link #set} to, so each thread needs
+ * its own. Callers must hold the world's lock.
+ * </p>
+ */
+public final class WallSweep implements IntPredicate {
+
+    private final World world;
+    private double fromX;
+    private double fromY;
+    private double toX;
+    private double toY;
+    private double size;
+
+    /**
+     * Constructs a new WallSweep.
+     *
+     * @param world The world whose walls are tested.
+     */
+    public WallSweep(final World world) {
+        this.world = world;
+    }
+
+    /**
+     * Sets the path to test.
+     *
+     * @param startX The x-coordinate of the bubble's bounds at the start of
+     * the step.
+     * @param startY The y-coordinate of the bubble's bounds at the start of
+     * the step.
+     * @param endX The x-coordinate of the bubble's bounds at the end of the
+     * step.
+     * @param endY The y-coordinate of the bubble's bounds at the end of the
+     * step.
+     * @param diameter The width of the bubble.
+     * @return This sweep.
+     */
+    public WallSweep set(final double startX, final double startY, final double endX, final double endY,
+            final double diameter) {
+        fromX = startX;
+        fromY = startY;
+        toX = endX;
+        toY = endY;
+        size = diameter;
+        return this;
+    }
+
+    /**
+     * Tests whether the path touches a wall.
+     *
+     * @param wall The wall's row.
+     * @return Whether the bubble and the wall touch during the step.
+     */
+    @Override
+    public boolean test(final int wall) {
+        final EntityStore<Wall> walls = world.getWallStore();
+        final double previousX = world.previousWallX()[wall];
+        final double radius = size / 2;
+        return SweptCollision.circleBoxImpact(fromX + radius, fromY + radius, radius,
+                (toX - fromX) - (walls.x()[wall] - previousX), toY - fromY, previousX, walls.y()[wall],
+                walls.width()[wall], walls.height()[wall], 1) != SweptCollision.NO_IMPACT;
+    }
+
+    /**
+     * Returns the left edge of the box the path covers.
+     *
+     * @return The x-coordinate.
+     */
+    public double minX() {
+        return Math.min(fromX, toX);
+    }
+
+    /**
+     * Returns the top edge of the box the path covers.
+     *
+     * @return The y-coordinate.
+     */
+    public double minY() {
+        return Math.min(fromY, toY);
+    }
+
+    /**
+     * Returns the width of the box the path covers.
+     *
+     * @return The width.
+     */
+    public double width() {
+        return Math.abs(toX - fromX) + size;
+    }
+
+    /**
+     * Returns the height of the box the path covers.
+     *
+     * @return The height.
+     */
+    public double height() {
+        return Math.abs(toY - fromY) + size;
+    }
+}
@@ -0,0 +1,639 @@
+package com.rikuthin.simulation;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+import com.rikuthin.App;
+import com.rikuthin.game_objects.Bubble;
+import com.rikuthin.game_objects.Wall;
+import com.rikuthin.utility.Bearing2D;
+import com.rikuthin.utility.RandomColour;
+
+/**
+ * The headless model of a single game's playing field: its bounds, the walls
+ * and bubbles inside it, and the tick that advances them.
+ * <p>
+ * Nothing in the world touches Swing, so it can be simulated without a
+ * display. Swing panels are optional views that draw whatever the world
+ * currently contains.
+ * </p>
+ * <p>
+ * Walls and bubbles are kept in {@link EntityStore}s, and the tick walks those
+ * arrays directly. {@link Wall} and {@link Bubble} objects are only created
+ * when something asks for a particular entity. All access to the stores goes
+ * through the world's lock.
+ * </p>
+ * <p>
+ * Walls aren't stepped by the tick. Their paths are fixed, so their positions
+ * are worked out from the number of ticks so far whenever the wall store or
+ * grid is next asked for; a tick with no bubble in flight costs nothing per
+ * wall.
+ * </p>
+ * <p>
+ * Renderers don't read the stores. Once a {@link SnapshotBuffer} is attached,
+ * the world publishes a copy of itself to it after every change, and
+ * renderers draw from the newest copy without taking the lock.
+ * </p>
+ */
+public class World implements Updatable {
+
+    /**
+     * The width (in pixels) of the playing field used by the game.
+     */
+    public static final int DEFAULT_WIDTH = 600;
+
+    /**
+     * The height (in pixels) of the playing field used by the game.
+     */
+    public static final int DEFAULT_HEIGHT = 590;
+
+    /**
+     * The number of points awarded for a bubble reaching the top.
+     */
+    public static final int POINTS_PER_BUBBLE = 100;
+
+    /**
+     * The most walls for which a bubble's path is tested against every wall
+     * rather than looking its neighbours up in the grid.
+     */
+    public static final int LINEAR_SCAN_WALLS = 12;
+
+    /**
+     * The fewest walls a new field is given.
+     */
+    public static final int MIN_WALLS = 3;
+
+    /**
+     * The most walls a new field is given.
+     */
+    public static final int MAX_WALLS = 10;
+
+    private final double width;
+    private final double height;
+    private final Random random;
+    private final WorldListener listener;
+    private final DeferredDamage deferredDamage; // Holds moves back while a snapshot buffer is attached
+    private final EntityStore<Wall> walls;
+    private final EntityStore<Bubble> bubbles;
+    private final SpatialHash wallGrid;
+    private final CollisionKernel collisionKernel;
+    private final WallMotion wallMotion;
+    private final EventDrivenFlight flight;
+    private final WallSweep wallSweep;   // Reused for every bubble's path over a tick
+
+    private Consumer<Updatable> spawnListener;
+    private RegionUpdater regionUpdater; // Null while updating on the calling thread
+    private SnapshotBuffer snapshots;    // Null while nothing draws the world
+    private long wallChanges;            // Walls added, removed or moved other than by the clock
+
+    /**
+     * Constructs a new, empty World.
+     *
+     * @param width The width of the playing field.
+     * @param height The height of the playing field.
+     * @param random The source of randomness for wall placement and speeds.
+     * @param listener Receives game events; may be {@link WorldListener#NONE}.
+     */
+    public World(final double width, final double height, final Random random, final WorldListener listener) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("World dimensions must be positive.");
+        }
+        this.width = width;
+        this.height = height;
+        this.random = random;
+        this.listener = listener == null ? WorldListener.NONE : listener;
+        this.deferredDamage = new DeferredDamage(this.listener);
+        this.walls = new EntityStore<>(this::createWallView);
+        this.bubbles = new EntityStore<>(this::createBubbleView);
+        this.wallGrid = new SpatialHash(width, height, SpatialHash.DEFAULT_CELL_SIZE);
+        this.collisionKernel = CollisionKernel.preferred();
+        this.wallMotion = new WallMotion(this, walls);
+        this.flight = new EventDrivenFlight(this, walls, bubbles, wallMotion);
+        this.wallSweep = new WallSweep(this);
+    }
+
+    public double getWidth() {
+        return width;
+    }
+
+    public double getHeight() {
+        return height;
+    }
+
+    public Random getRandom() {
+        return random;
+    }
+
+    /**
+     * Returns the listener that the world's events should be raised on.
+     * While a snapshot buffer is attached, moves reach the world's listener
+     * only once a snapshot showing them has been published. Callers must hold
+     * the world's lock.
+     *
+     * @return The listener to raise events on.
+     */
+    public WorldListener getListener() {
+        return snapshots == null ? listener : deferredDamage;
+    }
+
+    /**
+     * Returns the store holding every wall, with each moving wall where it is
+     * at the current tick. Callers must hold the world's lock while using it.
+     *
+     * @return The wall store.
+     */
+    public EntityStore<Wall> getWallStore() {
+        if (!wallMotion.isSynced()) {
+            wallMotion.sync(); // Callers already hold the lock
+        }
+        return walls;
+    }
+
+    /**
+     * Returns the store holding every bubble. Callers must hold the world's
+     * lock while using it.
+     *
+     * @return The bubble store.
+     */
+    public EntityStore<Bubble> getBubbleStore() {
+        return bubbles;
+    }
+
+    /**
+     * Returns the grid used to find walls near a given area. Wall ids in the
+     * grid are rows of the wall store. Callers must hold the world's lock
+     * while using it.
+     *
+     * @return The wall grid.
+     */
+    public SpatialHash getWallGrid() {
+        if (!wallMotion.isSynced()) {
+            wallMotion.sync(); // Callers already hold the lock
+        }
+        return wallGrid;
+    }
+
+    /**
+     * Brings every moving wall's row and grid cells up to the current tick,
+     * telling the listener about each move. Happens on its own whenever the
+     * wall store or grid is asked for, and before every snapshot is
+     * published.
+     */
+    public synchronized void syncWalls() {
+        wallMotion.sync();
+    }
+
+    /**
+     * Restarts a wall's path from its row as it stands now, after its row has
+     * been changed by something other than the tick, such as
+     * {@link Wall#move(World, int, double)}. Callers must hold the world's
+     * lock.
+     *
+     * @param index The wall's row.
+     */
+    public void anchorWall(final int index) {
+        wallMotion.anchor(index);
+        wallChanges++;
+    }
+
+    /**
+     * Restarts a wall's path from its row as it stands now, after the wall
+     * has been stepped on its own, as by
+     * {@link Wall#move(World, int, double)}. Bubbles' paths are tested
+     * against the wall moving over that step, not standing where it ended
+     * up. Callers must hold the world's lock.
+     *
+     * @param index The wall's row.
+     * @param previousX Where the wall was before the step.
+     */
+    public void anchorWall(final int index, final double previousX) {
+        wallMotion.anchor(index, previousX);
+        wallChanges++;
+    }
+
+    /**
+     * Returns a number that changes whenever any wall could be somewhere
+     * different: each tick, and whenever a wall is added, removed or moved
+     * other than by the tick. Anything worked out from the walls can be kept
+     * for as long as this stays the same.
+     *
+     * @return The wall version.
+     */
+    public synchronized long getWallVersion() {
+        return wallChanges + wallMotion.getStep(); // Neither ever goes down
+    }
+
+    /**
+     * Returns the kernel used for narrow-phase collision tests.
+     *
+     * @return The collision kernel.
+     */
+    public CollisionKernel getCollisionKernel() {
+        return collisionKernel;
+    }
+
+    /**
+     * Tests whether a bubble's path over the last tick touches any wall, with
+     * each wall moving from where it was the tick before. With only a few
+     * walls every wall is tested; otherwise only the walls in the grid cells
+     * the path could reach. Callers must hold the world's lock.
+     *
+     * @param sweep The path to test.
+     * @return Whether the path touches any wall.
+     */
+    public boolean sweepHitsAnyWall(final WallSweep sweep) {
+        if (!wallMotion.isSynced()) {
+            wallMotion.sync(); // Callers already hold the lock
+        }
+        if (walls.size() <= LINEAR_SCAN_WALLS) {
+            for (int i = 0; i < walls.size(); i++) {
+                if (sweep.test(i)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Walls are binned where they are now, so reach as far as any could have come from
+        final double reach = wallMotion.getMaxDistance();
+        return wallGrid.anyMatch(sweep.minX() - reach, sweep.minY(), sweep.width() + 2 * reach, sweep.height(),
+                sweep);
+    }
+
+    /**
+     * Returns the world's own path test, shared by every bubble updated on
+     * the calling thread. Callers must hold the world's lock.
+     *
+     * @return The shared sweep.
+     */
+    public WallSweep wallSweep() {
+        return wallSweep;
+    }
+
+    /**
+     * Returns where each wall was the tick before the one the wall store
+     * shows. Callers must hold the world's lock and have read the wall store.
+     *
+     * @return The previous x-coordinates, indexed by row.
+     */
+    double[] previousWallX() {
+        return wallMotion.previousX();
+    }
+
+    public synchronized int getWallCount() {
+        return walls.size();
+    }
+
+    public synchronized int getBubbleCount() {
+        return bubbles.size();
+    }
+
+    /**
+     * Returns the object view of a wall.
+     *
+     * @param index The wall's row.
+     * @return The wall.
+     */
+    public synchronized Wall getWall(final int index) {
+        return walls.view(index);
+    }
+
+    /**
+     * Returns the object view of a bubble.
+     *
+     * @param index The bubble's row.
+     * @return The bubble.
+     */
+    public synchronized Bubble getBubble(final int index) {
+        return bubbles.view(index);
+    }
+
+    /**
+     * Returns the handle of a wall, which keeps referring to it however its
+     * row changes.
+     *
+     * @param index The wall's row.
+     * @return The wall's handle.
+     */
+    public synchronized long getWallHandle(final int index) {
+        return walls.handle(index);
+    }
+
+    /**
+     * Returns the handle of a bubble, which keeps referring to it however its
+     * row changes.
+     *
+     * @param index The bubble's row.
+     * @return The bubble's handle.
+     */
+    public synchronized long getBubbleHandle(final int index) {
+        return bubbles.handle(index);
+    }
+
+    /**
+     * Finds the wall a handle refers to.
+     *
+     * @param handle The wall's handle.
+     * @return The wall's current row, or -1 if it has been removed.
+     */
+    public synchronized int findWall(final long handle) {
+        return walls.indexOf(handle);
+    }
+
+    /**
+     * Finds the bubble a handle refers to.
+     *
+     * @param handle The bubble's handle.
+     * @return The bubble's current row, or -1 if it has been removed.
+     */
+    public synchronized int findBubble(final long handle) {
+        return bubbles.indexOf(handle);
+    }
+
+    /**
+     * Sets a callback that is told about every entity added to the world from
+     * now on. Used by schedulers that run each entity separately.
+     *
+     * @param spawnListener The callback, or {@code null} to remove it.
+     */
+    public synchronized void setSpawnListener(final Consumer<Updatable> spawnListener) {
+        this.spawnListener = spawnListener;
+    }
+
+    /**
+     * Spreads each tick over a fork/join pool once the world holds at least
+     * a few thousand entities. Results are exactly the same as updating on
+     * the calling thread; only the time taken changes.
+     *
+     * @param pool The pool to update on, or {@code null} to update on the
+     * calling thread.
+     */
+    public synchronized void setUpdatePool(final ForkJoinPool pool) {
+        regionUpdater = pool == null ? null : new RegionUpdater(this, pool);
+    }
+
+    /**
+     * Attaches the buffer that copies of the world are published to, and
+     * publishes the world as it stands now.
+     *
+     * @param buffer The buffer to publish to, or {@code null} to stop
+     * publishing.
+     */
+    public synchronized void setSnapshotBuffer(final SnapshotBuffer buffer) {
+        snapshots = buffer;
+        publishSnapshot();
+        deferredDamage.flush(); // Nothing is held back once detached
+    }
+
+    /**
+     * Publishes the world as it stands now to the attached snapshot buffer,
+     * if there is one. Spawning and removing entities publish straight away,
+     * but ticks don't: whatever schedules the world publishes it once per
+     * frame, after that frame's steps, so walls are only worked out and the
+     * stores only copied as often as they can be drawn.
+     * <p>
+     * Moves since the last publication are reported to the listener only
+     * now, after the snapshot showing them, so a renderer never repaints a
+     * region from a snapshot older than the change it was told about.
+     * </p>
+     */
+    public synchronized void publishSnapshot() {
+        if (snapshots != null) {
+            wallMotion.sync(); // Walls are worked out lazily, and a frame needs them where they are
+            snapshots.publish(walls, bubbles, getWallVersion());
+            deferredDamage.flush();
+        }
+    }
+
+    /**
+     * Passes every wall and every moving bubble to an action.
+     *
+     * @param action The action to apply.
+     */
+    public synchronized void forEachEntity(final Consumer<Updatable> action) {
+        for (int i = 0; i < walls.size(); i++) {
+            action.accept(walls.view(i));
+        }
+        for (int i = 0; i < bubbles.size(); i++) {
+            if (bubbles.isMoving(i)) {
+                action.accept(bubbles.view(i));
+            }
+        }
+    }
+
+    /**
+     * Removes any existing walls and bubbles and places a new random set of
+     * walls.
+     */
+    public synchronized void initialiseWalls() {
+        walls.clear();
+        bubbles.clear();
+        wallGrid.clear();
+        wallChanges++;
+
+        final int fieldWidth = Math.max((int) width, 150); // Ensure reasonable width
+        final int numWalls = random.nextInt(MAX_WALLS - MIN_WALLS + 1) + MIN_WALLS;
+
+        for (int i = 0; i < numWalls; i++) {
+            int x = random.nextInt(fieldWidth); // Full width range
+            final int y = random.nextInt(301) + 100; // Random Y in [100, 400]
+
+            final int wallWidth = random.nextInt(51) + 30; // Random width [30, 80]
+            final int wallHeight = random.nextInt(21) + 30; // Random height [30, 50]
+
+            // Ensure walls fit within the field width
+            x = Math.min(x, fieldWidth - wallWidth);
+
+            final double speed = random.nextInt(9) + 1.0;
+            final double bearing = random.nextBoolean() ? 0 : 180;
+
+            spawnWall(x, y, wallWidth, wallHeight, RandomColour.next(random), speed, new Bearing2D(bearing));
+        }
+    }
+
+    /**
+     * Removes any existing walls and bubbles and places a copy of every wall
+     * in a store, such as another world's walls copied with
+     * {@link EntityStore#copyFrom(EntityStore)}. Each wall carries on from
+     * where it stands with the same velocity, so it follows the same path as
+     * the original from then on.
+     *
+     * @param layout The walls to copy.
+     */
+    public synchronized void copyWallsFrom(final EntityStore<?> layout) {
+        walls.clear();
+        bubbles.clear();
+        wallGrid.clear();
+        wallChanges++;
+
+        for (int i = 0; i < layout.size(); i++) {
+            final double x = layout.x()[i];
+            final double y = layout.y()[i];
+            final double wallWidth = layout.width()[i];
+            final double wallHeight = layout.height()[i];
+            final int index = walls.add(x, y, wallWidth, wallHeight, layout.dx()[i], layout.dy()[i],
+                    layout.palette()[i], layout.isMoving(i));
+            wallGrid.insert(index, x, y, wallWidth, wallHeight);
+            wallMotion.anchor(index);
+            notifySpawn(walls, index);
+        }
+        publishSnapshot();
+    }
+
+    /**
+     * Adds a moving wall to the world.
+     *
+     * @param x The x-coordinate of the wall.
+     * @param y The y-coordinate of the wall.
+     * @param wallWidth The width of the wall.
+     * @param wallHeight The height of the wall.
+     * @param colour The colour of the wall.
+     * @param speed The movement speed (in pixels per tick).
+     * @param bearing The direction of movement.
+     * @return The wall's row in the wall store.
+     */
+    public synchronized int spawnWall(final double x, final double y, final double wallWidth,
+            final double wallHeight, final RandomColour colour, final double speed, final Bearing2D bearing) {
+        final double absoluteSpeed = Math.abs(speed);
+        final int index = walls.add(x, y, wallWidth, wallHeight, bearing.getDeltaX(absoluteSpeed),
+                bearing.getDeltaY(absoluteSpeed), colour.ordinal(), true);
+        wallGrid.insert(index, x, y, wallWidth, wallHeight);
+        wallMotion.anchor(index);
+        wallChanges++;
+        notifySpawn(walls, index);
+        publishSnapshot();
+        return index;
+    }
+
+    /**
+     * Adds a bubble to the world. The bubble is moving if its velocity is
+     * non-zero.
+     *
+     * @param x The x-coordinate of the bubble.
+     * @param y The y-coordinate of the bubble.
+     * @param colour The colour of the bubble.
+     * @param dx The change in x per tick.
+     * @param dy The change in y per tick, in screen coordinates.
+     * @return The bubble's row in the bubble store.
+     */
+    public synchronized int spawnBubble(final double x, final double y, final RandomColour colour,
+            final double dx, final double dy) {
+        final int index = bubbles.add(x, y, Bubble.SIZE, Bubble.SIZE, dx, dy,
+                colour.ordinal(), dx != 0 || dy != 0);
+        notifySpawn(bubbles, index);
+        publishSnapshot();
+        return index;
+    }
+
+    /**
+     * Makes room for a number of bubbles up front, such as every bubble in a
+     * game, so that firing them allocates nothing. A removed bubble's row is
+     * reused by the next one spawned.
+     *
+     * @param count The number of bubbles to make room for.
+     */
+    public synchronized void reserveBubbles(final int count) {
+        bubbles.reserve(count);
+    }
+
+    /**
+     * Removes a bubble from the world. The last bubble takes over its row.
+     *
+     * @param index The bubble's row.
+     */
+    public synchronized void removeBubble(final int index) {
+        bubbles.remove(index);
+        publishSnapshot();
+    }
+
+    /**
+     * Removes a bubble by its handle, if it is still in the world.
+     *
+     * @param handle The bubble's handle.
+     * @return Whether the bubble was removed; {@code false} if it was already
+     * gone.
+     */
+    public synchronized boolean removeBubble(final long handle) {
+        final int index = bubbles.indexOf(handle);
+        if (index < 0) {
+            return false;
+        }
+        removeBubble(index);
+        return true;
+    }
+
+    /**
+     * Advances every wall and moving bubble by one step.
+     *
+     * @param dt The length of the step in seconds.
+     */
+    @Override
+    public synchronized void update(final double dt) {
+        final double ticks = dt * 1000.0 / App.TICK_SPEED_MS;
+        wallMotion.advance(ticks); // Walls are worked out when next asked for
+
+        if (regionUpdater != null && walls.size() + bubbles.size() >= RegionUpdater.MIN_ENTITIES) {
+            regionUpdater.update(ticks);
+        } else {
+            // Backwards, so a removed bubble is replaced by one already updated
+            for (int i = bubbles.size() - 1; i >= 0; i--) {
+                if (bubbles.isMoving(i)) {
+                    Bubble.move(this, i, ticks);
+                }
+            }
+        }
+    }
+
+    /**
+     * Flies a bubble until it hits a wall or reaches the top, jumping straight
+     * from one contact to the next instead of stepping. Afterwards the walls
+     * are where that many calls to {@link #update(double)} would have left
+     * them, and the listener has heard the same kinds of events.
+     * <p>
+     * Contacts are found continuously, so a bubble can't pass through a wall
+     * however fast it goes, and merely touching a wall counts. That makes the
+     * outcome of a shot differ now and then from the stepped one, which only
+     * looks for overlaps at the start of each step and bounces off the bottom
+     * a little below the edge. Every other bubble must be at rest.
+     * </p>
+     *
+     * @param index The bubble's row.
+     * @param dt The length of a step in seconds.
+     * @param maxSteps The most steps to fly for; a bubble still flying then is
+     * left moving.
+     * @return The number of steps the flight took, counting the step it ended
+     * in.
+     * @throws IllegalStateException If another bubble is moving.
+     */
+    public synchronized long flyBubble(final int index, final double dt, final long maxSteps) {
+        for (int i = 0; i < bubbles.size(); i++) {
+            if (i != index && bubbles.isMoving(i)) {
+                throw new IllegalStateException("Error: Cannot fly bubble. Another bubble is still moving.");
+            }
+        }
+        final long steps = flight.fly(index, dt * 1000.0 / App.TICK_SPEED_MS, maxSteps);
+        publishSnapshot();
+        return steps;
+    }
+
+    private Wall createWallView(final int index) {
+        return new Wall(this, index, walls.handle(index));
+    }
+
+    private Bubble createBubbleView(final int index) {
+        return new Bubble(this, index, bubbles.handle(index));
+    }
+
+    /**
+     * Tells the spawn listener, if any, about a newly added entity.
+     *
+     * @param store The store the entity was added to.
+     * @param index The entity's row.
+     */
+    private void notifySpawn(final EntityStore<? extends Updatable> store, final int index) {
+        if (spawnListener != null) {
+            spawnListener.accept(store.view(index));
+        }
+    }
+}
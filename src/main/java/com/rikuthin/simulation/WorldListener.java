@@ -0,0 +1,48 @@
+package com.rikuthin.simulation;
+
+/**
+ * Receives game events from a {@link World}. All methods default to doing
+ * nothing, so headless runs only need to implement the events they care
+ * about.
+ * <p>
+ * Events are raised on whichever thread is advancing the world.
+ * </p>
+ */
+public interface WorldListener {
+
+    /**
+     * A listener that ignores every event.
+     */
+    WorldListener NONE = new WorldListener() {
+    };
+
+    /**
+     * Called when an entity has moved and any view of the area it covered,
+     * before and after, is stale. An entity removed from the world reports
+     * the same bounds twice.
+     *
+     * @param oldX The x-coordinate of the entity's old bounds.
+     * @param oldY The y-coordinate of the entity's old bounds.
+     * @param newX The x-coordinate of the entity's new bounds.
+     * @param newY The y-coordinate of the entity's new bounds.
+     * @param width The width of the entity's bounds.
+     * @param height The height of the entity's bounds.
+     */
+    default void onEntityMoved(double oldX, double oldY, double newX, double newY, double width, double height) {
+    }
+
+    /**
+     * Called when a bubble has reached the top of the world.
+     *
+     * @param points The number of points awarded.
+     */
+    default void onPointsScored(int points) {
+    }
+
+    /**
+     * Called when a bubble stops moving, either by reaching the top or by
+     * hitting a wall.
+     */
+    default void onBubbleStopped() {
+    }
+}
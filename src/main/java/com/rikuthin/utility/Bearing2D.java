@@ -21,7 +21,7 @@ public final class Bearing2D {
      * @param degrees The initial bearing angle in degrees.
      */
     public Bearing2D(double degrees) {
-        this.degrees = normalize(degrees);
+        this.degrees = normalizeDegrees(degrees);
     }
 
     /**
@@ -34,7 +34,7 @@ public final class Bearing2D {
      * @param endY The y-coordinate of the ending point.
      */
     public Bearing2D(final int startX, final int startY, final int endX, final int endY) {
-        this.degrees = normalize(Math.toDegrees(Math.atan2(endY - startY, endX - startX)));
+        setTowards(startX, startY, endX, endY);
     }
 
     /**
@@ -53,17 +53,71 @@ public final class Bearing2D {
      * @param degrees The new bearing angle in degrees.
      */
     public void setDegrees(double degrees) {
-        this.degrees = normalize(degrees);
+        this.degrees = normalizeDegrees(degrees);
     }
 
     /**
-     * Normalizes an angle to ensure it falls within the range [0, 360).
+     * Points this bearing from one point to another, so a single bearing can
+     * be reused for every shot instead of creating a new one each time.
+     *
+     * @param startX The x-coordinate of the starting point.
+     * @param startY The y-coordinate of the starting point.
+     * @param endX The x-coordinate of the ending point.
+     * @param endY The y-coordinate of the ending point.
+     * @return This bearing.
+     */
+    public Bearing2D setTowards(final int startX, final int startY, final int endX, final int endY) {
+        this.degrees = normalizeDegrees(Math.toDegrees(Math.atan2(endY - startY, endX - startX)));
+        return this;
+    }
+
+    /**
+     * Returns the horizontal component of a velocity along this bearing.
+     *
+     * @param speed The speed (in pixels per tick).
+     * @return The change in x per tick.
+     */
+    public double getDeltaX(final double speed) {
+        return speed * Math.cos(Math.toRadians(degrees));
+    }
+
+    /**
+     * Returns the vertical component of a velocity along this bearing, in
+     * screen coordinates (y grows downwards).
+     *
+     * @param speed The speed (in pixels per tick).
+     * @return The change in y per tick.
+     */
+    public double getDeltaY(final double speed) {
+        return -speed * Math.sin(Math.toRadians(degrees));
+    }
+
+    /**
+     * Creates a Bearing2D instance matching the direction of a velocity.
+     *
+     * @param dx The change in x per tick.
+     * @param dy The change in y per tick, in screen coordinates.
+     * @return The bearing of the velocity.
+     */
+    public static Bearing2D fromDelta(final double dx, final double dy) {
+        return new Bearing2D(Math.toDegrees(Math.atan2(-dy, dx)));
+    }
+
+    /**
+     * Normalizes an angle to ensure it falls within the range [0, 360),
+     * keeping any fractional part.
      *
      * @param degrees The angle to normalize.
      * @return The normalized angle in degrees.
      */
-    private double normalize(final double degrees) {
-        return Math.floorMod((int) degrees, 360);
+    public static double normalizeDegrees(final double degrees) {
+        final double normalized = degrees % 360;
+        if (normalized < 0) {
+            // Tiny negative angles round up to 360 when shifted
+            final double shifted = normalized + 360;
+            return shifted < 360 ? shifted : 0;
+        }
+        return normalized;
     }
 
     /**
@@ -1,32 +1,48 @@
 package com.rikuthin.utility;
 
 import java.awt.Color;
+import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Represents a set of predefined bubble colours for the game.
+ * <p>
+ * Each colour is stored as a packed RGB value, and the matching {@link Color}
+ * is only created the first time it is drawn. This keeps the enum usable in
+ * headless simulations without pulling in the AWT toolkit.
+ * </p>
  */
 public enum RandomColour {
-    MURRAY_RED(new Color(87, 0, 58)),
-    PANTONE_ORANGE(new Color(242, 100, 25)),
-    HUNYADI_YELLOW(new Color(246, 174, 45)),
-    TEA_GREEN(new Color(200, 216, 175)),
-    LAPIS_LAZULI_BLUE(new Color(51, 101, 138)),
-    ULTRAVIOLET(new Color(77, 83, 130)),
-    MAUVINE_PURPLE(new Color(144, 4, 159));
+    MURRAY_RED(0x57003A),
+    PANTONE_ORANGE(0xF26419),
+    HUNYADI_YELLOW(0xF6AE2D),
+    TEA_GREEN(0xC8D8AF),
+    LAPIS_LAZULI_BLUE(0x33658A),
+    ULTRAVIOLET(0x4D5382),
+    MAUVINE_PURPLE(0x90049F);
 
     private static final RandomColour[] VALUES = values(); // Cached values for efficiency
     private static final int SIZE = VALUES.length;
 
-    private final Color colour;
+    private final int rgb;
+    private Color colour;
 
     /**
      * Constructs a RandomColour enum with a specific colour.
      *
-     * @param colour The colour associated with this RandomColour.
+     * @param rgb The packed RGB value of the colour.
      */
-    RandomColour(Color colour) {
-        this.colour = colour;
+    RandomColour(int rgb) {
+        this.rgb = rgb;
+    }
+
+    /**
+     * Returns the packed RGB value of this colour.
+     *
+     * @return The RGB value, with red in bits 16-23.
+     */
+    public int getRgb() {
+        return rgb;
     }
 
     /**
@@ -35,6 +51,9 @@ public enum RandomColour {
      * @return The selected colour.
      */
     public Color getColour() {
+        if (colour == null) {
+            colour = new Color(rgb);
+        }
         return colour;
     }
 
@@ -44,6 +63,26 @@ public enum RandomColour {
      * @return A random colour.
      */
     public static Color getRandomColour() {
-        return VALUES[ThreadLocalRandom.current().nextInt(SIZE)].getColour();
+        return next(ThreadLocalRandom.current()).getColour();
+    }
+
+    /**
+     * Returns the colour with the given palette index.
+     *
+     * @param index The palette index, as returned by {@link #ordinal()}.
+     * @return The colour at that index.
+     */
+    public static RandomColour fromIndex(final int index) {
+        return VALUES[index];
+    }
+
+    /**
+     * Returns a randomly selected colour using the given source of randomness.
+     *
+     * @param random The source of randomness.
+     * @return A random colour.
+     */
+    public static RandomColour next(final Random random) {
+        return VALUES[random.nextInt(SIZE)];
     }
 }
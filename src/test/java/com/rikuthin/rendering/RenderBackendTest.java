@@ -0,0 +1,177 @@
+package com.rikuthin.rendering;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Shape;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.rikuthin.game_objects.Bubble;
+import com.rikuthin.screen_panels.gameplay_subpanels.BubblePanel;
+import com.rikuthin.simulation.EntityStore;
+import com.rikuthin.simulation.World;
+import com.rikuthin.simulation.WorldListener;
+import com.rikuthin.utility.Bearing2D;
+import com.rikuthin.utility.RandomColour;
+
+/**
+ * Draws one scene with the game's original {@link Graphics2D} shapes, an
+ * {@link Ellipse2D} or {@link Rectangle2D} filled and then outlined, and
+ * with each render backend, and compares the pixels.
+ * <p>
+ * The backends differ from the original in two intended ways. They draw
+ * every entity at the nearest whole pixel, where the shapes were drawn
+ * wherever the entity was. And they cut a shape off at the panel's edge
+ * without changing it, where Java2D works a clipped outline out again and
+ * can move it by a pixel along the edge it was cut at.
+ * </p>
+ */
+public class RenderBackendTest {
+
+    private static final int WIDTH = 200;
+    private static final int HEIGHT = 150;
+    private static final int MARGIN = 40; // Room around the panel for shapes hanging off it
+    private static final int BUBBLES = 60;
+
+    @Test
+    public void backendsMatchShapesAtWholePixels() {
+        final World world = newScene(new Random(7), false);
+        final BufferedImage expected = drawWithShapes(world, false, false);
+        for (RenderBackend backend : RenderBackend.values()) {
+            assertEquals(backend + " pixels differing", 0, countDifferentPixels(expected, drawWithPanel(world, backend),
+                    false));
+        }
+    }
+
+    @Test
+    public void backendsDrawBetweenPixelsAtTheNearestPixel() {
+        final World world = newScene(new Random(8), true);
+        final BufferedImage expected = drawWithShapes(world, true, false);
+        for (RenderBackend backend : RenderBackend.values()) {
+            assertEquals(backend + " pixels differing", 0, countDifferentPixels(expected, drawWithPanel(world, backend),
+                    false));
+        }
+    }
+
+    @Test
+    public void clippedOutlinesOnlyDifferAtTheEdge() {
+        final World world = newScene(new Random(7), false);
+        final BufferedImage clipped = drawWithShapes(world, false, true);
+        for (RenderBackend backend : RenderBackend.values()) {
+            final BufferedImage actual = drawWithPanel(world, backend);
+            assertTrue(countDifferentPixels(clipped, actual, false) > 0); // Or the scene cuts nothing off
+            assertEquals(backend + " pixels differing inside the edge", 0,
+                    countDifferentPixels(clipped, actual, true));
+        }
+    }
+
+    /**
+     * Places walls and bubbles at random, some hanging off every edge.
+     */
+    private static World newScene(final Random random, final boolean betweenPixels) {
+        final World world = new World(WIDTH, HEIGHT, random, WorldListener.NONE);
+        world.spawnWall(-12, 40, 50, 30, RandomColour.LAPIS_LAZULI_BLUE, 0, new Bearing2D(0));
+        world.spawnWall(80, 60, 40, 30, RandomColour.MURRAY_RED, 0, new Bearing2D(0));
+        world.spawnWall(WIDTH - 25, HEIGHT - 10, 50, 30, RandomColour.TEA_GREEN, 0, new Bearing2D(0));
+        for (int i = 0; i < BUBBLES; i++) {
+            double x = random.nextInt(WIDTH + (int) Bubble.SIZE) - Bubble.SIZE / 2;
+            double y = random.nextInt(HEIGHT + (int) Bubble.SIZE) - Bubble.SIZE / 2;
+            if (betweenPixels) {
+                x += random.nextDouble() - 0.5;
+                y += random.nextDouble() - 0.5;
+            }
+            world.spawnBubble(x, y, RandomColour.next(random), 0, 0);
+        }
+        return world;
+    }
+
+    /**
+     * Draws the scene as the game did before the backends, each entity
+     * filled and outlined as a shape, onto a surface larger than the panel.
+     *
+     * @param world The scene.
+     * @param round Whether to draw each shape at the nearest whole pixel.
+     * @param clip Whether to clip to the panel, as Swing does when painting
+     * it, rather than only cutting the panel's area out afterwards.
+     * @return The panel's area.
+     */
+    private static BufferedImage drawWithShapes(final World world, final boolean round, final boolean clip) {
+        final BufferedImage surface = new BufferedImage(WIDTH + 2 * MARGIN, HEIGHT + 2 * MARGIN,
+                BufferedImage.TYPE_INT_RGB);
+        final Graphics2D g2 = surface.createGraphics();
+        try {
+            g2.translate(MARGIN, MARGIN);
+            if (clip) {
+                g2.clipRect(0, 0, WIDTH, HEIGHT);
+            }
+            g2.setColor(new BubblePanel().getBackground());
+            g2.fillRect(0, 0, WIDTH, HEIGHT);
+            synchronized (world) {
+                final EntityStore<?> walls = world.getWallStore();
+                for (int i = 0; i < walls.size(); i++) {
+                    fillAndOutline(g2, new Rectangle2D.Double(at(walls.x()[i], round), at(walls.y()[i], round),
+                            walls.width()[i], walls.height()[i]), walls.palette()[i]);
+                }
+                final EntityStore<?> bubbles = world.getBubbleStore();
+                for (int i = 0; i < bubbles.size(); i++) {
+                    fillAndOutline(g2, new Ellipse2D.Double(at(bubbles.x()[i], round), at(bubbles.y()[i], round),
+                            bubbles.width()[i], bubbles.height()[i]), bubbles.palette()[i]);
+                }
+            }
+        } finally {
+            g2.dispose();
+        }
+        return surface.getSubimage(MARGIN, MARGIN, WIDTH, HEIGHT);
+    }
+
+    private static double at(final double position, final boolean round) {
+        return round ? Math.round(position) : position;
+    }
+
+    private static void fillAndOutline(final Graphics2D g2, final Shape shape, final int palette) {
+        g2.setColor(RandomColour.fromIndex(palette).getColour());
+        g2.fill(shape);
+        g2.setColor(Color.BLACK);
+        g2.draw(shape);
+    }
+
+    private static BufferedImage drawWithPanel(final World world, final RenderBackend backend) {
+        final BubblePanel panel = new BubblePanel();
+        panel.setSize(WIDTH, HEIGHT);
+        panel.setWorld(world);
+        panel.setRenderBackend(backend);
+        final BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        final Graphics2D g2 = image.createGraphics();
+        try {
+            panel.paint(g2);
+        } finally {
+            g2.dispose();
+        }
+        return image;
+    }
+
+    /**
+     * Counts the pixels that differ between two images of the panel.
+     *
+     * @param skipEdge Whether to leave out the outermost rows and columns.
+     */
+    private static int countDifferentPixels(final BufferedImage a, final BufferedImage b, final boolean skipEdge) {
+        final int inset = skipEdge ? 1 : 0;
+        int different = 0;
+        for (int y = inset; y < HEIGHT - inset; y++) {
+            for (int x = inset; x < WIDTH - inset; x++) {
+                if (a.getRGB(x, y) != b.getRGB(x, y)) {
+                    different++;
+                }
+            }
+        }
+        return different;
+    }
+}
@@ -0,0 +1,82 @@
+package com.rikuthin.simulation;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks the collision kernels against the AWT geometry classes.
+ */
+public class CollisionKernelTest {
+
+    private static final int ROUNDS = 2_000;
+    private static final int BOXES = 37; // Not a multiple of any vector length
+
+    @Test
+    public void scalarKernelMatchesAwt() {
+        assertMatchesAwt(CollisionKernel.scalar());
+    }
+
+    @Test
+    public void preferredKernelMatchesAwt() {
+        assertMatchesAwt(CollisionKernel.preferred());
+    }
+
+    @Test
+    public void touchingEdgesDoNotCollide() {
+        final double[] xs = {10, 0, 0, 10};
+        final double[] ys = {0, 10, 0, 10};
+        final double[] sizes = {10, 10, 0, 10};
+        for (CollisionKernel kernel : new CollisionKernel[] {CollisionKernel.scalar(), CollisionKernel.preferred()}) {
+            assertEquals(-1, kernel.firstEllipseHit(0, 0, 10, 10, xs, ys, sizes, sizes, 0, 3));
+            assertEquals(-1, kernel.firstBoxOverlap(0, 0, 10, 10, xs, ys, sizes, sizes, 0, 3, -1));
+            assertEquals(-1, kernel.firstEllipseHit(0, 0, 10, 10, xs, ys, sizes, sizes, 3, 4)); // Corner gap
+            assertEquals(-1, kernel.firstBoxOverlap(0, 0, 10, 10, xs, ys, sizes, sizes, 3, 4, -1));
+        }
+    }
+
+    private static void assertMatchesAwt(final CollisionKernel kernel) {
+        final Random random = new Random(3);
+        final double[] xs = new double[BOXES];
+        final double[] ys = new double[BOXES];
+        final double[] widths = new double[BOXES];
+        final double[] heights = new double[BOXES];
+
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int i = 0; i < BOXES; i++) {
+                xs[i] = random.nextInt(30);
+                ys[i] = random.nextInt(30);
+                widths[i] = random.nextInt(12) - 1;
+                heights[i] = random.nextInt(12) - 1;
+            }
+            final double x = random.nextInt(30);
+            final double y = random.nextInt(30);
+            final double width = random.nextInt(12) - 1;
+            final double height = random.nextInt(12) - 1;
+            final int skip = random.nextInt(BOXES);
+            final Ellipse2D ellipse = new Ellipse2D.Double(x, y, width, height);
+            final Rectangle2D box = new Rectangle2D.Double(x, y, width, height);
+
+            for (int from = 0; from < BOXES; from++) {
+                int ellipseExpected = -1;
+                int boxExpected = -1;
+                for (int i = BOXES - 1; i >= from; i--) {
+                    if (ellipse.intersects(xs[i], ys[i], widths[i], heights[i])) {
+                        ellipseExpected = i;
+                    }
+                    if (i != skip && box.intersects(xs[i], ys[i], widths[i], heights[i])) {
+                        boxExpected = i;
+                    }
+                }
+                assertEquals(ellipseExpected,
+                        kernel.firstEllipseHit(x, y, width, height, xs, ys, widths, heights, from, BOXES));
+                assertEquals(boxExpected,
+                        kernel.firstBoxOverlap(x, y, width, height, xs, ys, widths, heights, from, BOXES, skip));
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.rikuthin.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import com.rikuthin.game_objects.Bubble;
+
+/**
+ * Plays whole games of a {@link GameSession}, firing each bubble once the
+ * last has stopped, with every change published for drawing, and counts the
+ * bytes the thread allocates once warmed up. Each game is started over
+ * before it is measured, untimed, as placing new walls allocates.
+ * <p>
+ * The JVM itself now and then allocates on the thread, such as when code is
+ * recompiled, so a few games are measured and one must allocate nothing at
+ * all. An allocation on the firing or flight path would show up in every
+ * game.
+ * </p>
+ */
+public class FiringAllocationTest {
+
+    private static final int WARMUP_GAMES = 8;
+    private static final int MEASURED_GAMES = 3;
+    private static final int MAX_TICKS_PER_SHOT = 10_000;
+    private static final double STEP_SECONDS = 0.01;
+
+    // Just below the playing field, as a headless game fires from
+    private static final int LAUNCH_X = World.DEFAULT_WIDTH / 2;
+    private static final int LAUNCH_Y = World.DEFAULT_HEIGHT + (int) (Bubble.SIZE / 2);
+
+    @Test
+    public void steadyFiringAllocatesNothing() {
+        final com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue("Thread allocation counting is not supported on this JVM",
+                threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        final GameSession session = new GameSession(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT, new Random(7),
+                GameSession.SHOT_SPEED, WorldListener.NONE);
+        final SnapshotBuffer snapshots = new SnapshotBuffer();
+        session.getWorld().setSnapshotBuffer(snapshots);
+        final Random aim = new Random(7);
+
+        for (int game = 0; game < WARMUP_GAMES; game++) {
+            session.restart();
+            play(session, snapshots, aim);
+        }
+
+        final long thread = Thread.currentThread().threadId();
+        final long overheadBefore = threads.getThreadAllocatedBytes(thread);
+        final long overhead = threads.getThreadAllocatedBytes(thread) - overheadBefore;
+
+        long fewest = Long.MAX_VALUE;
+        for (int game = 0; game < MEASURED_GAMES && fewest > 0; game++) {
+            session.restart();
+            final long before = threads.getThreadAllocatedBytes(thread);
+            play(session, snapshots, aim);
+            fewest = Math.min(fewest, threads.getThreadAllocatedBytes(thread) - before - overhead);
+            assertTrue("The game did not end", session.isOver() && !session.isShotInFlight());
+        }
+        assertEquals("Bytes allocated over a game of " + GameSession.STARTING_BUBBLES + " shots", 0, fewest);
+    }
+
+    /**
+     * Fires every bubble in turn, ticking the world until each stops and
+     * reading the newest snapshot after every tick as a frame would.
+     */
+    private static void play(final GameSession session, final SnapshotBuffer snapshots, final Random aim) {
+        final World world = session.getWorld();
+        while (session.canShoot()) {
+            session.shoot(LAUNCH_X, LAUNCH_Y, aim.nextInt(World.DEFAULT_WIDTH), aim.nextInt(World.DEFAULT_HEIGHT / 2));
+            for (int tick = 0; tick < MAX_TICKS_PER_SHOT && session.isShotInFlight(); tick++) {
+                world.update(STEP_SECONDS);
+                world.publishSnapshot(); // As the scheduler does once per frame
+
+                final RenderSnapshot frame = snapshots.acquire();
+                snapshots.release(frame);
+            }
+        }
+    }
+}
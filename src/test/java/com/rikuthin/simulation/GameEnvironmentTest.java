@@ -0,0 +1,80 @@
+package com.rikuthin.simulation;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Plays whole games through one environment that is reset in place after
+ * each, alongside a new environment for every game, and checks every step's
+ * reward, done flag and observation are the same.
+ */
+public class GameEnvironmentTest {
+
+    private static final int GAMES = 3;
+    private static final long SEED = 7;
+
+    @Test
+    public void steppedGamesResetInPlaceMatchNewGames() {
+        assertResetMatchesNew(FlightMode.STEPPED);
+    }
+
+    @Test
+    public void eventDrivenGamesResetInPlaceMatchNewGames() {
+        assertResetMatchesNew(FlightMode.EVENT_DRIVEN);
+    }
+
+    @Test
+    public void stepPacksRewardAndDoneFlag() {
+        final GameEnvironment environment = new GameEnvironment(FlightMode.EVENT_DRIVEN);
+        final float[] observation = new float[GameEnvironment.OBSERVATION_SIZE + 3];
+        final Random aim = new Random(SEED);
+        environment.reset(SEED);
+
+        int score = 0;
+        long transition;
+        do {
+            transition = environment.step(aim.nextInt(World.DEFAULT_WIDTH), aim.nextInt(World.DEFAULT_HEIGHT / 2),
+                    observation, 3);
+            assertTrue(GameEnvironment.reward(transition) >= 0);
+            score += GameEnvironment.reward(transition);
+            assertEquals(environment.isDone(), GameEnvironment.isDone(transition));
+            assertEquals(environment.getGame().getRemainingBubbles(),
+                    observation[3 + GameEnvironment.REMAINING_BUBBLES], 0f);
+        } while (!GameEnvironment.isDone(transition));
+        assertEquals(environment.getGame().getScore(), score);
+    }
+
+    private static void assertResetMatchesNew(final FlightMode flightMode) {
+        final GameEnvironment reused = new GameEnvironment(flightMode);
+        final float[] expected = new float[GameEnvironment.OBSERVATION_SIZE];
+        final float[] actual = new float[GameEnvironment.OBSERVATION_SIZE];
+        final Random aim = new Random(SEED);
+
+        for (int game = 0; game < GAMES; game++) {
+            final GameEnvironment fresh = new GameEnvironment(flightMode);
+            fresh.reset(SEED + game);
+            reused.reset(SEED + game);
+            fresh.observe(expected, 0);
+            reused.observe(actual, 0);
+            assertArrayEquals("Game " + game + " started differently", expected, actual, 0f);
+
+            long transition;
+            int shot = 0;
+            do {
+                final int targetX = aim.nextInt(World.DEFAULT_WIDTH);
+                final int targetY = aim.nextInt(World.DEFAULT_HEIGHT / 2);
+                final long expectedTransition = fresh.step(targetX, targetY, expected, 0);
+                transition = reused.step(targetX, targetY, actual, 0);
+                assertEquals("Game " + game + ", shot " + shot, expectedTransition, transition);
+                assertArrayEquals("Game " + game + ", shot " + shot, expected, actual, 0f);
+                shot++;
+            } while (!GameEnvironment.isDone(transition));
+            assertEquals(fresh.getGame().getTicks(), reused.getGame().getTicks());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.rikuthin.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.rikuthin.game_objects.Bubble;
+import com.rikuthin.utility.RandomColour;
+
+/**
+ * Ticks two worlds built from the same seed, one on the calling thread and
+ * one spread over a fork/join pool, and checks they stay exactly the same
+ * whatever the pool's size.
+ */
+public class RegionUpdaterTest {
+
+    private static final int BUBBLES = 3 * RegionUpdater.MIN_ENTITIES;
+    private static final int TICKS = 200;
+    private static final double STEP_SECONDS = 0.01;
+    private static final long SEED = 11;
+
+    @Test
+    public void poolUpdateMatchesSerialUpdate() {
+        for (int threads : new int[] {1, 2, 3, 8}) {
+            final World serial = newWorld();
+            final World parallel = newWorld();
+            final ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                parallel.setUpdatePool(pool);
+                for (int tick = 1; tick <= TICKS; tick++) {
+                    synchronized (serial) {
+                        serial.update(STEP_SECONDS);
+                    }
+                    synchronized (parallel) {
+                        parallel.update(STEP_SECONDS);
+                    }
+                    assertBubblesMatch(serial, parallel, threads, tick);
+                }
+                // Still big enough at the end that every tick went through the pool
+                assertTrue(parallel.getWallCount() + parallel.getBubbleCount() >= RegionUpdater.MIN_ENTITIES);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Builds a world of the usual walls and enough bubbles in flight, in
+     * every direction, for the pool to be used.
+     */
+    private static World newWorld() {
+        final Random random = new Random(SEED);
+        final World world = new World(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT, random, WorldListener.NONE);
+        world.initialiseWalls();
+        for (int i = 0; i < BUBBLES; i++) {
+            world.spawnBubble(random.nextDouble() * (World.DEFAULT_WIDTH - Bubble.SIZE),
+                    random.nextDouble() * (World.DEFAULT_HEIGHT - Bubble.SIZE), RandomColour.next(random),
+                    random.nextDouble() * 20 - 10, -random.nextDouble() * 15);
+        }
+        return world;
+    }
+
+    private static void assertBubblesMatch(final World expectedWorld, final World actualWorld, final int threads,
+            final int tick) {
+        final String where = threads + " threads, tick " + tick;
+        synchronized (expectedWorld) {
+            synchronized (actualWorld) {
+                final EntityStore<Bubble> expected = expectedWorld.getBubbleStore();
+                final EntityStore<Bubble> actual = actualWorld.getBubbleStore();
+                assertEquals(where, expected.size(), actual.size());
+                for (int i = 0; i < expected.size(); i++) {
+                    assertEquals(where, expected.handle(i), actual.handle(i));
+                    assertEquals(where, Double.doubleToRawLongBits(expected.x()[i]),
+                            Double.doubleToRawLongBits(actual.x()[i]));
+                    assertEquals(where, Double.doubleToRawLongBits(expected.y()[i]),
+                            Double.doubleToRawLongBits(actual.y()[i]));
+                    assertEquals(where, expected.isMoving(i), actual.isMoving(i));
+                }
+            }
+        }
+    }
+}
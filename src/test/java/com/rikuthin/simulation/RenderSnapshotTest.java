@@ -0,0 +1,264 @@
+package com.rikuthin.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import com.rikuthin.game_objects.Bubble;
+import com.rikuthin.rendering.RenderBackend;
+import com.rikuthin.screen_panels.gameplay_subpanels.BubblePanel;
+import com.rikuthin.utility.Bearing2D;
+import com.rikuthin.utility.RandomColour;
+
+/**
+ * Fires, ticks and paints a world on separate threads at once. Painters only
+ * ever see whole snapshots: one moment of the world, left alone for as long
+ * as it is being read.
+ */
+public class RenderSnapshotTest {
+
+    private static final int TICKS = 3_000;
+    private static final int SHOOTERS = 2;
+    private static final int SHOTS = 500;
+
+    @Test
+    public void heldSnapshotIsNotRefilled() {
+        final World world = new World(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT, new Random(1), WorldListener.NONE);
+        world.initialiseWalls();
+        final SnapshotBuffer buffer = new SnapshotBuffer();
+        world.setSnapshotBuffer(buffer);
+
+        final RenderSnapshot held = buffer.acquire();
+        assertNotNull(held);
+        final long sequence = held.getSequence();
+        final double firstX = held.getWalls().x()[0];
+        for (int i = 0; i < 100; i++) {
+            world.update(0.01);
+            world.publishSnapshot();
+        }
+        assertEquals(sequence, held.getSequence());
+        assertEquals(firstX, held.getWalls().x()[0], 0);
+
+        final RenderSnapshot newest = buffer.acquire();
+        assertNotSame(held, newest);
+        assertTrue(newest.getSequence() > sequence);
+        buffer.release(newest);
+        buffer.release(held);
+
+        // Once released it is filled again, and no more snapshots are made
+        final Set<RenderSnapshot> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < 100; i++) {
+            world.update(0.01);
+            world.publishSnapshot();
+            final RenderSnapshot snapshot = buffer.acquire();
+            seen.add(snapshot);
+            buffer.release(snapshot);
+        }
+        assertTrue(seen.size() <= 3);
+        assertTrue(seen.contains(held));
+    }
+
+    @Test
+    public void damageIsReportedOnlyOnceItsSnapshotIsPublished() {
+        final SnapshotBuffer buffer = new SnapshotBuffer();
+        final List<Long> seenSequences = new ArrayList<>();
+        final WorldListener listener = new WorldListener() {
+            @Override
+            public void onEntityMoved(final double oldX, final double oldY, final double newX, final double newY,
+                    final double width, final double height) {
+                // Whatever repaints the region now must draw it from a snapshot taken after the move
+                final RenderSnapshot newest = buffer.acquire();
+                try {
+                    seenSequences.add(newest.getSequence());
+                } finally {
+                    buffer.release(newest);
+                }
+            }
+        };
+
+        final World world = new World(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT, new Random(3), listener);
+        world.spawnWall(100, 500, 50, 30, RandomColour.ULTRAVIOLET, 4, new Bearing2D(0));
+        world.spawnWall(300, 450, 50, 30, RandomColour.ULTRAVIOLET, 6, new Bearing2D(180));
+        world.spawnBubble(200, 300, RandomColour.ULTRAVIOLET, 1, -2);
+        world.setSnapshotBuffer(buffer);
+
+        for (int frame = 0; frame < 20; frame++) {
+            seenSequences.clear();
+            final long before;
+            synchronized (world) {
+                final RenderSnapshot previous = buffer.acquire();
+                before = previous.getSequence();
+                buffer.release(previous);
+
+                for (int tick = 0; tick < 3; tick++) {
+                    world.update(0.01);
+                }
+                assertTrue("Moves were reported before their snapshot", seenSequences.isEmpty());
+                world.publishSnapshot();
+            }
+
+            // Every step of the bubble and the walls, each seen from the snapshot just published
+            assertTrue(seenSequences.size() >= 3);
+            for (long sequence : seenSequences) {
+                assertEquals(before + 1, sequence);
+            }
+        }
+    }
+
+    @Test
+    public void concurrentFireAndPaint() throws InterruptedException {
+        final World world = new World(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT, new Random(2), WorldListener.NONE);
+        world.initialiseWalls();
+        final BubblePanel panel = new BubblePanel();
+        panel.setSize(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT);
+        panel.setWorld(world);
+        final SnapshotBuffer buffer = panel.getSnapshotBuffer();
+
+        final Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> writers = new ArrayList<>();
+        final List<Thread> readers = new ArrayList<>();
+
+        // The tick, which also removes a bubble now and then as a hit would
+        writers.add(new Thread(guarded(failures, start, () -> {
+            for (int tick = 0; tick < TICKS; tick++) {
+                synchronized (world) {
+                    world.update(0.01);
+                    world.publishSnapshot();
+                    if (tick % 7 == 0 && world.getBubbleCount() > 0) {
+                        world.removeBubble(0);
+                    }
+                }
+            }
+        })));
+        for (int s = 0; s < SHOOTERS; s++) {
+            final Random random = new Random(s);
+            writers.add(new Thread(guarded(failures, start, () -> {
+                for (int shot = 0; shot < SHOTS; shot++) {
+                    world.spawnBubble(random.nextInt(World.DEFAULT_WIDTH), World.DEFAULT_HEIGHT,
+                            RandomColour.ULTRAVIOLET, random.nextDouble() * 10 - 5, -random.nextDouble() * 15);
+                    Thread.yield();
+                }
+            })));
+        }
+
+        // Paints the panel with each backend, as the EDT would
+        readers.add(new Thread(guarded(failures, start, () -> {
+            final BufferedImage image = new BufferedImage(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT,
+                    BufferedImage.TYPE_INT_RGB);
+            int frame = 0;
+            while (running.get()) {
+                panel.setRenderBackend(frame++ % 2 == 0 ? RenderBackend.SPRITES : RenderBackend.SOFTWARE);
+                final Graphics2D g2 = image.createGraphics();
+                try {
+                    panel.paint(g2);
+                } finally {
+                    g2.dispose();
+                }
+            }
+        })));
+
+        // Check that a snapshot stays whole and unchanged while it is held
+        for (int r = 0; r < 2; r++) {
+            readers.add(new Thread(guarded(failures, start, () -> {
+                long lastSequence = 0;
+                while (running.get()) {
+                    final RenderSnapshot snapshot = buffer.acquire();
+                    try {
+                        assertTrue(snapshot.getSequence() >= lastSequence);
+                        lastSequence = snapshot.getSequence();
+                        final double before = checksum(snapshot);
+                        Thread.yield();
+                        assertEquals(before, checksum(snapshot), 0);
+                        assertEquals(lastSequence, snapshot.getSequence());
+                    } finally {
+                        buffer.release(snapshot);
+                    }
+                }
+            })));
+        }
+
+        for (Thread thread : writers) {
+            thread.start();
+        }
+        for (Thread thread : readers) {
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : writers) {
+            thread.join();
+        }
+        running.set(false);
+        for (Thread thread : readers) {
+            thread.join();
+        }
+
+        if (!failures.isEmpty()) {
+            throw new AssertionError(failures.peek());
+        }
+        final RenderSnapshot last = buffer.acquire();
+        try {
+            synchronized (world) {
+                assertEquals(world.getBubbleCount(), last.getBubbles().size());
+            }
+        } finally {
+            buffer.release(last);
+        }
+        assertSame(world, panel.getWorld());
+    }
+
+    /**
+     * Adds up every row of a snapshot, checking each bubble is whole on the
+     * way.
+     */
+    private static double checksum(final RenderSnapshot snapshot) {
+        double sum = snapshot.getWalls().size();
+        final EntityStore<?> walls = snapshot.getWalls();
+        for (int i = 0; i < walls.size(); i++) {
+            sum += walls.x()[i] + walls.y()[i] * 3;
+        }
+        final EntityStore<?> bubbles = snapshot.getBubbles();
+        for (int i = 0; i < bubbles.size(); i++) {
+            assertEquals(Bubble.SIZE, bubbles.width()[i], 0);
+            assertEquals(Bubble.SIZE, bubbles.height()[i], 0);
+            sum += bubbles.x()[i] * 5 + bubbles.y()[i] * 7;
+        }
+        return sum + bubbles.size() * 11.0;
+    }
+
+    /**
+     * Wraps a thread's work so it starts with the others and any failure is
+     * kept for the test to report.
+     */
+    private static Runnable guarded(final Queue<Throwable> failures, final CountDownLatch start,
+            final Runnable work) {
+        return () -> {
+            try {
+                start.await();
+                work.run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Throwable t) {
+                failures.add(t);
+            }
+        };
+    }
+}
@@ -0,0 +1,165 @@
+package com.rikuthin.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.function.Consumer;
+
+import org.junit.Test;
+
+import com.rikuthin.game_objects.Bubble;
+import com.rikuthin.game_objects.Wall;
+import com.rikuthin.utility.Bearing2D;
+import com.rikuthin.utility.RandomColour;
+
+/**
+ * Fires bubbles at walls they would once have passed straight through: the
+ * bubble or the wall moves further in a tick than the two are thick, so
+ * neither where the bubble was nor where it ends up touches the wall. Each
+ * hit must happen in the step the two cross, not on some later pass. Every
+ * scenario is flown both step by step and event by event.
+ */
+public class TunnellingTest {
+
+    private static final double STEP_SECONDS = 0.01;
+    private static final int MAX_STEPS = 10_000;
+    private static final double RADIUS = Bubble.SIZE / 2;
+
+    /**
+     * Remembers how a flight ended.
+     */
+    private static final class Outcome implements WorldListener {
+        private boolean scored;
+        private boolean stopped;
+
+        @Override
+        public void onPointsScored(final int points) {
+            scored = true;
+        }
+
+        @Override
+        public void onBubbleStopped() {
+            stopped = true;
+        }
+    }
+
+    @Test
+    public void fastBubbleHitsThinWall() {
+        // Steps from y = 520 to 420 to 320 to 220, never overlapping the wall at 300
+        assertHitsInBothModes(STEP_SECONDS, 3, world -> {
+            world.spawnWall(200, 300, 200, 2, RandomColour.ULTRAVIOLET, 0, new Bearing2D(0));
+            world.spawnBubble(285, 520, RandomColour.ULTRAVIOLET, 0, -100);
+        });
+    }
+
+    @Test
+    public void slowTickDoesNotSkipWall() {
+        // A normal shot speed, but ten ticks to a step: 150 pixels at a time
+        assertHitsInBothModes(STEP_SECONDS * 10, 2, world -> {
+            world.spawnWall(200, 300, 200, 10, RandomColour.ULTRAVIOLET, 0, new Bearing2D(0));
+            world.spawnBubble(285, 530, RandomColour.ULTRAVIOLET, 0, -15);
+        });
+    }
+
+    @Test
+    public void fastWallSweepsThroughBubble() {
+        // The wall steps from 240-260 to 340-360, either side of the bubble at 300-330
+        assertHitsInBothModes(STEP_SECONDS, 3, world -> {
+            world.spawnWall(40, 300, 20, 40, RandomColour.ULTRAVIOLET, 100, new Bearing2D(0));
+            world.spawnBubble(300, 305, RandomColour.ULTRAVIOLET, 0, -1);
+        });
+    }
+
+    @Test
+    public void wallSteppedOnItsOwnSweepsThroughBubble() {
+        // As in the actor schedulers, the wall takes its own step before the bubble takes its
+        final Outcome outcome = new Outcome();
+        final World world = new World(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT, new Random(1), outcome);
+        world.spawnWall(240, 300, 20, 40, RandomColour.ULTRAVIOLET, 100, new Bearing2D(0));
+        world.spawnBubble(300, 305, RandomColour.ULTRAVIOLET, 0, -1);
+        synchronized (world) {
+            Wall.move(world, 0, 1.0);
+            Bubble.move(world, 0, 1.0);
+        }
+        assertTrue(outcome.stopped);
+        assertFalse(outcome.scored);
+    }
+
+    @Test
+    public void bubbleAndWallCrossHeadOn() {
+        // After one step the wall is behind where the bubble both started and ended
+        assertHitsInBothModes(STEP_SECONDS, 1, world -> {
+            world.spawnWall(175, 290, 10, 50, RandomColour.ULTRAVIOLET, 5, new Bearing2D(180));
+            world.spawnBubble(100, 300, RandomColour.ULTRAVIOLET, 100, -1);
+        });
+    }
+
+    @Test
+    public void pathGrazingCornerHits() {
+        assertEquals(Bubble.HIT_WALL, flyPastCorner(RADIUS - 0.5, 3, FlightMode.STEPPED));
+        assertEquals(Bubble.HIT_WALL, flyPastCorner(RADIUS - 0.5, 3, FlightMode.EVENT_DRIVEN));
+    }
+
+    @Test
+    public void pathClearingCornerMisses() {
+        assertEquals(Bubble.REACHED_TOP, flyPastCorner(RADIUS + 0.5, MAX_STEPS, FlightMode.STEPPED));
+        assertEquals(Bubble.REACHED_TOP, flyPastCorner(RADIUS + 0.5, MAX_STEPS, FlightMode.EVENT_DRIVEN));
+    }
+
+    /**
+     * Fires a fast bubble diagonally past the top-left corner of a wall.
+     *
+     * @param distance How close the bubble's centre comes to the corner.
+     * @param steps The most steps to fly for.
+     * @param mode How to fly the bubble.
+     * @return How the flight ended.
+     */
+    private static int flyPastCorner(final double distance, final int steps, final FlightMode mode) {
+        final double diagonal = Math.sqrt(0.5);
+        return fly(STEP_SECONDS, steps, mode, world -> {
+            world.spawnWall(300, 200, 100, 50, RandomColour.ULTRAVIOLET, 0, new Bearing2D(0));
+            // Closest to the corner halfway through a step, heading up and to the right
+            final double closestX = 300 - distance * diagonal;
+            final double closestY = 200 - distance * diagonal;
+            world.spawnBubble(closestX - 250 * diagonal - RADIUS, closestY + 250 * diagonal - RADIUS,
+                    RandomColour.ULTRAVIOLET, 100 * diagonal, -100 * diagonal);
+        });
+    }
+
+    private static void assertHitsInBothModes(final double dt, final int steps, final Consumer<World> setup) {
+        assertEquals(Bubble.HIT_WALL, fly(dt, steps, FlightMode.STEPPED, setup));
+        assertEquals(Bubble.HIT_WALL, fly(dt, steps, FlightMode.EVENT_DRIVEN, setup));
+    }
+
+    /**
+     * Builds a world and flies its only bubble until it stops.
+     *
+     * @param dt The length of a step in seconds.
+     * @param steps The most steps to fly for.
+     * @param mode How to fly the bubble.
+     * @param setup Adds the walls and then the bubble.
+     * @return {@link Bubble#HIT_WALL}, {@link Bubble#REACHED_TOP}, or
+     * {@link Bubble#MOVED} if the bubble was still flying.
+     */
+    private static int fly(final double dt, final int steps, final FlightMode mode,
+            final Consumer<World> setup) {
+        final Outcome outcome = new Outcome();
+        final World world = new World(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT, new Random(1), outcome);
+        setup.accept(world);
+
+        if (mode == FlightMode.EVENT_DRIVEN) {
+            world.flyBubble(0, dt, steps);
+        } else {
+            for (int step = 0; step < steps && !outcome.stopped; step++) {
+                world.update(dt);
+            }
+        }
+
+        if (!outcome.stopped) {
+            return Bubble.MOVED;
+        }
+        return outcome.scored ? Bubble.REACHED_TOP : Bubble.HIT_WALL;
+    }
+}
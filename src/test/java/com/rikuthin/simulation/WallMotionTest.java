@@ -0,0 +1,85 @@
+package com.rikuthin.simulation;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.rikuthin.App;
+import com.rikuthin.game_objects.Wall;
+import com.rikuthin.utility.Bearing2D;
+import com.rikuthin.utility.RandomColour;
+
+/**
+ * Runs walls worked out from their paths alongside the same walls stepped
+ * one tick at a time with {@link Wall#move(World, int, double)}, over many
+ * trips between the edges, and checks they are always in the same place
+ * heading the same way.
+ */
+public class WallMotionTest {
+
+    private static final double STEP_SECONDS = 0.01;
+    private static final int TICKS = 5_000;
+    private static final double WALL_WIDTH = 50;
+    private static final double TRAVEL = World.DEFAULT_WIDTH - WALL_WIDTH; // How far a wall can go
+
+    @Test
+    public void slowWallsMatchSteppedWalls() {
+        assertMatchesStepped(1, 2, 7, 9);
+    }
+
+    @Test
+    public void wallsCrossingTheFieldInAStepMatchSteppedWalls() {
+        assertMatchesStepped(TRAVEL - 1, TRAVEL, TRAVEL + 1, 2 * TRAVEL + 3);
+    }
+
+    /**
+     * Compares walls of each speed, starting at each edge and in the middle,
+     * heading either way, read every tick and after longer gaps.
+     */
+    private static void assertMatchesStepped(final double... speeds) {
+        for (int gap : new int[] {1, 3, 60}) {
+            final World analytic = newWorld(speeds);
+            final World stepped = newWorld(speeds);
+            final double ticks = STEP_SECONDS * 1000.0 / App.TICK_SPEED_MS;
+
+            synchronized (analytic) {
+                synchronized (stepped) {
+                    for (int tick = 1; tick <= TICKS; tick++) {
+                        analytic.update(STEP_SECONDS);
+                        for (int i = 0; i < stepped.getWallCount(); i++) {
+                            Wall.move(stepped, i, ticks);
+                        }
+                        if (tick % gap == 0) {
+                            assertWallsMatch(stepped.getWallStore(), analytic.getWallStore(), tick, gap);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static World newWorld(final double... speeds) {
+        final World world = new World(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT, new Random(1), WorldListener.NONE);
+        for (double speed : speeds) {
+            for (double x : new double[] {0, Math.floor(TRAVEL / 3), TRAVEL}) {
+                for (double bearing : new double[] {0, 180}) {
+                    world.spawnWall(x, world.getWallCount() * 10, WALL_WIDTH, 10, RandomColour.ULTRAVIOLET, speed,
+                            new Bearing2D(bearing));
+                }
+            }
+        }
+        return world;
+    }
+
+    private static void assertWallsMatch(final EntityStore<Wall> expected, final EntityStore<Wall> actual,
+            final int tick, final int gap) {
+        for (int i = 0; i < expected.size(); i++) {
+            final String where = "Wall " + i + " at tick " + tick + ", read every " + gap;
+            assertEquals(where, Double.doubleToRawLongBits(expected.x()[i]), Double.doubleToRawLongBits(actual.x()[i]));
+            assertEquals(where, Double.doubleToRawLongBits(expected.dx()[i]),
+                    Double.doubleToRawLongBits(actual.dx()[i]));
+        }
+    }
+}